@@ -0,0 +1,85 @@
+package ninja.javahacker.jmh.reifiedgeneric;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ObjectMethodsBenchmark {
+
+    private ReifiedGeneric<String> simple;
+
+    private ReifiedGeneric<Map<String, Map<String, List<Long>>>> deep;
+
+    private ReifiedGeneric<Map<String, Map<String, List<Long>>>> deepToo;
+
+    private ReifiedGeneric<Map<String, Map<String, List<Integer>>>> deepOther;
+
+    @Setup
+    public void setup() {
+        simple = ReifiedGeneric.of(String.class);
+        deep = new Token<Map<String, Map<String, List<Long>>>>() {}.getReified();
+        deepToo = new Token<Map<String, Map<String, List<Long>>>>() {}.getReified();
+        deepOther = new Token<Map<String, Map<String, List<Integer>>>>() {}.getReified();
+    }
+
+    @Benchmark
+    public boolean equalsSame() {
+        return deep.equals(deepToo);
+    }
+
+    @Benchmark
+    public boolean equalsDifferent() {
+        return deep.equals(deepOther);
+    }
+
+    @Benchmark
+    public boolean equalsTypes() {
+        return deep.getType().equals(deepOther.getType());
+    }
+
+    @Benchmark
+    public int hashCodeSimple() {
+        return simple.hashCode();
+    }
+
+    @Benchmark
+    public int hashCodeDeep() {
+        return deep.hashCode();
+    }
+
+    @Benchmark
+    public String toStringSimple() {
+        return simple.toString();
+    }
+
+    @Benchmark
+    public String toStringDeep() {
+        return deep.toString();
+    }
+
+    @Benchmark
+    public String typeNameDeep() {
+        return deep.getType().getTypeName();
+    }
+}
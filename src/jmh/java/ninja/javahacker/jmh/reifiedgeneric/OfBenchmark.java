@@ -0,0 +1,74 @@
+package ninja.javahacker.jmh.reifiedgeneric;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OfBenchmark {
+
+    private List<String> shallow;
+
+    private Map<String, Map<String, List<Long>>> deep;
+
+    private Type classType;
+
+    private Type reflectedShallow;
+
+    private Type reflectedDeep;
+
+    private Type wrappedDeep;
+
+    @Setup
+    public void setup() throws NoSuchFieldException {
+        classType = String.class;
+        reflectedShallow = OfBenchmark.class.getDeclaredField("shallow").getGenericType();
+        reflectedDeep = OfBenchmark.class.getDeclaredField("deep").getGenericType();
+        wrappedDeep = ReifiedGeneric.of(reflectedDeep).getType();
+    }
+
+    @Benchmark
+    public ReifiedGeneric<String> ofClass() {
+        return ReifiedGeneric.of(String.class);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<?> ofClassType() {
+        return ReifiedGeneric.of(classType);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<?> ofReflectedShallow() {
+        return ReifiedGeneric.of(reflectedShallow);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<?> ofReflectedDeep() {
+        return ReifiedGeneric.of(reflectedDeep);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<?> ofWrappedDeep() {
+        return ReifiedGeneric.of(wrappedDeep);
+    }
+}
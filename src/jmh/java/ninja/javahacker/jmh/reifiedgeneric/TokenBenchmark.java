@@ -0,0 +1,43 @@
+package ninja.javahacker.jmh.reifiedgeneric;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TokenBenchmark {
+
+    @Benchmark
+    public ReifiedGeneric<String> classToken() {
+        return new Token<String>() {}.getReified();
+    }
+
+    @Benchmark
+    public ReifiedGeneric<List<String>> parameterizedToken() {
+        return new Token<List<String>>() {}.getReified();
+    }
+
+    @Benchmark
+    public ReifiedGeneric<Map<String, Map<String, List<Long>>>> deepToken() {
+        return new Token<Map<String, Map<String, List<Long>>>>() {}.getReified();
+    }
+}
@@ -0,0 +1,158 @@
+package ninja.javahacker.jmh.reifiedgeneric;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import ninja.javahacker.reifiedgeneric.Wrappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WrappersBenchmark {
+
+    private ReifiedGeneric<String> key;
+
+    private ReifiedGeneric<List<Long>> value;
+
+    private ReifiedGeneric<List<String>> list;
+
+    private ReifiedGeneric<Iterator<String>> iterator;
+
+    private ReifiedGeneric<Stream<String>> stream;
+
+    private ReifiedGeneric<Map<String, List<Long>>> map;
+
+    private ReifiedGeneric<Map.Entry<String, List<Long>>> entry;
+
+    @Setup
+    public void setup() {
+        key = ReifiedGeneric.of(String.class);
+        value = new Token<List<Long>>() {}.getReified();
+        list = new Token<List<String>>() {}.getReified();
+        iterator = new Token<Iterator<String>>() {}.getReified();
+        stream = new Token<Stream<String>>() {}.getReified();
+        map = new Token<Map<String, List<Long>>>() {}.getReified();
+        entry = new Token<Map.Entry<String, List<Long>>>() {}.getReified();
+    }
+
+    @Benchmark
+    public ReifiedGeneric<Iterable<String>> iterable() {
+        return Wrappers.iterable(key);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<Iterator<String>> iterator() {
+        return Wrappers.iterator(key);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<Stream<String>> stream() {
+        return Wrappers.stream(key);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<Collection<String>> collection() {
+        return Wrappers.collection(key);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<List<String>> list() {
+        return Wrappers.list(key);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<Set<String>> set() {
+        return Wrappers.set(key);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<SortedSet<String>> sortedSet() {
+        return Wrappers.sortedSet(key);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<NavigableSet<String>> navigableSet() {
+        return Wrappers.navigableSet(key);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<Map<String, List<Long>>> map() {
+        return Wrappers.map(key, value);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<SortedMap<String, List<Long>>> sortedMap() {
+        return Wrappers.sortedMap(key, value);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<NavigableMap<String, List<Long>>> navigableMap() {
+        return Wrappers.navigableMap(key, value);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<Map.Entry<String, List<Long>>> entry() {
+        return Wrappers.entry(key, value);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<String> unwrapIterable() {
+        return Wrappers.unwrapIterable(list);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<String> unwrapIterator() {
+        return Wrappers.unwrapIterator(iterator);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<String> unwrapStream() {
+        return Wrappers.unwrapStream(stream);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<String> unwrapMapKey() {
+        return Wrappers.unwrapMapKey(map);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<List<Long>> unwrapMapValue() {
+        return Wrappers.unwrapMapValue(map);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<String> unwrapMapEntryKey() {
+        return Wrappers.unwrapMapEntryKey(entry);
+    }
+
+    @Benchmark
+    public ReifiedGeneric<List<Long>> unwrapMapEntryValue() {
+        return Wrappers.unwrapMapEntryValue(entry);
+    }
+}
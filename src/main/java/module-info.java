@@ -15,6 +15,9 @@ import ninja.javahacker.reifiedgeneric.Token;
 module ninja.javahacker.reifiedgeneric {
     requires transitive static lombok;
     requires transitive static com.github.spotbugs.annotations;
+    requires transitive static java.compiler;
     exports ninja.javahacker.reifiedgeneric;
+    exports ninja.javahacker.reifiedgeneric.processor;
     opens ninja.javahacker.reifiedgeneric to ninja.javahacker.test.reifiedgeneric;
+    provides javax.annotation.processing.Processor with ninja.javahacker.reifiedgeneric.processor.ReifyProcessor;
 }
\ No newline at end of file
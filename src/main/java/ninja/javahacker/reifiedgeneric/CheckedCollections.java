@@ -0,0 +1,589 @@
+package ninja.javahacker.reifiedgeneric;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import lombok.NonNull;
+import lombok.experimental.PackagePrivate;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Implements the views given by {@link Wrappers#checkedList(List, ReifiedGeneric)},
+ * {@link Wrappers#checkedSet(Set, ReifiedGeneric)} and {@link Wrappers#checkedMap(Map, ReifiedGeneric, ReifiedGeneric)}.
+ *
+ * <p>These work like the ones given by {@link java.util.Collections#checkedList(List, Class)} and its siblings, but every
+ * inserted element is checked through {@link ReifiedGeneric#isInstance(Object)} instead of just by its class. When the
+ * type of the elements has no type arguments to check, the runtime class of an element alone decides, and that decision
+ * is cached for each runtime class, so inserting such elements is usually just a lookup for each one. Elements of types
+ * like {@code List<String>} have their contents checked in full on every insertion, unless their class alone already
+ * rejects them.</p>
+ *
+ * @author Victor Williams Stafusa da Silva
+ */
+@PackagePrivate
+@UtilityClass
+class CheckedCollections {
+
+    @NonNull
+    @PackagePrivate
+    static <E> List<E> list(@NonNull List<E> list, @NonNull ReifiedGeneric<E> type) {
+        return list instanceof RandomAccess ? new CheckedRandomAccessList<>(list, type) : new CheckedList<>(list, type);
+    }
+
+    @NonNull
+    @PackagePrivate
+    static <E> Set<E> set(@NonNull Set<E> set, @NonNull ReifiedGeneric<E> type) {
+        return new CheckedSet<>(set, type);
+    }
+
+    @NonNull
+    @PackagePrivate
+    static <K, V> Map<K, V> map(@NonNull Map<K, V> map, @NonNull ReifiedGeneric<K> keyType, @NonNull ReifiedGeneric<V> valueType) {
+        return new CheckedMap<>(map, keyType, valueType);
+    }
+
+    private static <E> E check(ReifiedGeneric<E> type, E element) {
+        if (element == null || InstanceChecker.isInstanceByClass(type, element)) return element;
+        throw new ClassCastException("Attempt to insert " + element.getClass().getName() + " into a collection of "
+                + type.getType().getTypeName() + ".");
+    }
+
+    private static <E> Collection<E> checkAll(ReifiedGeneric<E> type, Collection<? extends E> elements) {
+        @SuppressWarnings("unchecked")
+        E[] copy = (E[]) elements.toArray();
+        for (E e : copy) {
+            check(type, e);
+        }
+        return Arrays.asList(copy);
+    }
+
+    private static class CheckedCollection<E> implements Collection<E> {
+        private final Collection<E> wrapped;
+        private final ReifiedGeneric<E> type;
+
+        private CheckedCollection(Collection<E> wrapped, ReifiedGeneric<E> type) {
+            this.wrapped = wrapped;
+            this.type = type;
+        }
+
+        protected final E check(E element) {
+            return CheckedCollections.check(type, element);
+        }
+
+        protected final Collection<E> checkAll(Collection<? extends E> elements) {
+            return CheckedCollections.checkAll(type, elements);
+        }
+
+        protected final ReifiedGeneric<E> type() {
+            return type;
+        }
+
+        @Override
+        public int size() {
+            return wrapped.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return wrapped.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return wrapped.contains(o);
+        }
+
+        @Override
+        public Object[] toArray() {
+            return wrapped.toArray();
+        }
+
+        @Override
+        public <T> T[] toArray(T[] a) {
+            return wrapped.toArray(a);
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            Iterator<E> it = wrapped.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public E next() {
+                    return it.next();
+                }
+
+                @Override
+                public void remove() {
+                    it.remove();
+                }
+            };
+        }
+
+        @Override
+        public boolean add(E e) {
+            return wrapped.add(check(e));
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return wrapped.remove(o);
+        }
+
+        @Override
+        public boolean containsAll(Collection<?> c) {
+            return wrapped.containsAll(c);
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends E> c) {
+            return wrapped.addAll(checkAll(c));
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            return wrapped.removeAll(c);
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> c) {
+            return wrapped.retainAll(c);
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super E> filter) {
+            return wrapped.removeIf(filter);
+        }
+
+        @Override
+        public void clear() {
+            wrapped.clear();
+        }
+
+        @Override
+        public void forEach(Consumer<? super E> action) {
+            wrapped.forEach(action);
+        }
+
+        @Override
+        public Spliterator<E> spliterator() {
+            return wrapped.spliterator();
+        }
+
+        @Override
+        public String toString() {
+            return wrapped.toString();
+        }
+    }
+
+    private static final class CheckedSet<E> extends CheckedCollection<E> implements Set<E> {
+        private final Set<E> set;
+
+        private CheckedSet(Set<E> set, ReifiedGeneric<E> type) {
+            super(set, type);
+            this.set = set;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o == this || set.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return set.hashCode();
+        }
+    }
+
+    private static class CheckedList<E> extends CheckedCollection<E> implements List<E> {
+        private final List<E> list;
+
+        private CheckedList(List<E> list, ReifiedGeneric<E> type) {
+            super(list, type);
+            this.list = list;
+        }
+
+        @Override
+        public E get(int index) {
+            return list.get(index);
+        }
+
+        @Override
+        public E set(int index, E element) {
+            return list.set(index, check(element));
+        }
+
+        @Override
+        public void add(int index, E element) {
+            list.add(index, check(element));
+        }
+
+        @Override
+        public boolean addAll(int index, Collection<? extends E> c) {
+            return list.addAll(index, checkAll(c));
+        }
+
+        @Override
+        public E remove(int index) {
+            return list.remove(index);
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            return list.indexOf(o);
+        }
+
+        @Override
+        public int lastIndexOf(Object o) {
+            return list.lastIndexOf(o);
+        }
+
+        @Override
+        public ListIterator<E> listIterator() {
+            return listIterator(0);
+        }
+
+        @Override
+        public ListIterator<E> listIterator(int index) {
+            ListIterator<E> it = list.listIterator(index);
+            return new ListIterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public E next() {
+                    return it.next();
+                }
+
+                @Override
+                public boolean hasPrevious() {
+                    return it.hasPrevious();
+                }
+
+                @Override
+                public E previous() {
+                    return it.previous();
+                }
+
+                @Override
+                public int nextIndex() {
+                    return it.nextIndex();
+                }
+
+                @Override
+                public int previousIndex() {
+                    return it.previousIndex();
+                }
+
+                @Override
+                public void remove() {
+                    it.remove();
+                }
+
+                @Override
+                public void set(E e) {
+                    it.set(check(e));
+                }
+
+                @Override
+                public void add(E e) {
+                    it.add(check(e));
+                }
+            };
+        }
+
+        @Override
+        public List<E> subList(int fromIndex, int toIndex) {
+            return CheckedCollections.list(list.subList(fromIndex, toIndex), type());
+        }
+
+        @Override
+        public void replaceAll(UnaryOperator<E> operator) {
+            list.replaceAll(e -> check(operator.apply(e)));
+        }
+
+        @Override
+        public void sort(Comparator<? super E> c) {
+            list.sort(c);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o == this || list.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return list.hashCode();
+        }
+    }
+
+    private static final class CheckedRandomAccessList<E> extends CheckedList<E> implements RandomAccess {
+        private CheckedRandomAccessList(List<E> list, ReifiedGeneric<E> type) {
+            super(list, type);
+        }
+    }
+
+    private static final class CheckedMap<K, V> implements Map<K, V> {
+        private final Map<K, V> map;
+        private final ReifiedGeneric<K> keyType;
+        private final ReifiedGeneric<V> valueType;
+        private Set<Map.Entry<K, V>> entries;
+
+        private CheckedMap(Map<K, V> map, ReifiedGeneric<K> keyType, ReifiedGeneric<V> valueType) {
+            this.map = map;
+            this.keyType = keyType;
+            this.valueType = valueType;
+        }
+
+        private K checkKey(K key) {
+            return check(keyType, key);
+        }
+
+        private V checkValue(V value) {
+            return check(valueType, value);
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return map.containsKey(key);
+        }
+
+        @Override
+        public boolean containsValue(Object value) {
+            return map.containsValue(value);
+        }
+
+        @Override
+        public V get(Object key) {
+            return map.get(key);
+        }
+
+        @Override
+        public V getOrDefault(Object key, V defaultValue) {
+            return map.getOrDefault(key, defaultValue);
+        }
+
+        @Override
+        public V put(K key, V value) {
+            return map.put(checkKey(key), checkValue(value));
+        }
+
+        @Override
+        public V remove(Object key) {
+            return map.remove(key);
+        }
+
+        @Override
+        public void putAll(Map<? extends K, ? extends V> m) {
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Map.Entry<? extends K, ? extends V>[] copy = m.entrySet().toArray(new Map.Entry[0]);
+            for (Map.Entry<? extends K, ? extends V> e : copy) {
+                checkKey(e.getKey());
+                checkValue(e.getValue());
+            }
+            for (Map.Entry<? extends K, ? extends V> e : copy) {
+                map.put(e.getKey(), e.getValue());
+            }
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return map.keySet();
+        }
+
+        @Override
+        public Collection<V> values() {
+            return map.values();
+        }
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            Set<Map.Entry<K, V>> es = entries;
+            if (es == null) {
+                es = new CheckedEntrySet();
+                entries = es;
+            }
+            return es;
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            return map.putIfAbsent(checkKey(key), checkValue(value));
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            return map.replace(key, oldValue, checkValue(newValue));
+        }
+
+        @Override
+        public V replace(K key, V value) {
+            return map.replace(key, checkValue(value));
+        }
+
+        @Override
+        public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+            map.replaceAll((k, v) -> checkValue(function.apply(k, v)));
+        }
+
+        @Override
+        public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+            return map.computeIfAbsent(checkKey(key), k -> checkValue(mappingFunction.apply(k)));
+        }
+
+        @Override
+        public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            return map.computeIfPresent(key, (k, v) -> checkValue(remappingFunction.apply(k, v)));
+        }
+
+        @Override
+        public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            return map.compute(checkKey(key), (k, v) -> checkValue(remappingFunction.apply(k, v)));
+        }
+
+        @Override
+        public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+            return map.merge(checkKey(key), checkValue(value), (a, b) -> checkValue(remappingFunction.apply(a, b)));
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super K, ? super V> action) {
+            map.forEach(action);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o == this || map.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return map.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return map.toString();
+        }
+
+        /**
+         * A view of the entries whose {@link Map.Entry#setValue(Object)} checks the new values.
+         */
+        private final class CheckedEntrySet extends AbstractSet<Map.Entry<K, V>> {
+            @Override
+            public int size() {
+                return map.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return map.entrySet().contains(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                return map.entrySet().remove(o);
+            }
+
+            @Override
+            public void clear() {
+                map.clear();
+            }
+
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                Iterator<Map.Entry<K, V>> it = map.entrySet().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<K, V> next() {
+                        return new CheckedEntry(it.next());
+                    }
+
+                    @Override
+                    public void remove() {
+                        it.remove();
+                    }
+                };
+            }
+        }
+
+        private final class CheckedEntry implements Map.Entry<K, V> {
+            private final Map.Entry<K, V> entry;
+
+            private CheckedEntry(Map.Entry<K, V> entry) {
+                this.entry = entry;
+            }
+
+            @Override
+            public K getKey() {
+                return entry.getKey();
+            }
+
+            @Override
+            public V getValue() {
+                return entry.getValue();
+            }
+
+            @Override
+            public V setValue(V value) {
+                return entry.setValue(checkValue(value));
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                return o == this || entry.equals(o);
+            }
+
+            @Override
+            public int hashCode() {
+                return entry.hashCode();
+            }
+
+            @Override
+            public String toString() {
+                return entry.toString();
+            }
+        }
+    }
+}
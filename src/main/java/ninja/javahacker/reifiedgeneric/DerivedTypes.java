@@ -0,0 +1,132 @@
+package ninja.javahacker.reifiedgeneric;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+import lombok.NonNull;
+import lombok.experimental.PackagePrivate;
+
+/**
+ * Memoizes the types derived from other types by parameterizing a fixed generic class with them, like the ones given by
+ * {@link Wrappers#list(ReifiedGeneric)} and {@link Wrappers#map(ReifiedGeneric, ReifiedGeneric)}.
+ *
+ * <p>The derived types are stored in the canonical instances of their type arguments through {@link TypeValue}s, so
+ * finding a type derived before is just a couple of identity lookups that allocate nothing. When there are two type
+ * arguments, the derived type is stored in the one whose classes come from the deepest class loader, keyed by the other
+ * one. Since the classes of the other one are all visible from there, this never pins a class loader that could
+ * otherwise be unloaded. Types mixing classes from unrelated class loaders aren't memoized here at all.</p>
+ *
+ * <p>Since the type arguments are canonical instances, the derived types are composed from them through
+ * {@link Interner#composed(Class, ReifiedGeneric)} and {@link Interner#composed(Class, ReifiedGeneric, ReifiedGeneric)},
+ * which neither validate nor traverse them again.</p>
+ *
+ * @author Victor Williams Stafusa da Silva
+ */
+@PackagePrivate
+final class DerivedTypes {
+
+    @PackagePrivate
+    static final DerivedTypes ITERABLE = new DerivedTypes(Iterable.class);
+
+    @PackagePrivate
+    static final DerivedTypes ITERATOR = new DerivedTypes(Iterator.class);
+
+    @PackagePrivate
+    static final DerivedTypes STREAM = new DerivedTypes(Stream.class);
+
+    @PackagePrivate
+    static final DerivedTypes COLLECTION = new DerivedTypes(Collection.class);
+
+    @PackagePrivate
+    static final DerivedTypes LIST = new DerivedTypes(List.class);
+
+    @PackagePrivate
+    static final DerivedTypes SET = new DerivedTypes(Set.class);
+
+    @PackagePrivate
+    static final DerivedTypes SORTED_SET = new DerivedTypes(SortedSet.class);
+
+    @PackagePrivate
+    static final DerivedTypes NAVIGABLE_SET = new DerivedTypes(NavigableSet.class);
+
+    @PackagePrivate
+    static final DerivedTypes MAP = new DerivedTypes(Map.class);
+
+    @PackagePrivate
+    static final DerivedTypes SORTED_MAP = new DerivedTypes(SortedMap.class);
+
+    @PackagePrivate
+    static final DerivedTypes NAVIGABLE_MAP = new DerivedTypes(NavigableMap.class);
+
+    @PackagePrivate
+    static final DerivedTypes ENTRY = new DerivedTypes(Map.Entry.class);
+
+    private final Class<?> rawType;
+
+    private final TypeValue<ReifiedGeneric<?>> single;
+
+    private final TypeValue<ConcurrentMap<ReifiedGeneric<?>, ReifiedGeneric<?>>> byFirst;
+
+    private final TypeValue<ConcurrentMap<ReifiedGeneric<?>, ReifiedGeneric<?>>> bySecond;
+
+    private DerivedTypes(@NonNull Class<?> rawType) {
+        this.rawType = rawType;
+        this.single = new TypeValue<>() {
+            @Override
+            protected ReifiedGeneric<?> computeValue(ReifiedGeneric<?> type) {
+                return Interner.composed(rawType, type);
+            }
+        };
+        this.byFirst = new Pairs();
+        this.bySecond = new Pairs();
+    }
+
+    /**
+     * Gives the type derived from the given one.
+     * @param argument The type argument.
+     * @return The canonical instance of the derived type.
+     */
+    @NonNull
+    @PackagePrivate
+    ReifiedGeneric<?> of(@NonNull ReifiedGeneric<?> argument) {
+        if (argument.anchor() == null) return Interner.composed(rawType, argument);
+        return single.get(argument);
+    }
+
+    /**
+     * Gives the type derived from the given ones.
+     * @param first The first type argument.
+     * @param second The second type argument.
+     * @return The canonical instance of the derived type.
+     */
+    @NonNull
+    @PackagePrivate
+    ReifiedGeneric<?> of(@NonNull ReifiedGeneric<?> first, @NonNull ReifiedGeneric<?> second) {
+        Class<?> anchor = Interner.commonAnchor(first.anchor(), second.anchor());
+        if (anchor == null) return Interner.composed(rawType, first, second);
+        ConcurrentMap<ReifiedGeneric<?>, ReifiedGeneric<?>> pairs =
+                anchor == first.anchor() ? byFirst.get(first) : bySecond.get(second);
+        ReifiedGeneric<?> other = anchor == first.anchor() ? second : first;
+        ReifiedGeneric<?> found = pairs.get(other);
+        if (found != null) return found;
+        ReifiedGeneric<?> created = Interner.composed(rawType, first, second);
+        ReifiedGeneric<?> raced = pairs.putIfAbsent(other, created);
+        return raced == null ? created : raced;
+    }
+
+    private static final class Pairs extends TypeValue<ConcurrentMap<ReifiedGeneric<?>, ReifiedGeneric<?>>> {
+        @Override
+        protected ConcurrentMap<ReifiedGeneric<?>, ReifiedGeneric<?>> computeValue(ReifiedGeneric<?> type) {
+            return new ConcurrentHashMap<>(4);
+        }
+    }
+}
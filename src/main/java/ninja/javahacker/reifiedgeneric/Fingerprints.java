@@ -0,0 +1,116 @@
+package ninja.javahacker.reifiedgeneric;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import lombok.NonNull;
+import lombok.experimental.PackagePrivate;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Computes the stable 64-bit fingerprints given by {@link ReifiedGeneric#fingerprint()}.
+ *
+ * <p>A fingerprint depends only on the names of the classes and on the structure of the type, so it is the same in every
+ * JVM. Classes are hashed by their names with 64-bit FNV-1a. Every other node is hashed by combining a tag telling its
+ * kind with the fingerprints of its children, in order, and each step goes through the MurmurHash3 finalizer, so
+ * reordering or regrouping the children gives unrelated values.</p>
+ *
+ * <p>Arrays are hashed by their component regardless of being represented by a {@link Class} or by a
+ * {@link GenericArrayType}. Owners of parameterized types are taken into account only when they are parameterized
+ * themselves, since otherwise they are already implied by the name of the raw type.</p>
+ *
+ * <p><strong>Changing anything here changes the fingerprints, which are meant to be persisted and shared across
+ * nodes.</strong></p>
+ *
+ * @author Victor Williams Stafusa da Silva
+ */
+@PackagePrivate
+@UtilityClass
+class Fingerprints {
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final long COMBINE = 0x9E3779B97F4A7C15L;
+
+    private static final long ARRAY = 1;
+    private static final long PARAMETERIZED = 2;
+    private static final long WILDCARD = 3;
+    private static final long VARIABLE = 4;
+
+    private static final ClassValue<Long> CLASSES = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            return type.isArray() ? combine(ARRAY, of(type.getComponentType())) : name(type.getName());
+        }
+    };
+
+    /**
+     * Computes the fingerprint of the given type.
+     * @param type The type.
+     * @return The fingerprint of the given type.
+     */
+    @PackagePrivate
+    @SuppressFBWarnings("ITC_INHERITANCE_TYPE_CHECKING")
+    static long of(@NonNull Type type) {
+        if (type instanceof Class<?>) return CLASSES.get((Class<?>) type);
+        if (type instanceof ParameterizedType) {
+            ParameterizedType p = (ParameterizedType) type;
+            Type owner = p.getOwnerType();
+            Type[] args = p.getActualTypeArguments();
+            long h = combine(PARAMETERIZED, owner instanceof ParameterizedType ? of(owner) : 0);
+            h = combine(combine(h, of(p.getRawType())), args.length);
+            for (Type arg : args) {
+                h = combine(h, of(arg));
+            }
+            return h;
+        }
+        if (type instanceof GenericArrayType) return combine(ARRAY, of(((GenericArrayType) type).getGenericComponentType()));
+        if (type instanceof WildcardType) {
+            WildcardType w = (WildcardType) type;
+            Type[] upper = w.getUpperBounds();
+            Type[] lower = w.getLowerBounds();
+            long h = combine(WILDCARD, upper.length);
+            for (Type bound : upper) {
+                h = combine(h, of(bound));
+            }
+            h = combine(h, lower.length);
+            for (Type bound : lower) {
+                h = combine(h, of(bound));
+            }
+            return h;
+        }
+        if (type instanceof TypeVariable<?>) {
+            TypeVariable<?> v = (TypeVariable<?>) type;
+            GenericDeclaration d = v.getGenericDeclaration();
+            String where = d instanceof Class<?> ? ((Class<?>) d).getName() : d.toString();
+            return combine(combine(VARIABLE, name(where)), name(v.getName()));
+        }
+        return name(type.getTypeName());
+    }
+
+    private static long name(String name) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < name.length(); i++) {
+            h = (h ^ name.charAt(i)) * FNV_PRIME;
+        }
+        return mix(h);
+    }
+
+    private static long combine(long h, long x) {
+        return mix((h ^ x) * COMBINE + x);
+    }
+
+    private static long mix(long value) {
+        long k = value;
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,215 @@
+package ninja.javahacker.reifiedgeneric;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import lombok.NonNull;
+import lombok.experimental.PackagePrivate;
+
+/**
+ * Tells how thoroughly {@link ReifiedGeneric#isInstance(Object, InstanceCheck)} and
+ * {@link ReifiedGeneric#checkedCast(Object, InstanceCheck)} verify the contents of collections, maps and arrays.
+ *
+ * <pre>
+ * Map&lt;String, List&lt;Integer&gt;&gt; m = type.checkedCast(decoded, InstanceCheck.sample(16));
+ * </pre>
+ *
+ * <p>The chosen policy is applied at every nesting level, i.e., to each checked element of an outer collection and then
+ * again to the elements of those elements, and so on. The policies other than {@link #FULL} bound the cost of checking
+ * huge contents, at the price of possibly missing some wrongly typed elements.</p>
+ *
+ * <p>Arrays and lists that implement {@link RandomAccess} are sampled by picking random positions directly. Other
+ * collections (including the entries of maps) are sampled in a single pass over their iterators that selects each
+ * element with the probability needed for the chosen ones to be uniformly distributed, so only the chosen ones are
+ * checked, but all of them are still iterated. Parallel checking also needs to reach elements by their positions, so
+ * those other collections are copied into an array first.</p>
+ *
+ * <p>Instances are immutable and thread-safe.</p>
+ *
+ * @author Victor Williams Stafusa da Silva
+ */
+public final class InstanceCheck {
+
+    private static final int CHUNK = 1024;
+
+    /**
+     * Checks every element.
+     */
+    public static final InstanceCheck FULL = new InstanceCheck(Mode.FULL, 0);
+
+    private final Mode mode;
+    private final int limit;
+
+    private enum Mode {
+        FULL, FIRST, SAMPLE, PARALLEL
+    }
+
+    private InstanceCheck(Mode mode, int limit) {
+        this.mode = mode;
+        this.limit = limit;
+    }
+
+    /**
+     * Checks only the first elements of each collection, map and array.
+     * @param count How many elements are checked in each one.
+     * @return A policy that checks only the given number of first elements.
+     * @throws IllegalArgumentException If {@code count} is negative.
+     */
+    @NonNull
+    public static InstanceCheck firstN(int count) {
+        if (count < 0) throw new IllegalArgumentException("The count can't be negative.");
+        return new InstanceCheck(Mode.FIRST, count);
+    }
+
+    /**
+     * Checks only some randomly chosen elements of each collection, map and array. Those with at most {@code count}
+     * elements are fully checked.
+     * @param count How many elements are checked in each one.
+     * @return A policy that checks only the given number of random elements.
+     * @throws IllegalArgumentException If {@code count} is negative.
+     */
+    @NonNull
+    public static InstanceCheck sample(int count) {
+        if (count < 0) throw new IllegalArgumentException("The count can't be negative.");
+        return new InstanceCheck(Mode.SAMPLE, count);
+    }
+
+    /**
+     * Checks every element, splitting the collections, maps and arrays with at least {@code threshold} elements in chunks
+     * that are checked in parallel in the common {@link ForkJoinPool}.
+     * @param threshold The minimum number of elements for checking in parallel.
+     * @return A policy that checks every element, in parallel when there are many of them.
+     * @throws IllegalArgumentException If {@code threshold} is not positive.
+     */
+    @NonNull
+    public static InstanceCheck parallel(int threshold) {
+        if (threshold < 1) throw new IllegalArgumentException("The threshold must be positive.");
+        return new InstanceCheck(Mode.PARALLEL, threshold);
+    }
+
+    /**
+     * Tells if the chosen elements of the given array satisfy the given test.
+     * @param items The array.
+     * @param test The test.
+     * @return {@code true} if all the chosen elements satisfy the test, {@code false} otherwise.
+     */
+    @PackagePrivate
+    boolean allMatch(@NonNull Object[] items, @NonNull Predicate<Object> test) {
+        return allMatch(items.length, i -> items[i], test);
+    }
+
+    /**
+     * Tells if the chosen elements of the given collection satisfy the given test.
+     * @param items The collection.
+     * @param test The test.
+     * @return {@code true} if all the chosen elements satisfy the test, {@code false} otherwise.
+     */
+    @PackagePrivate
+    boolean allMatch(@NonNull Collection<?> items, @NonNull Predicate<Object> test) {
+        if (items instanceof List<?> && items instanceof RandomAccess) {
+            List<?> list = (List<?>) items;
+            return allMatch(list.size(), list::get, test);
+        }
+        if (mode == Mode.PARALLEL && items.size() >= limit) return allMatch(items.toArray(), test);
+        if (mode == Mode.SAMPLE) {
+            int size = items.size();
+            if (size > limit) return sampleMatch(items, size, test);
+        }
+        int left = mode == Mode.FIRST || mode == Mode.SAMPLE ? limit : Integer.MAX_VALUE;
+        for (Object item : items) {
+            if (left-- == 0) return true;
+            if (!test.test(item)) return false;
+        }
+        return true;
+    }
+
+    private boolean sampleMatch(Collection<?> items, int size, Predicate<Object> test) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int needed = limit;
+        int seen = 0;
+        for (Iterator<?> it = items.iterator(); needed > 0 && it.hasNext(); seen++) {
+            Object item = it.next();
+            int remaining = size - seen;
+            if (remaining > needed && random.nextInt(remaining) >= needed) continue;
+            if (!test.test(item)) return false;
+            needed--;
+        }
+        return true;
+    }
+
+    private boolean allMatch(int size, IntFunction<?> items, Predicate<Object> test) {
+        if (mode == Mode.SAMPLE && size > limit) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < limit; i++) {
+                if (!test.test(items.apply(random.nextInt(size)))) return false;
+            }
+            return true;
+        }
+        if (mode == Mode.PARALLEL && size >= limit) {
+            return ForkJoinPool.commonPool().invoke(new Match(items, test, new AtomicBoolean(), 0, size));
+        }
+        int end = mode == Mode.FIRST ? Math.min(size, limit) : size;
+        for (int i = 0; i < end; i++) {
+            if (!test.test(items.apply(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gives a {@link String} representation of this policy, written as the Java expression that gives it.
+     * @return A {@link String} representation of this policy.
+     */
+    @Override
+    public String toString() {
+        switch (mode) {
+            case FIRST:
+                return "InstanceCheck.firstN(" + limit + ")";
+            case SAMPLE:
+                return "InstanceCheck.sample(" + limit + ")";
+            case PARALLEL:
+                return "InstanceCheck.parallel(" + limit + ")";
+            default:
+                return "InstanceCheck.FULL";
+        }
+    }
+
+    private static final class Match extends RecursiveTask<Boolean> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient IntFunction<?> items;
+        private final transient Predicate<Object> test;
+        private final AtomicBoolean failed;
+        private final int from;
+        private final int to;
+
+        private Match(IntFunction<?> items, Predicate<Object> test, AtomicBoolean failed, int from, int to) {
+            this.items = items;
+            this.test = test;
+            this.failed = failed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Boolean compute() {
+            if (to - from <= CHUNK) {
+                for (int i = from; i < to && !failed.get(); i++) {
+                    if (!test.test(items.apply(i))) failed.set(true);
+                }
+                return !failed.get();
+            }
+            int middle = (from + to) >>> 1;
+            Match left = new Match(items, test, failed, from, middle);
+            left.fork();
+            boolean right = new Match(items, test, failed, middle, to).compute();
+            return left.join() && right;
+        }
+    }
+}
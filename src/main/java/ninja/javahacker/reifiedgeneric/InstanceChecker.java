@@ -0,0 +1,297 @@
+package ninja.javahacker.reifiedgeneric;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import lombok.NonNull;
+import lombok.experimental.PackagePrivate;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Implements {@link ReifiedGeneric#isInstance(Object, InstanceCheck)}.
+ *
+ * <p>Each type is compiled once into a tree of checks, which is cached through a {@link TypeValue}. The contents of
+ * {@link Collection}s, {@link Map}s, {@link Map.Entry}s, {@link Optional}s and generic arrays are checked against the
+ * corresponding type arguments, found through {@link ReifiedGeneric#asSupertype(Class)}. Any other object is checked
+ * only against the raw class of its type, since there is no general way to know what is inside it. Wildcards are
+ * checked against their upper bounds and type variables against their bounds. Elements might be {@code null}.</p>
+ *
+ * <p>The checks of parameterized type arguments are compiled only when first needed, so even types that expand
+ * infinitely through their supertypes are fine.</p>
+ *
+ * <p>Types mixing classes from unrelated class loaders aren't cached at all. Their checks are compiled again for every
+ * call, so the caches never keep such types, nor their class loaders, alive.</p>
+ *
+ * @author Victor Williams Stafusa da Silva
+ */
+@PackagePrivate
+@UtilityClass
+@SuppressFBWarnings("ITC_INHERITANCE_TYPE_CHECKING")
+class InstanceChecker {
+
+    private static final Check ANY = new Plain(Object.class);
+
+    private static final TypeValue<Check> CHECKS = new TypeValue<>() {
+        @Override
+        protected Check computeValue(ReifiedGeneric<?> type) {
+            return compile(type);
+        }
+    };
+
+    /**
+     * For each type, what the runtime class of an object alone tells about it being an instance of that type.
+     */
+    private static final TypeValue<ClassValue<Verdict>> VERDICTS = new TypeValue<>() {
+        @Override
+        protected ClassValue<Verdict> computeValue(ReifiedGeneric<?> type) {
+            return new ClassValue<>() {
+                @Override
+                protected Verdict computeValue(Class<?> runtime) {
+                    if (!type.asClass().isAssignableFrom(runtime)) return Verdict.REJECT;
+                    return CHECKS.get(type) instanceof Plain ? Verdict.ACCEPT : Verdict.INSPECT;
+                }
+            };
+        }
+    };
+
+    private enum Verdict {
+        ACCEPT, REJECT, INSPECT
+    }
+
+    /**
+     * Tells if the given object is an instance of the given type.
+     * @param type The type.
+     * @param obj The object.
+     * @param policy How thoroughly the contents of {@code obj} are checked.
+     * @return {@code true} if {@code obj} is not {@code null} and is an instance of {@code type}, {@code false} otherwise.
+     */
+    @PackagePrivate
+    static boolean isInstance(@NonNull ReifiedGeneric<?> type, Object obj, @NonNull InstanceCheck policy) {
+        return obj != null && checkOf(type).test(obj, policy);
+    }
+
+    /**
+     * Tells if the given object is an instance of the given type, checking all of its contents, but deciding by its
+     * runtime class alone whenever that is enough. That is only the case for types with no type arguments to check, or
+     * for objects whose class alone already rejects them. Those decisions are cached for each runtime class, so checking
+     * lots of objects of the same classes against such types is usually just a lookup, while any other object still has
+     * all of its contents checked.
+     * @param type The type.
+     * @param obj The object.
+     * @return {@code true} if {@code obj} is not {@code null} and is an instance of {@code type}, {@code false} otherwise.
+     */
+    @PackagePrivate
+    static boolean isInstanceByClass(@NonNull ReifiedGeneric<?> type, Object obj) {
+        if (obj == null) return false;
+        if (type.anchor() == null) return compile(type).test(obj, InstanceCheck.FULL);
+        Verdict verdict = VERDICTS.get(type).get(obj.getClass());
+        return verdict == Verdict.ACCEPT || (verdict == Verdict.INSPECT && CHECKS.get(type).test(obj, InstanceCheck.FULL));
+    }
+
+    private static Check checkOf(ReifiedGeneric<?> type) {
+        return type.anchor() == null ? compile(type) : CHECKS.get(type);
+    }
+
+    private static Check compile(ReifiedGeneric<?> type) {
+        Class<?> raw = type.asClass();
+        if (type.typeArgumentCount() == 0) return new Plain(raw);
+        if (Map.class.isAssignableFrom(raw)) {
+            Type[] args = arguments(type.asSupertype(Map.class));
+            return args.length == 0 ? new Plain(raw) : new MapCheck(raw, of(args[0]), of(args[1]));
+        }
+        if (Collection.class.isAssignableFrom(raw)) {
+            Type[] args = arguments(type.asSupertype(Collection.class));
+            return args.length == 0 ? new Plain(raw) : new CollectionCheck(raw, of(args[0]));
+        }
+        if (Map.Entry.class.isAssignableFrom(raw)) {
+            Type[] args = arguments(type.asSupertype(Map.Entry.class));
+            return args.length == 0 ? new Plain(raw) : new EntryCheck(raw, of(args[0]), of(args[1]));
+        }
+        if (raw == Optional.class) return new OptionalCheck(of(arguments(type)[0]));
+        return new Plain(raw);
+    }
+
+    private static Type[] arguments(ReifiedGeneric<?> type) {
+        Type t = type.getType();
+        return t instanceof ParameterizedType ? ((ParameterizedType) t).getActualTypeArguments() : new Type[0];
+    }
+
+    private static Check of(Type type) {
+        if (type == Object.class) return ANY;
+        if (type instanceof Class<?>) return new Plain((Class<?>) type);
+        if (type instanceof ParameterizedType) return new Lazy(ReifiedGeneric.of(type));
+        if (type instanceof WildcardType) return allOf(((WildcardType) type).getUpperBounds());
+        if (type instanceof TypeVariable<?>) return allOf(((TypeVariable<?>) type).getBounds());
+        if (type instanceof GenericArrayType) {
+            Type component = ((GenericArrayType) type).getGenericComponentType();
+            return new ArrayCheck(Array.newInstance(erasure(component), 0).getClass(), of(component));
+        }
+        return ANY;
+    }
+
+    private static Check allOf(Type[] bounds) {
+        Check[] checks = new Check[bounds.length];
+        int count = 0;
+        for (Type bound : bounds) {
+            Check c = of(bound);
+            if (c != ANY) checks[count++] = c;
+        }
+        if (count == 0) return ANY;
+        if (count == 1) return checks[0];
+        Check[] all = Arrays.copyOf(checks, count);
+        return (obj, policy) -> {
+            for (Check c : all) {
+                if (!c.test(obj, policy)) return false;
+            }
+            return true;
+        };
+    }
+
+    private static Class<?> erasure(Type type) {
+        if (type instanceof Class<?>) return (Class<?>) type;
+        if (type instanceof ParameterizedType) return (Class<?>) ((ParameterizedType) type).getRawType();
+        if (type instanceof GenericArrayType) {
+            return Array.newInstance(erasure(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+        if (type instanceof TypeVariable<?>) return erasure(((TypeVariable<?>) type).getBounds()[0]);
+        return Object.class;
+    }
+
+    private static boolean element(Check check, Object obj, InstanceCheck policy) {
+        return obj == null || check.test(obj, policy);
+    }
+
+    /**
+     * Checks a non-{@code null} object.
+     */
+    @FunctionalInterface
+    private interface Check {
+        boolean test(Object obj, InstanceCheck policy);
+    }
+
+    private static final class Plain implements Check {
+        private final Class<?> type;
+
+        private Plain(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public boolean test(Object obj, InstanceCheck policy) {
+            return type.isInstance(obj);
+        }
+    }
+
+    private static final class Lazy implements Check {
+        private final ReifiedGeneric<?> type;
+        private Check resolved;
+
+        private Lazy(ReifiedGeneric<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public boolean test(Object obj, InstanceCheck policy) {
+            Check c = resolved;
+            if (c == null) {
+                c = checkOf(type);
+                resolved = c;
+            }
+            return c.test(obj, policy);
+        }
+    }
+
+    private static final class CollectionCheck implements Check {
+        private final Class<?> raw;
+        private final Check element;
+
+        private CollectionCheck(Class<?> raw, Check element) {
+            this.raw = raw;
+            this.element = element;
+        }
+
+        @Override
+        public boolean test(Object obj, InstanceCheck policy) {
+            if (!raw.isInstance(obj)) return false;
+            return element == ANY || policy.allMatch((Collection<?>) obj, e -> element(element, e, policy));
+        }
+    }
+
+    private static final class MapCheck implements Check {
+        private final Class<?> raw;
+        private final Check key;
+        private final Check value;
+
+        private MapCheck(Class<?> raw, Check key, Check value) {
+            this.raw = raw;
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(Object obj, InstanceCheck policy) {
+            if (!raw.isInstance(obj)) return false;
+            if (key == ANY && value == ANY) return true;
+            return policy.allMatch(((Map<?, ?>) obj).entrySet(), e -> {
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) e;
+                return element(key, entry.getKey(), policy) && element(value, entry.getValue(), policy);
+            });
+        }
+    }
+
+    private static final class EntryCheck implements Check {
+        private final Class<?> raw;
+        private final Check key;
+        private final Check value;
+
+        private EntryCheck(Class<?> raw, Check key, Check value) {
+            this.raw = raw;
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(Object obj, InstanceCheck policy) {
+            if (!raw.isInstance(obj)) return false;
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            return element(key, entry.getKey(), policy) && element(value, entry.getValue(), policy);
+        }
+    }
+
+    private static final class OptionalCheck implements Check {
+        private final Check value;
+
+        private OptionalCheck(Check value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(Object obj, InstanceCheck policy) {
+            return obj instanceof Optional<?> && element(value, ((Optional<?>) obj).orElse(null), policy);
+        }
+    }
+
+    private static final class ArrayCheck implements Check {
+        private final Class<?> type;
+        private final Check component;
+
+        private ArrayCheck(Class<?> type, Check component) {
+            this.type = type;
+            this.component = component;
+        }
+
+        @Override
+        public boolean test(Object obj, InstanceCheck policy) {
+            if (!type.isInstance(obj)) return false;
+            return policy.allMatch((Object[]) obj, e -> element(component, e, policy));
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package ninja.javahacker.reifiedgeneric;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.NonNull;
+import lombok.experimental.PackagePrivate;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Keeps the canonical {@link ReifiedGeneric} instances, so structurally equal types are always represented by the very
+ * same object.
+ *
+ * <p>The anchor of a type is the class that is loaded by the deepest {@link ClassLoader} among all the classes that are
+ * used to compose it. Since every other class in the type is visible from that anchor's class loader, instances can be
+ * stored alongside their anchors, through a {@link ClassValue}, without ever outliving the classes that they reference
+ * and without ever pinning a class loader that could otherwise be unloaded. This is done for types anchored in class
+ * loaders below the one of this library, e.g. those of deployed applications, which go away as a whole.</p>
+ *
+ * <p>Types anchored in the class loader of this library or in its parents (e.g. types made only of JDK classes) would be
+ * kept forever that way, since those class loaders are never unloaded. Since types might come from external input (see
+ * {@link ReifiedGeneric#parse(CharSequence, ClassLoader)}, {@link TypeCodec} and {@link TypeSnapshot}), that would let
+ * the table grow without bound. So, those are kept in a table that only holds weak references to the canonical
+ * instances, which are collected once nothing else uses them.</p>
+ *
+ * <p>The canonical instances of parameterized types are built from the canonical instances of their type arguments
+ * and owners, so the types that they keep form a hash-consed DAG: every distinct subterm is a single shared node, no
+ * matter in how many types it appears. This also means that the memory needed by lots of related types grows with the
+ * number of distinct subterms rather than with the total number of their occurrences.</p>
+ *
+ * <p>Types mixing classes from unrelated class loaders don't have an anchor. Those are kept in that same weakly
+ * referencing table. Its entries are purged whenever a parameterized type is interned, so the keys of collected
+ * instances don't pin their class loaders for long.</p>
+ *
+ * @author Victor Williams Stafusa da Silva
+ */
+@PackagePrivate
+@UtilityClass
+class Interner {
+
+    private static final ClassValue<ReifiedGeneric<?>> CLASSES = new ClassValue<>() {
+        @Override
+        protected ReifiedGeneric<?> computeValue(Class<?> type) {
+            return ReifiedGeneric.newInstance(type);
+        }
+    };
+
+    private static final ClassLoader OWN_LOADER = Interner.class.getClassLoader();
+
+    /**
+     * Marks the anchors whose types are kept in {@link #WEAK} instead. Never holds anything.
+     */
+    private static final ConcurrentMap<Type, ReifiedGeneric<?>> WEAKLY_KEPT = new ConcurrentHashMap<>(1);
+
+    private static final ClassValue<ConcurrentMap<Type, ReifiedGeneric<?>>> ANCHORED = new ClassValue<>() {
+        @Override
+        protected ConcurrentMap<Type, ReifiedGeneric<?>> computeValue(Class<?> type) {
+            return isAncestor(type.getClassLoader(), OWN_LOADER) ? WEAKLY_KEPT : new ConcurrentHashMap<>(4);
+        }
+    };
+
+    private static final ConcurrentMap<Type, WeakValue> WEAK = new ConcurrentHashMap<>(64);
+
+    private static final ReferenceQueue<ReifiedGeneric<?>> QUEUE = new ReferenceQueue<>();
+
+    @NonNull
+    @PackagePrivate
+    @SuppressWarnings("unchecked")
+    static <X> ReifiedGeneric<X> canonical(@NonNull Class<X> type) {
+        return (ReifiedGeneric<X>) CLASSES.get(type);
+    }
+
+    @NonNull
+    @PackagePrivate
+    static ReifiedGeneric<?> canonical(@NonNull ParameterizedType type) {
+        return canonical(type, anchor(Object.class, type));
+    }
+
+    /**
+     * Gives the canonical instance of the type composed by parameterizing the given raw type with a canonical instance.
+     * Since the type argument is already canonical, neither it is traversed again nor validated again.
+     * @param rawType The raw type, which must have exactly one type parameter.
+     * @param argument The type argument.
+     * @return The canonical instance of the composed type.
+     */
+    @NonNull
+    @PackagePrivate
+    static ReifiedGeneric<?> composed(@NonNull Class<?> rawType, @NonNull ReifiedGeneric<?> argument) {
+        MyParameterizedType type = MyParameterizedType.trusted(rawType, argument.getType());
+        return canonical(type, commonAnchor(anchor(Object.class, type.getOwnerType(), rawType), argument.anchor()));
+    }
+
+    /**
+     * Gives the canonical instance of the type composed by parameterizing the given raw type with two canonical
+     * instances. Since the type arguments are already canonical, neither they are traversed again nor validated again.
+     * @param rawType The raw type, which must have exactly two type parameters.
+     * @param first The first type argument.
+     * @param second The second type argument.
+     * @return The canonical instance of the composed type.
+     */
+    @NonNull
+    @PackagePrivate
+    static ReifiedGeneric<?> composed(@NonNull Class<?> rawType, @NonNull ReifiedGeneric<?> first, @NonNull ReifiedGeneric<?> second) {
+        MyParameterizedType type = MyParameterizedType.trusted(rawType, first.getType(), second.getType());
+        Class<?> anchor = anchor(Object.class, type.getOwnerType(), rawType);
+        return canonical(type, commonAnchor(commonAnchor(anchor, first.anchor()), second.anchor()));
+    }
+
+    @NonNull
+    private static ReifiedGeneric<?> canonical(@NonNull ParameterizedType type, Class<?> anchor) {
+        expunge();
+        if (anchor == null) return weak(type, null);
+        ConcurrentMap<Type, ReifiedGeneric<?>> map = ANCHORED.get(anchor);
+        if (map == WEAKLY_KEPT) return weak(type, anchor);
+
+        ReifiedGeneric<?> found = map.get(type);
+        if (found != null) return found;
+
+        ReifiedGeneric<?> created = ReifiedGeneric.newInstance(type, anchor);
+        ReifiedGeneric<?> raced = map.putIfAbsent(created.getType(), created);
+        return raced == null ? created : raced;
+    }
+
+    @NonNull
+    private static ReifiedGeneric<?> weak(@NonNull ParameterizedType type, Class<?> anchor) {
+        WeakValue ref = WEAK.get(type);
+        ReifiedGeneric<?> found = ref == null ? null : ref.get();
+        if (found != null) return found;
+
+        ReifiedGeneric<?> created = ReifiedGeneric.newInstance(type, anchor);
+        WeakValue mine = new WeakValue(created);
+        while (true) {
+            WeakValue other = WEAK.putIfAbsent(mine.key, mine);
+            if (other == null) return created;
+            ReifiedGeneric<?> raced = other.get();
+            if (raced != null) return raced;
+            if (WEAK.replace(mine.key, other, mine)) return created;
+        }
+    }
+
+    private static void expunge() {
+        for (Reference<?> r = QUEUE.poll(); r != null; r = QUEUE.poll()) {
+            WeakValue dead = (WeakValue) r;
+            WEAK.remove(dead.key, dead);
+        }
+    }
+
+    /**
+     * Finds the class loaded by the deepest class loader among {@code current} and all the classes that composes
+     * {@code type}.
+     * @param current The deepest class found so far, or {@code null} if classes from unrelated class loaders were already
+     *     found.
+     * @param type The type to be traversed.
+     * @return The deepest class found, or {@code null} if there is no single deepest class loader.
+     */
+    @SuppressWarnings("PMD.CognitiveComplexity")
+    private static Class<?> anchor(Class<?> current, Type type) {
+        if (current == null || type == null) return current;
+        if (type instanceof Class<?>) return deeper(current, (Class<?>) type);
+        if (type instanceof MyParameterizedType) {
+            MyParameterizedType p = (MyParameterizedType) type;
+            Class<?> a = anchor(current, p.getOwnerType(), p.getRawType());
+            for (int i = 0, n = p.typeArgumentCount(); i < n; i++) {
+                a = anchor(a, p.typeArgument(i));
+            }
+            return a;
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType p = (ParameterizedType) type;
+            Class<?> a = anchor(anchor(current, p.getOwnerType()), p.getRawType());
+            for (Type arg : p.getActualTypeArguments()) {
+                a = anchor(a, arg);
+            }
+            return a;
+        }
+        if (type instanceof WildcardType) {
+            WildcardType w = (WildcardType) type;
+            Class<?> a = current;
+            for (Type bound : w.getUpperBounds()) {
+                a = anchor(a, bound);
+            }
+            for (Type bound : w.getLowerBounds()) {
+                a = anchor(a, bound);
+            }
+            return a;
+        }
+        if (type instanceof GenericArrayType) return anchor(current, ((GenericArrayType) type).getGenericComponentType());
+        if (type instanceof TypeVariable<?>) return deeper(current, declaringClass(((TypeVariable<?>) type).getGenericDeclaration()));
+        return null;
+    }
+
+    private static Class<?> anchor(Class<?> current, Type ownerType, Class<?> rawType) {
+        return anchor(anchor(current, ownerType), rawType);
+    }
+
+    /**
+     * Gives the anchor of a type composed by the classes of two other types, given their anchors.
+     * @param a The anchor of the first type, or {@code null} if it has none.
+     * @param b The anchor of the second type, or {@code null} if it has none.
+     * @return The anchor of a type composed by both types, or {@code null} if there is none.
+     */
+    @PackagePrivate
+    static Class<?> commonAnchor(Class<?> a, Class<?> b) {
+        return a == null || b == null ? null : deeper(a, b);
+    }
+
+    @SuppressFBWarnings("ITC_INHERITANCE_TYPE_CHECKING")
+    private static Class<?> declaringClass(GenericDeclaration d) {
+        if (d instanceof Class<?>) return (Class<?>) d;
+        if (d instanceof Method) return ((Method) d).getDeclaringClass();
+        if (d instanceof Constructor<?>) return ((Constructor<?>) d).getDeclaringClass();
+        return null;
+    }
+
+    private static Class<?> deeper(Class<?> current, Class<?> other) {
+        if (other == null) return null;
+        ClassLoader a = current.getClassLoader();
+        ClassLoader b = other.getClassLoader();
+        if (a == b) return current;
+        if (isAncestor(a, b)) return other;
+        if (isAncestor(b, a)) return current;
+        return null;
+    }
+
+    private static boolean isAncestor(ClassLoader ancestor, ClassLoader descendant) {
+        if (ancestor == null) return true;
+        for (ClassLoader x = descendant; x != null; x = x.getParent()) {
+            if (x == ancestor) return true;
+        }
+        return false;
+    }
+
+    private static final class WeakValue extends WeakReference<ReifiedGeneric<?>> {
+        private final Type key;
+
+        private WeakValue(ReifiedGeneric<?> value) {
+            super(value, QUEUE);
+            this.key = value.getType();
+        }
+    }
+}
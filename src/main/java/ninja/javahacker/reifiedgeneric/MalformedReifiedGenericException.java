@@ -1,5 +1,7 @@
 package ninja.javahacker.reifiedgeneric;
 
+import lombok.NonNull;
+
 /**
  * Thrown when an attempt to create an ill-formed or incomplete {@link ReifiedGeneric} happens.
  * @author Victor Williams Stafusa da Silva
@@ -45,20 +47,103 @@ public class MalformedReifiedGenericException extends RuntimeException {
     public static final String ILL_DEFINED_ERROR_MESSAGE = "The generic type is ill-defined.";
 
     /**
-     * Constructor that receives a message and no cause.
-     * @param message The exception's message.
+     * The reasons why a {@link ReifiedGeneric} might be ill-formed or incomplete.
+     */
+    public enum Reason {
+        /**
+         * The used type variable isn't realizable.
+         * @see #typeVariable()
+         */
+        TYPE_VARIABLE(TYPE_VARIABLE_ERROR_MESSAGE),
+
+        /**
+         * The generic type is a wildcard instead of a real runtime type.
+         * @see #wildcard()
+         */
+        WILDCARD(WILDCARD_ERROR_MESSAGE),
+
+        /**
+         * The generic type refers to an array type whose base type is a generic type.
+         * @see #genericArray()
+         */
+        GENERIC_ARRAY(GENERIC_ARRAY_ERROR_MESSAGE),
+
+        /**
+         * The generic type can't be recognized.
+         * @see #unrecognized()
+         */
+        UNRECOGNIZED(UNRECOGNIZED_ERROR_MESSAGE),
+
+        /**
+         * A raw type was used instead of a generic type.
+         * @see #raw()
+         */
+        RAW(RAW_ERROR_MESSAGE),
+
+        /**
+         * The generic type is ill-defined due to another error.
+         * @see #illDefined(Throwable)
+         */
+        ILL_DEFINED(ILL_DEFINED_ERROR_MESSAGE);
+
+        private final String message;
+
+        private Reason(String message) {
+            this.message = message;
+        }
+
+        /**
+         * Gives the error message used for this reason.
+         * @return The error message used for this reason.
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * The reason of this exception.
+     */
+    private final Reason reason;
+
+    /**
+     * Constructor that receives a reason and a cause.
+     * @param reason The exception's reason, which also gives its message.
+     * @param cause The cause of this exception, if any.
+     * @param stackTrace Tells if the stack trace should be filled in.
+     */
+    private MalformedReifiedGenericException(Reason reason, Throwable cause, boolean stackTrace) {
+        super(reason.getMessage(), cause, stackTrace, stackTrace);
+        this.reason = reason;
+    }
+
+    /**
+     * Gives the reason of this exception.
+     * @return The reason of this exception.
      */
-    private MalformedReifiedGenericException(String message) {
-        super(message, null);
+    public Reason getReason() {
+        return reason;
     }
 
     /**
-     * Constructor that receives a message and a cause.
-     * @param message The exception's message.
-     * @param cause The cause of this exception.
+     * Constructs an instance for the given reason.
+     * @param reason The reason of the exception.
+     * @return The created instance.
+     * @throws IllegalArgumentException If {@code reason} is {@code null}.
+     */
+    public static MalformedReifiedGenericException of(@NonNull Reason reason) {
+        return new MalformedReifiedGenericException(reason, null, true);
+    }
+
+    /**
+     * Constructs an instance for the given reason without filling in its stack trace and without recording suppressed
+     * exceptions. Creating such instances is much cheaper, which matters when lots of them are expected and discarded.
+     * @param reason The reason of the exception.
+     * @return The created instance.
+     * @throws IllegalArgumentException If {@code reason} is {@code null}.
      */
-    private MalformedReifiedGenericException(String message, Throwable cause) {
-        super(message, cause);
+    public static MalformedReifiedGenericException stackless(@NonNull Reason reason) {
+        return new MalformedReifiedGenericException(reason, null, false);
     }
 
     /**
@@ -66,7 +151,7 @@ public class MalformedReifiedGenericException extends RuntimeException {
      * @return The created instance.
      */
     public static MalformedReifiedGenericException typeVariable() {
-        return new MalformedReifiedGenericException(TYPE_VARIABLE_ERROR_MESSAGE);
+        return of(Reason.TYPE_VARIABLE);
     }
 
     /**
@@ -74,7 +159,7 @@ public class MalformedReifiedGenericException extends RuntimeException {
      * @return The created instance.
      */
     public static MalformedReifiedGenericException wildcard() {
-        return new MalformedReifiedGenericException(WILDCARD_ERROR_MESSAGE);
+        return of(Reason.WILDCARD);
     }
 
     /**
@@ -82,7 +167,7 @@ public class MalformedReifiedGenericException extends RuntimeException {
      * @return The created instance.
      */
     public static MalformedReifiedGenericException genericArray() {
-        return new MalformedReifiedGenericException(GENERIC_ARRAY_ERROR_MESSAGE);
+        return of(Reason.GENERIC_ARRAY);
     }
 
     /**
@@ -90,7 +175,7 @@ public class MalformedReifiedGenericException extends RuntimeException {
      * @return The created instance.
      */
     public static MalformedReifiedGenericException unrecognized() {
-        return new MalformedReifiedGenericException(UNRECOGNIZED_ERROR_MESSAGE);
+        return of(Reason.UNRECOGNIZED);
     }
 
     /**
@@ -98,7 +183,7 @@ public class MalformedReifiedGenericException extends RuntimeException {
      * @return The created instance.
      */
     public static MalformedReifiedGenericException raw() {
-        return new MalformedReifiedGenericException(RAW_ERROR_MESSAGE);
+        return of(Reason.RAW);
     }
 
     /**
@@ -107,6 +192,6 @@ public class MalformedReifiedGenericException extends RuntimeException {
      * @return The created instance.
      */
     public static MalformedReifiedGenericException illDefined(Throwable cause) {
-        return new MalformedReifiedGenericException(ILL_DEFINED_ERROR_MESSAGE, cause);
+        return new MalformedReifiedGenericException(Reason.ILL_DEFINED, cause, true);
     }
 }
@@ -0,0 +1,67 @@
+package ninja.javahacker.reifiedgeneric;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Type;
+import java.util.Objects;
+import lombok.NonNull;
+import lombok.experimental.PackagePrivate;
+
+/**
+ * The {@link GenericArrayType} implementation is not public, but this tool need to instantiate some of them.
+ * So, this class was mostly copied from Java 9's internal {@code GenericArrayTypeImpl}.
+ * @author Victor Williams Stafusa da Silva
+ */
+@PackagePrivate
+final class MyGenericArrayType implements GenericArrayType {
+    private final Type genericComponentType;
+
+    @PackagePrivate
+    MyGenericArrayType(@NonNull Type genericComponentType) {
+        this.genericComponentType = MyParameterizedType.wrap(genericComponentType);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public Type getGenericComponentType() {
+        return genericComponentType;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param o {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    @SuppressFBWarnings(
+            value = "NSE_NON_SYMMETRIC_EQUALS",
+            justification = "Should be equals to other GenericArrayType implementations."
+    )
+    public boolean equals(Object o) {
+        if (!(o instanceof GenericArrayType)) return false;
+        if (this == o) return true;
+        return Objects.equals(genericComponentType, ((GenericArrayType) o).getGenericComponentType());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(genericComponentType);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @implSpec The implementation was mostly copied from Java 9-19's internal {@code GenericArrayTypeImpl#toString()} method.
+     * @return {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return genericComponentType.getTypeName() + "[]";
+    }
+}
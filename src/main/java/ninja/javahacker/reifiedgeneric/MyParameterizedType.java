@@ -4,11 +4,9 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.lang.reflect.MalformedParameterizedTypeException;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.lang.reflect.TypeVariable;
 import java.util.Arrays;
 import java.util.Objects;
 import java.util.StringJoiner;
-import java.util.stream.Stream;
 import lombok.NonNull;
 import lombok.experimental.PackagePrivate;
 
@@ -16,20 +14,106 @@ import lombok.experimental.PackagePrivate;
  * The {@link ParameterizedType} implementation is not public, but this tool need to instantiate some of them.
  * So, this class was mostly copied from Java 9's internal {@code ParameterizedTypeImpl}.
  * <p>Note that Java 8 or before has a buggy implementation of {@code ParameterizedTypeImpl} {@link #toString()} method.</p>
+ * <p>Since instances are immutable, the hash code is computed once at construction time and the {@link #toString()}
+ * result is computed once at the first time that it is needed.</p>
+ * <p>Since lots of instances are kept alive by the canonical {@link ReifiedGeneric} instances, types with one or two type
+ * arguments whose owner is just the declaring class of the raw type (which covers the vast majority of them) are
+ * represented compactly, keeping their type arguments in fields instead of in an array and deriving their owner from the
+ * raw type instead of storing it. Every other type is represented in the general way. Those representations are chosen
+ * by {@link #of(Class, Type[], Type)} and are indistinguishable from each other, except by their memory footprint.</p>
+ * <p>The number of type parameters and the declaring class of each raw type are cached, since asking them through
+ * reflection every time is needlessly slow. Composing a type from type arguments that are already known to be wrapped
+ * and well-formed, like the ones of canonical {@link ReifiedGeneric} instances, is done through the trusted factories
+ * {@link #trusted(Class, Type)} and {@link #trusted(Class, Type, Type)}, which skip even that.</p>
+ * <p>The types kept by the canonical {@link ReifiedGeneric} instances are hash-consed: their parameterized type
+ * arguments and owners are the very same instances kept by the canonical {@link ReifiedGeneric} instances of those, so
+ * equal subterms are shared and comparing them is usually just a reference comparison.</p>
  * @author Victor Williams Stafusa da Silva
  */
 @PackagePrivate
-final class MyParameterizedType implements ParameterizedType {
-    private final Type[] actualTypeArguments;
+abstract class MyParameterizedType implements ParameterizedType {
+    private static final ClassValue<Shape> SHAPES = new ClassValue<>() {
+        @Override
+        protected Shape computeValue(Class<?> type) {
+            return new Shape(type);
+        }
+    };
+
     private final Class<?> rawType;
-    private final Type ownerType;
+    private final int hash;
+    private String typeName;
 
-    @PackagePrivate
-    MyParameterizedType(@NonNull Class<?> rawType, @NonNull Type[] actualTypeArguments, Type ownerType) {
-        this.actualTypeArguments = Stream.of(actualTypeArguments).map(MyParameterizedType::wrap).toArray(Type[]::new);
+    private MyParameterizedType(@NonNull Class<?> rawType, int hash) {
         this.rawType = rawType;
-        this.ownerType = ownerType != null ? ownerType : rawType.getDeclaringClass();
-        validateConstructorArguments();
+        this.hash = hash;
+    }
+
+    @NonNull
+    @PackagePrivate
+    static MyParameterizedType of(@NonNull Class<?> rawType, @NonNull Type[] actualTypeArguments, Type ownerType) {
+        Shape shape = SHAPES.get(rawType);
+        if (shape.arity != actualTypeArguments.length) throw new MalformedParameterizedTypeException();
+        Type[] args = new Type[actualTypeArguments.length];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = wrap(actualTypeArguments[i]);
+        }
+        Type owner = ownerType != null ? ownerType : shape.declaring;
+        int hash = Arrays.hashCode(args) ^ (owner == null ? 0 : owner.hashCode()) ^ rawType.hashCode();
+        if (owner == shape.declaring && args.length == 1) return new Unary(rawType, hash, args[0]);
+        if (owner == shape.declaring && args.length == 2) return new Binary(rawType, hash, args[0], args[1]);
+        return new General(rawType, hash, args, owner == shape.declaring ? null : owner);
+    }
+
+    /**
+     * Creates a type with a single type argument whose owner is the declaring class of the raw type, trusting that
+     * the type argument is already wrapped and that the raw type has exactly one type parameter.
+     * @param rawType The raw type.
+     * @param argument The type argument.
+     * @return The created type.
+     */
+    @NonNull
+    @PackagePrivate
+    static MyParameterizedType trusted(@NonNull Class<?> rawType, @NonNull Type argument) {
+        Class<?> declaring = SHAPES.get(rawType).declaring;
+        int hash = (31 + argument.hashCode()) ^ (declaring == null ? 0 : declaring.hashCode()) ^ rawType.hashCode();
+        return new Unary(rawType, hash, argument);
+    }
+
+    /**
+     * Creates a type with two type arguments whose owner is the declaring class of the raw type, trusting that the
+     * type arguments are already wrapped and that the raw type has exactly two type parameters.
+     * @param rawType The raw type.
+     * @param first The first type argument.
+     * @param second The second type argument.
+     * @return The created type.
+     */
+    @NonNull
+    @PackagePrivate
+    static MyParameterizedType trusted(@NonNull Class<?> rawType, @NonNull Type first, @NonNull Type second) {
+        Class<?> declaring = SHAPES.get(rawType).declaring;
+        int args = 31 * (31 + first.hashCode()) + second.hashCode();
+        int hash = args ^ (declaring == null ? 0 : declaring.hashCode()) ^ rawType.hashCode();
+        return new Binary(rawType, hash, first, second);
+    }
+
+    /**
+     * Tells if the given type could be wrapped, i.e., if it and every parameterized type argument and owner nested in it
+     * have a {@link Class} as raw type and exactly as many type arguments as it has type parameters. This allows
+     * rejecting malformed types without throwing anything.
+     * @param type The type to be checked.
+     * @return {@code true} if the given type could be wrapped, {@code false} otherwise.
+     */
+    @PackagePrivate
+    static boolean isWellFormed(@NonNull ParameterizedType type) {
+        if (type instanceof MyParameterizedType) return true;
+        Type raw = type.getRawType();
+        Type[] args = type.getActualTypeArguments();
+        if (!(raw instanceof Class<?>) || SHAPES.get((Class<?>) raw).arity != args.length) return false;
+        for (Type arg : args) {
+            if (arg instanceof ParameterizedType && !isWellFormed((ParameterizedType) arg)) return false;
+        }
+        Type owner = type.getOwnerType();
+        return !(owner instanceof ParameterizedType) || isWellFormed((ParameterizedType) owner);
     }
 
     @PackagePrivate
@@ -41,13 +125,22 @@ final class MyParameterizedType implements ParameterizedType {
     static MyParameterizedType wrap(@NonNull ParameterizedType other) {
         return other instanceof MyParameterizedType
                 ? (MyParameterizedType) other
-                : new MyParameterizedType((Class<?>) other.getRawType(), other.getActualTypeArguments(), other.getOwnerType());
+                : of((Class<?>) other.getRawType(), other.getActualTypeArguments(), other.getOwnerType());
     }
 
-    private void validateConstructorArguments() {
-        TypeVariable<?>[] formals = rawType.getTypeParameters();
-        if (formals.length != actualTypeArguments.length) throw new MalformedParameterizedTypeException();
-    }
+    @PackagePrivate
+    abstract int typeArgumentCount();
+
+    @NonNull
+    @PackagePrivate
+    abstract Type typeArgument(int index);
+
+    /**
+     * Gives the owner type when it isn't simply the declaring class of the raw type.
+     * @return The owner type, or {@code null} if it is the declaring class of the raw type.
+     */
+    @PackagePrivate
+    abstract Type explicitOwnerType();
 
     /**
      * {@inheritDoc}
@@ -55,7 +148,11 @@ final class MyParameterizedType implements ParameterizedType {
      */
     @Override
     public Type[] getActualTypeArguments() {
-        return actualTypeArguments.clone();
+        Type[] args = new Type[typeArgumentCount()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = typeArgument(i);
+        }
+        return args;
     }
 
     /**
@@ -73,7 +170,8 @@ final class MyParameterizedType implements ParameterizedType {
      */
     @Override
     public Type getOwnerType() {
-        return ownerType;
+        Type owner = explicitOwnerType();
+        return owner != null ? owner : SHAPES.get(rawType).declaring;
     }
 
     /**
@@ -87,14 +185,27 @@ final class MyParameterizedType implements ParameterizedType {
             justification = "Should be equals to other ParameterizedType implementations."
     )
     public boolean equals(Object o) {
-        if (!(o instanceof ParameterizedType)) return false;
         if (this == o) return true;
+        if (!(o instanceof ParameterizedType)) return false;
+
+        if (o instanceof MyParameterizedType) {
+            MyParameterizedType that = (MyParameterizedType) o;
+            if (hash != that.hash || rawType != that.rawType || !Objects.equals(explicitOwnerType(), that.explicitOwnerType())) {
+                return false;
+            }
+            for (int i = typeArgumentCount() - 1; i >= 0; i--) {
+                Type a = typeArgument(i);
+                Type b = that.typeArgument(i);
+                if (a != b && !a.equals(b)) return false;
+            }
+            return true;
+        }
 
         ParameterizedType that = (ParameterizedType) o;
 
-        return Objects.equals(ownerType, that.getOwnerType())
+        return Objects.equals(getOwnerType(), that.getOwnerType())
                 && Objects.equals(rawType, that.getRawType())
-                && Arrays.equals(actualTypeArguments, that.getActualTypeArguments());
+                && Arrays.equals(getActualTypeArguments(), that.getActualTypeArguments());
     }
 
     /**
@@ -103,9 +214,7 @@ final class MyParameterizedType implements ParameterizedType {
      */
     @Override
     public int hashCode() {
-        return Arrays.hashCode(actualTypeArguments)
-                ^ (ownerType == null ? 0 : ownerType.hashCode())
-                ^ rawType.hashCode();
+        return hash;
     }
 
     /**
@@ -114,9 +223,19 @@ final class MyParameterizedType implements ParameterizedType {
      * @return {@inheritDoc}
      */
     @Override
-    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
     public String toString() {
+        String name = typeName;
+        if (name == null) {
+            name = computeTypeName();
+            typeName = name;
+        }
+        return name;
+    }
+
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private String computeTypeName() {
         StringBuilder sb = new StringBuilder(256);
+        Type ownerType = getOwnerType();
 
         if (ownerType != null) {
             if (ownerType instanceof Class) {
@@ -132,21 +251,128 @@ final class MyParameterizedType implements ParameterizedType {
                 String parentName = ((ParameterizedType) ownerType).getRawType().getTypeName();
                 sb.append(rawType.getName().substring(parentName.length() + 1)); // + 1 due the "$" after the parent's name.
             } else {
-                sb.append(rawType.getName());
+                sb.append(rawType.getSimpleName());
             }
         } else {
             sb.append(rawType.getName());
         }
 
-        if (actualTypeArguments != null && actualTypeArguments.length > 0) {
+        int count = typeArgumentCount();
+        if (count > 0) {
             StringJoiner sj = new StringJoiner(", ", "<", ">");
             sj.setEmptyValue("");
-            for (Type t: actualTypeArguments) {
-                sj.add(t.getTypeName());
+            for (int i = 0; i < count; i++) {
+                sj.add(typeArgument(i).getTypeName());
             }
             sb.append(sj.toString());
         }
 
         return sb.toString();
     }
+
+    /**
+     * What is cached about each raw type.
+     */
+    private static final class Shape {
+        private final int arity;
+        private final Class<?> declaring;
+
+        private Shape(Class<?> rawType) {
+            this.arity = rawType.getTypeParameters().length;
+            this.declaring = rawType.getDeclaringClass();
+        }
+    }
+
+    /**
+     * A type with a single type argument whose owner is the declaring class of the raw type.
+     */
+    private static final class Unary extends MyParameterizedType {
+        private final Type argument;
+
+        private Unary(Class<?> rawType, int hash, Type argument) {
+            super(rawType, hash);
+            this.argument = argument;
+        }
+
+        @Override
+        int typeArgumentCount() {
+            return 1;
+        }
+
+        @Override
+        Type typeArgument(int index) {
+            if (index != 0) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length 1");
+            return argument;
+        }
+
+        @Override
+        Type explicitOwnerType() {
+            return null;
+        }
+    }
+
+    /**
+     * A type with two type arguments whose owner is the declaring class of the raw type.
+     */
+    private static final class Binary extends MyParameterizedType {
+        private final Type first;
+        private final Type second;
+
+        private Binary(Class<?> rawType, int hash, Type first, Type second) {
+            super(rawType, hash);
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        int typeArgumentCount() {
+            return 2;
+        }
+
+        @Override
+        Type typeArgument(int index) {
+            if (index == 0) return first;
+            if (index == 1) return second;
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length 2");
+        }
+
+        @Override
+        Type explicitOwnerType() {
+            return null;
+        }
+    }
+
+    /**
+     * Any other type.
+     */
+    private static final class General extends MyParameterizedType {
+        private final Type[] actualTypeArguments;
+        private final Type ownerType;
+
+        private General(Class<?> rawType, int hash, Type[] actualTypeArguments, Type ownerType) {
+            super(rawType, hash);
+            this.actualTypeArguments = actualTypeArguments;
+            this.ownerType = ownerType;
+        }
+
+        @Override
+        int typeArgumentCount() {
+            return actualTypeArguments.length;
+        }
+
+        @Override
+        Type typeArgument(int index) {
+            return actualTypeArguments[index];
+        }
+
+        @Override
+        Type explicitOwnerType() {
+            return ownerType;
+        }
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return actualTypeArguments.clone();
+        }
+    }
 }
@@ -0,0 +1,106 @@
+package ninja.javahacker.reifiedgeneric;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.StringJoiner;
+import java.util.stream.Stream;
+import lombok.NonNull;
+import lombok.experimental.PackagePrivate;
+
+/**
+ * The {@link WildcardType} implementation is not public, but this tool need to instantiate some of them.
+ * So, this class was mostly copied from Java 9's internal {@code WildcardTypeImpl}.
+ * @author Victor Williams Stafusa da Silva
+ */
+@PackagePrivate
+final class MyWildcardType implements WildcardType {
+    private static final Type[] OBJECT = {Object.class};
+
+    private final Type[] upperBounds;
+    private final Type[] lowerBounds;
+
+    @PackagePrivate
+    MyWildcardType(@NonNull Type[] upperBounds, @NonNull Type[] lowerBounds) {
+        this.upperBounds = upperBounds.length == 0
+                ? OBJECT
+                : Stream.of(upperBounds).map(MyParameterizedType::wrap).toArray(Type[]::new);
+        this.lowerBounds = Stream.of(lowerBounds).map(MyParameterizedType::wrap).toArray(Type[]::new);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public Type[] getUpperBounds() {
+        return upperBounds.clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public Type[] getLowerBounds() {
+        return lowerBounds.clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param o {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    @SuppressFBWarnings(
+            value = "NSE_NON_SYMMETRIC_EQUALS",
+            justification = "Should be equals to other WildcardType implementations."
+    )
+    public boolean equals(Object o) {
+        if (!(o instanceof WildcardType)) return false;
+        if (this == o) return true;
+
+        WildcardType that = (WildcardType) o;
+
+        return Arrays.equals(lowerBounds, that.getLowerBounds())
+                && Arrays.equals(upperBounds, that.getUpperBounds());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(lowerBounds) ^ Arrays.hashCode(upperBounds);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @implSpec The implementation was mostly copied from Java 9-19's internal {@code WildcardTypeImpl#toString()} method.
+     * @return {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        Type[] bounds = lowerBounds;
+        StringBuilder sb = new StringBuilder(64);
+
+        if (lowerBounds.length > 0) {
+            sb.append("? super ");
+        } else if (upperBounds.length > 0 && !upperBounds[0].equals(Object.class)) {
+            bounds = upperBounds;
+            sb.append("? extends ");
+        } else {
+            return "?";
+        }
+
+        StringJoiner sj = new StringJoiner(" & ");
+        for (Type bound : bounds) {
+            sj.add(bound.getTypeName());
+        }
+        sb.append(sj.toString());
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,100 @@
+package ninja.javahacker.reifiedgeneric;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import lombok.NonNull;
+import lombok.experimental.PackagePrivate;
+
+/**
+ * The outcome of an attempt to create a {@link ReifiedGeneric} through {@link ReifiedGeneric#tryOf(java.lang.reflect.Type)},
+ * which either holds the created {@link ReifiedGeneric} or the reason why it couldn't be created.
+ *
+ * <p>Failures are represented by a single preallocated instance for each reason, so a failed attempt neither creates
+ * exceptions nor allocates anything at all.</p>
+ *
+ * @author Victor Williams Stafusa da Silva
+ */
+public final class ReificationResult {
+
+    private static final Map<MalformedReifiedGenericException.Reason, ReificationResult> FAILURES = failures();
+
+    @Nullable
+    private final ReifiedGeneric<?> value;
+
+    @Nullable
+    private final MalformedReifiedGenericException.Reason reason;
+
+    private ReificationResult(ReifiedGeneric<?> value, MalformedReifiedGenericException.Reason reason) {
+        this.value = value;
+        this.reason = reason;
+    }
+
+    private static Map<MalformedReifiedGenericException.Reason, ReificationResult> failures() {
+        Map<MalformedReifiedGenericException.Reason, ReificationResult> map =
+                new EnumMap<>(MalformedReifiedGenericException.Reason.class);
+        for (MalformedReifiedGenericException.Reason r : MalformedReifiedGenericException.Reason.values()) {
+            map.put(r, new ReificationResult(null, r));
+        }
+        return map;
+    }
+
+    @NonNull
+    @PackagePrivate
+    static ReificationResult success(@NonNull ReifiedGeneric<?> value) {
+        return new ReificationResult(value, null);
+    }
+
+    @NonNull
+    @PackagePrivate
+    static ReificationResult failure(@NonNull MalformedReifiedGenericException.Reason reason) {
+        return FAILURES.get(reason);
+    }
+
+    /**
+     * Tells if the {@link ReifiedGeneric} was successfully created.
+     * @return {@code true} if the {@link ReifiedGeneric} was successfully created, {@code false} otherwise.
+     */
+    public boolean isSuccess() {
+        return value != null;
+    }
+
+    /**
+     * Gives the created {@link ReifiedGeneric}, if there is one.
+     * @return The created {@link ReifiedGeneric}, or an empty {@link Optional} if it couldn't be created.
+     */
+    @NonNull
+    public Optional<ReifiedGeneric<?>> toOptional() {
+        return Optional.ofNullable(value);
+    }
+
+    /**
+     * Gives the created {@link ReifiedGeneric}, throwing if it couldn't be created.
+     * @return The created {@link ReifiedGeneric}.
+     * @throws MalformedReifiedGenericException If the {@link ReifiedGeneric} couldn't be created.
+     */
+    @NonNull
+    public ReifiedGeneric<?> get() {
+        if (value == null) throw MalformedReifiedGenericException.stackless(reason);
+        return value;
+    }
+
+    /**
+     * Gives the reason why the {@link ReifiedGeneric} couldn't be created.
+     * @return The reason why the {@link ReifiedGeneric} couldn't be created, or {@code null} if it was created.
+     */
+    @Nullable
+    public MalformedReifiedGenericException.Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * Gives a string representation of this result.
+     * @return A string representation of this result.
+     */
+    @Override
+    public String toString() {
+        return value != null ? "Success[" + value + "]" : "Failure[" + reason + "]";
+    }
+}
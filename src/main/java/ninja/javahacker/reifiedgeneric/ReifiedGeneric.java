@@ -2,12 +2,23 @@ package ninja.javahacker.reifiedgeneric;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.MalformedParameterizedTypeException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Supplier;
 import lombok.NonNull;
 import lombok.experimental.PackagePrivate;
@@ -30,10 +41,48 @@ import lombok.experimental.PackagePrivate;
  */
 public abstract class ReifiedGeneric<X> {
 
+    private static final VarHandle VALUES;
+
+    private static final VarHandle ID;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VALUES = lookup.findVarHandle(ReifiedGeneric.class, "values", Map.class);
+            ID = lookup.findVarHandle(ReifiedGeneric.class, "id", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Class<?> anchor;
+
+    private String name;
+
+    private volatile ConcurrentMap<Class<?>, ReifiedGeneric<?>> supertypes;
+
+    /**
+     * The values of the {@link TypeValue}s whose classes are visible from the class loader of the anchor, which can't
+     * outlive this instance, and the values of every {@link TypeValue} if there is no anchor. The values of any other
+     * {@link TypeValue} are kept by the {@link TypeValue} itself, since keeping them here would pin their class loaders for
+     * as long as this instance lives.
+     */
+    @SuppressWarnings("unused") // Only accessed through VALUES.
+    private volatile Map<TypeValue<?>, Object> values = Map.of();
+
+    /**
+     * The id given by {@link #id()} plus one, or zero if it wasn't assigned yet.
+     */
+    private volatile int id;
+
+    private volatile long fingerprint;
+
     /**
      * Sole constructor usable only by the subclasses declared as private nested classes.
+     * @param anchor The class which determines the lifetime of this instance, or {@code null} if there is none.
      */
-    private ReifiedGeneric() {
+    private ReifiedGeneric(Class<?> anchor) {
+        this.anchor = anchor;
     }
 
     /**
@@ -42,13 +91,16 @@ public abstract class ReifiedGeneric<X> {
      * <p>The main purpose of this method is to be able to integrate
      * {@code ReifiedGeneric}-based APIs with {@link Class}-based ones.</p>
      *
+     * <p>The returned instance is canonical, i.e., calling this method again with the same {@link Class} instance
+     * gives the very same {@code ReifiedGeneric} instance.</p>
+     *
      * @param type The {@link Class} instance to be wrapped.
      * @param <X> The compile-time generic to be reified.
      * @return The wrapping {@code ReifiedGeneric} instance.
      * @throws IllegalArgumentException If {@code type} is {@code null}.
      */
     public static <X> ReifiedGeneric<X> of(@NonNull Class<X> type) {
-        return new ClassReifiedGeneric<>(type);
+        return Interner.canonical(type);
     }
 
     /**
@@ -57,6 +109,10 @@ public abstract class ReifiedGeneric<X> {
      * <p>The main purpose of this method is to be able to bridge
      * {@code ReifiedGeneric}-based APIs with {@link Type}-based ones.</p>
      *
+     * <p>The returned instance is canonical, i.e., structurally equal types always give the very same
+     * {@code ReifiedGeneric} instance, regardless of the {@link Type} implementation used to represent them. This way,
+     * comparing instances given by this method usually boils down to an identity check.</p>
+     *
      * @param type The {@link Type} instance to be wrapped. Must be a {@link ParameterizedType} or a {@link Class}.
      * @return The wrapping {@code ReifiedGeneric} instance.
      * @throws IllegalArgumentException If {@code type} is {@code null}.
@@ -64,22 +120,152 @@ public abstract class ReifiedGeneric<X> {
      */
     @NonNull
     public static ReifiedGeneric<?> of(@NonNull Type type) {
-        return validate(
-                type,
-                () -> new ClassReifiedGeneric<>((Class<?>) type),
-                () -> new ParameterizedReifiedGeneric<>((ParameterizedType) type)
-        );
+        if (type instanceof Class<?>) return Interner.canonical((Class<?>) type);
+        if (type instanceof ParameterizedType) return Interner.canonical((ParameterizedType) type);
+        throw unrealizable(type);
+    }
+
+    /**
+     * Attempts to wrap a {@link Type} instance into a {@code ReifiedGeneric} instance without throwing when it is not
+     * possible, telling the reason instead.
+     *
+     * <p>This is meant for callers that probe lots of types expecting many of them to be unrealizable (e.g. classpath
+     * scanners), since failing this way is much cheaper than catching the {@link MalformedReifiedGenericException}
+     * thrown by {@link #of(Type)}.</p>
+     *
+     * @param type The {@link Type} instance to be wrapped.
+     * @return The outcome, holding either the canonical {@code ReifiedGeneric} instance or the reason of the failure.
+     * @throws IllegalArgumentException If {@code type} is {@code null}.
+     * @see #of(Type)
+     */
+    @NonNull
+    public static ReificationResult tryOf(@NonNull Type type) {
+        if (type instanceof Class<?>) return ReificationResult.success(Interner.canonical((Class<?>) type));
+        if (!(type instanceof ParameterizedType)) return ReificationResult.failure(unrealizableReason(type));
+        ParameterizedType pt = (ParameterizedType) type;
+        if (!MyParameterizedType.isWellFormed(pt)) return ReificationResult.failure(MalformedReifiedGenericException.Reason.ILL_DEFINED);
+
+        // Only foreign implementations that resolve their types lazily might still fail here.
+        try {
+            return ReificationResult.success(Interner.canonical(pt));
+        } catch (MalformedParameterizedTypeException | TypeNotPresentException e) {
+            return ReificationResult.failure(MalformedReifiedGenericException.Reason.ILL_DEFINED);
+        }
+    }
+
+    /**
+     * Parses a type name back into a {@code ReifiedGeneric} instance.
+     *
+     * <p>The accepted syntax is the one given by {@link Type#getTypeName()} of both {@link Class} and
+     * {@link ParameterizedType} instances, including nested owners (e.g. {@code foo.Outer<java.lang.String>$Inner}),
+     * wildcards, arrays and primitive types. The output of {@link #toString()} is also accepted.</p>
+     *
+     * <p>Recently parsed names are cached, so parsing the same name repeatedly (e.g. when decoding serialized headers)
+     * is cheap. The cache never prevents the classes or the class loader from being unloaded.</p>
+     *
+     * @param typeName The type name to be parsed.
+     * @param loader The {@link ClassLoader} used to load the classes, or {@code null} for the bootstrap class loader.
+     * @return The canonical {@code ReifiedGeneric} instance represented by {@code typeName}.
+     * @throws IllegalArgumentException If {@code typeName} is {@code null}, malformed, nested too deeply or refers to
+     *     classes that can't be loaded (this includes type variables).
+     * @throws MalformedReifiedGenericException If {@code typeName} represents a wildcard, a generic array or an ill-defined
+     *     parameterized type.
+     */
+    @NonNull
+    public static ReifiedGeneric<?> parse(@NonNull CharSequence typeName, ClassLoader loader) {
+        return TypeParser.parse(typeName, loader);
+    }
+
+    @NonNull
+    @PackagePrivate
+    static <X> ReifiedGeneric<X> newInstance(@NonNull Class<X> type) {
+        return new ClassReifiedGeneric<>(type);
+    }
+
+    @NonNull
+    @PackagePrivate
+    static ReifiedGeneric<?> newInstance(@NonNull ParameterizedType type, Class<?> anchor) {
+        return new ParameterizedReifiedGeneric<>(type, anchor);
+    }
+
+    /**
+     * Gives the class loaded by the deepest class loader among all the classes used by this type.
+     * @return The class loaded by the deepest class loader among all the classes used by this type, or {@code null}
+     *     if those classes comes from unrelated class loaders.
+     */
+    @PackagePrivate
+    Class<?> anchor() {
+        return anchor;
+    }
+
+    /**
+     * Gives the value associated to this instance by the given {@link TypeValue}.
+     * @param key The {@link TypeValue} that associated the value.
+     * @return The associated value, or {@code null} if there is none.
+     */
+    @PackagePrivate
+    @SuppressWarnings("unchecked")
+    Object associatedValue(@NonNull TypeValue<?> key) {
+        return ((Map<TypeValue<?>, Object>) VALUES.getAcquire(this)).get(key);
+    }
+
+    /**
+     * Associates a value to this instance for the given {@link TypeValue}, unless some value is already associated. The
+     * value is kept for as long as this instance lives, so this should only be used for {@link TypeValue}s whose classes
+     * are visible from the class loader of the anchor, or if there is no anchor.
+     * @param key The {@link TypeValue} that associates the value.
+     * @param value The value to be associated.
+     * @return The value that ended up associated, which is {@code value} unless some other was already there.
+     */
+    @NonNull
+    @PackagePrivate
+    @SuppressWarnings("unchecked")
+    Object associateValue(@NonNull TypeValue<?> key, @NonNull Object value) {
+        while (true) {
+            Map<TypeValue<?>, Object> current = (Map<TypeValue<?>, Object>) VALUES.getAcquire(this);
+            Object found = current.get(key);
+            if (found != null) return found;
+            Map<TypeValue<?>, Object> next = new IdentityHashMap<>(current);
+            next.put(key, value);
+            if (VALUES.compareAndSet(this, current, next)) return value;
+        }
+    }
+
+    /**
+     * Removes the value associated to this instance for the given {@link TypeValue}, if there is any.
+     * @param key The {@link TypeValue} that associated the value.
+     */
+    @PackagePrivate
+    @SuppressWarnings("unchecked")
+    void dissociateValue(@NonNull TypeValue<?> key) {
+        while (true) {
+            Map<TypeValue<?>, Object> current = (Map<TypeValue<?>, Object>) VALUES.getAcquire(this);
+            if (!current.containsKey(key)) return;
+            Map<TypeValue<?>, Object> next = new IdentityHashMap<>(current);
+            next.remove(key);
+            if (VALUES.compareAndSet(this, current, next)) return;
+        }
     }
 
     @NonNull
-    @SuppressFBWarnings("ITC_INHERITANCE_TYPE_CHECKING")
     private static <E> E validate(@NonNull Type type, @NonNull Supplier<E> forClass, @NonNull Supplier<E> forParameterized) {
         if (type instanceof Class<?>) return forClass.get();
         if (type instanceof ParameterizedType) return forParameterized.get();
-        if (type instanceof WildcardType) throw MalformedReifiedGenericException.wildcard();
-        if (type instanceof GenericArrayType) throw MalformedReifiedGenericException.genericArray();
-        if (type instanceof TypeVariable<?>) throw MalformedReifiedGenericException.typeVariable();
-        throw MalformedReifiedGenericException.unrecognized();
+        throw unrealizable(type);
+    }
+
+    @NonNull
+    private static MalformedReifiedGenericException unrealizable(@NonNull Type type) {
+        return MalformedReifiedGenericException.of(unrealizableReason(type));
+    }
+
+    @NonNull
+    @SuppressFBWarnings("ITC_INHERITANCE_TYPE_CHECKING")
+    private static MalformedReifiedGenericException.Reason unrealizableReason(@NonNull Type type) {
+        if (type instanceof WildcardType) return MalformedReifiedGenericException.Reason.WILDCARD;
+        if (type instanceof GenericArrayType) return MalformedReifiedGenericException.Reason.GENERIC_ARRAY;
+        if (type instanceof TypeVariable<?>) return MalformedReifiedGenericException.Reason.TYPE_VARIABLE;
+        return MalformedReifiedGenericException.Reason.UNRECOGNIZED;
     }
 
     @NonNull
@@ -116,6 +302,29 @@ public abstract class ReifiedGeneric<X> {
     @NonNull
     public abstract Class<X> asClass();
 
+    /**
+     * Gives the number of type arguments of the type that is represented by this instance.
+     * @return The number of type arguments of the type that is represented by this instance, which is zero if it
+     *     is represented by a {@code Class}.
+     */
+    public abstract int typeArgumentCount();
+
+    /**
+     * Gives the {@code ReifiedGeneric} of the type argument at the given position of the type that is represented by this
+     * instance.
+     *
+     * <p>The resulting instances are computed only once and cached, so calling this method doesn't allocate anything nor
+     * revalidates the type argument after the first call.</p>
+     *
+     * @param index The position of the type argument, starting at zero.
+     * @return The {@code ReifiedGeneric} of the type argument at the given position.
+     * @throws IndexOutOfBoundsException If {@code index} is negative or isn't smaller than {@link #typeArgumentCount()}.
+     * @throws MalformedReifiedGenericException If the type argument at the given position is not a
+     *     {@link ParameterizedType} nor a {@link Class} (i.e., it is a wildcard, a generic array type or a type variable).
+     */
+    @NonNull
+    public abstract ReifiedGeneric<?> typeArgument(int index);
+
     /**
      * Tells if {@code this} represents the same type as {@code that}.
      * @param that Some other {@code ReifiedGeneric}.
@@ -123,7 +332,7 @@ public abstract class ReifiedGeneric<X> {
      *     {@code false} otherwise (including if {@code that} is {@code null}).
      */
     public boolean isSameOf(@Nullable ReifiedGeneric<?> that) {
-        return that != null && getType().equals(that.getType());
+        return this == that || (that != null && getType().equals(that.getType()));
     }
 
     /**
@@ -150,6 +359,289 @@ public abstract class ReifiedGeneric<X> {
         return someClass.isAssignableFrom(asClass());
     }
 
+    /**
+     * Tells if the type held by {@code this} object is assignable from the type held by {@code other}, taking type arguments
+     * into account. I.E, tells if it is the same or is a supertype of the type held by {@code other}.
+     *
+     * <p>Unlike {@link #isAssignableFrom(Class)}, this respects type arguments, so {@code List<Integer>} is not assignable
+     * from {@code List<String>}, but {@code Collection<? extends Number>} is assignable from {@code ArrayList<Integer>}.
+     * Superclasses and superinterfaces are walked substituting the type variables found in the way. Raw types are never
+     * considered assignable to parameterized ones.</p>
+     *
+     * <p>The results are cached, so asking the same question again is usually just a lookup.</p>
+     *
+     * @param other The {@code ReifiedGeneric} whose type could possibly be assigned to the type held by {@code this} object.
+     * @return {@code true} if {@code this} represents the same type or a supertype of {@code other}, {@code false} otherwise.
+     * @throws IllegalArgumentException If {@code other} is {@code null}.
+     */
+    public boolean isAssignableFrom(@NonNull ReifiedGeneric<?> other) {
+        return TypeRelations.isAssignable(this, other);
+    }
+
+    /**
+     * Tells if the type held by {@code this} object is assignable to the type held by {@code other}, taking type arguments
+     * into account. I.E, tells if it is the same or is a subtype of the type held by {@code other}.
+     * @param other The {@code ReifiedGeneric} whose type could possibly be assigned from the type held by {@code this} object.
+     * @return {@code true} if {@code this} represents the same type or a subtype of {@code other}, {@code false} otherwise.
+     * @throws IllegalArgumentException If {@code other} is {@code null}.
+     * @see #isAssignableFrom(ReifiedGeneric)
+     */
+    public boolean isAssignableTo(@NonNull ReifiedGeneric<?> other) {
+        return TypeRelations.isAssignable(other, this);
+    }
+
+    /**
+     * Tells if the given object is an instance of the type held by {@code this} object, checking every element of its
+     * contents against the type arguments.
+     * @param obj The object to be checked.
+     * @return {@code true} if {@code obj} is not {@code null} and is an instance of the type held by {@code this} object,
+     *     {@code false} otherwise.
+     * @see #isInstance(Object, InstanceCheck)
+     */
+    public boolean isInstance(@Nullable Object obj) {
+        return isInstance(obj, InstanceCheck.FULL);
+    }
+
+    /**
+     * Tells if the given object is an instance of the type held by {@code this} object, checking its contents against
+     * the type arguments as thoroughly as the given policy says.
+     *
+     * <p>Unlike {@link Class#isInstance(Object)}, this also looks inside the object. For example, for
+     * {@code Map<String, List<Integer>>}, each key must be a {@code String} and each value must be a {@code List} whose
+     * elements are {@code Integer}s. The contents of {@link java.util.Collection}s, {@link java.util.Map}s,
+     * {@link java.util.Map.Entry}s, {@link java.util.Optional}s and generic arrays are checked. Any other object is
+     * checked only by its class. Elements might be {@code null}, and wildcards are checked against their upper bounds.</p>
+     *
+     * <p>What to check is worked out once for each type and then cached, so checking lots of objects of the same type
+     * doesn't walk the type again.</p>
+     *
+     * @param obj The object to be checked.
+     * @param policy How thoroughly the contents of {@code obj} are checked.
+     * @return {@code true} if {@code obj} is not {@code null} and is an instance of the type held by {@code this} object,
+     *     {@code false} otherwise.
+     * @throws IllegalArgumentException If {@code policy} is {@code null}.
+     */
+    public boolean isInstance(@Nullable Object obj, @NonNull InstanceCheck policy) {
+        return InstanceChecker.isInstance(this, obj, policy);
+    }
+
+    /**
+     * Casts the given object to the type held by {@code this} object, checking every element of its contents against the
+     * type arguments.
+     * @param obj The object to be cast.
+     * @return {@code obj}.
+     * @throws ClassCastException If {@code obj} is not {@code null} and is not an instance of the type held by
+     *     {@code this} object.
+     * @see #isInstance(Object, InstanceCheck)
+     */
+    @Nullable
+    public X checkedCast(@Nullable Object obj) {
+        return checkedCast(obj, InstanceCheck.FULL);
+    }
+
+    /**
+     * Casts the given object to the type held by {@code this} object, checking its contents against the type arguments
+     * as thoroughly as the given policy says.
+     * @param obj The object to be cast.
+     * @param policy How thoroughly the contents of {@code obj} are checked.
+     * @return {@code obj}.
+     * @throws IllegalArgumentException If {@code policy} is {@code null}.
+     * @throws ClassCastException If {@code obj} is not {@code null} and is not an instance of the type held by
+     *     {@code this} object.
+     * @see #isInstance(Object, InstanceCheck)
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public X checkedCast(@Nullable Object obj, @NonNull InstanceCheck policy) {
+        if (obj != null && !isInstance(obj, policy)) {
+            throw new ClassCastException("Cannot cast " + obj.getClass().getName() + " to " + getType().getTypeName() + ".");
+        }
+        return (X) obj;
+    }
+
+    /**
+     * Gives the {@code ReifiedGeneric} of the supertype of the type held by {@code this} object which have the given class
+     * as its raw type, with all the type arguments resolved.
+     *
+     * <p>For example, {@code HashMap<String, Integer>} resolved to {@link java.util.Map} gives {@code Map<String, Integer>}
+     * and a {@code class Foo implements Iterable<Bar>} resolved to {@link Iterable} gives {@code Iterable<Bar>}. If the
+     * type held by {@code this} object is a raw type, then the result is also a raw type.</p>
+     *
+     * <p>The generic supertypes of each class are precomputed once and the results are cached, so asking the same
+     * question again is just a lookup.</p>
+     *
+     * @param <S> The generic type of the given supertype.
+     * @param supertype The raw type of the wanted supertype.
+     * @return The {@code ReifiedGeneric} of the supertype.
+     * @throws IllegalArgumentException If {@code supertype} is {@code null} or is not a supertype of the type held by
+     *     {@code this} object.
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public <S> ReifiedGeneric<? extends S> asSupertype(@NonNull Class<S> supertype) {
+        ConcurrentMap<Class<?>, ReifiedGeneric<?>> cache = supertypes;
+        if (cache == null) {
+            cache = new ConcurrentHashMap<>(4);
+            supertypes = cache;
+        }
+        ReifiedGeneric<?> found = cache.get(supertype);
+        if (found != null) return (ReifiedGeneric<? extends S>) found;
+
+        Type resolved = TypeRelations.supertype(getType(), supertype);
+        if (resolved == null) {
+            throw new IllegalArgumentException(asClass().getName() + " is not a subtype of " + supertype.getName() + ".");
+        }
+        ReifiedGeneric<?> created = of(resolved);
+        ReifiedGeneric<?> raced = cache.putIfAbsent(supertype, created);
+        return (ReifiedGeneric<? extends S>) (raced == null ? created : raced);
+    }
+
+    /**
+     * Gives a small non-negative integer that identifies this {@code ReifiedGeneric} instance, suitable for indexing plain
+     * arrays in dispatch tables, avoiding hash lookups.
+     *
+     * <p>Ids are assigned on demand and are dense: they are all smaller than {@link #idBound()}, which grows only as
+     * needed. The id of an instance never changes, but the id of a type might. Canonical instances of types made only of
+     * classes loaded by the class loader of this library or by its parents, and of types mixing classes from unrelated
+     * class loaders, are collected once nothing uses them. If such a type is needed again later, it gets a new instance
+     * and, possibly, a different id. Other canonical instances are kept for as long as the classes used in their types
+     * are loaded. Once an instance is collected, its id might be reused by some other type. So, tables keyed by ids should
+     * keep the {@code ReifiedGeneric} instance alongside each value and check it by identity, or check it through
+     * {@link #byId(int)}.</p>
+     *
+     * @return The id of this instance.
+     * @throws IllegalStateException If all the possible ids are already taken.
+     */
+    public int id() {
+        int current = id;
+        if (current != 0) return current - 1;
+        int fresh = TypeIds.allocate();
+        if (ID.compareAndSet(this, 0, fresh + 1)) {
+            TypeIds.track(this, fresh);
+            return fresh;
+        }
+        TypeIds.release(fresh);
+        return id - 1;
+    }
+
+    /**
+     * Gives the id of this instance without assigning one.
+     * @return The id given by {@link #id()}, or {@code -1} if none was assigned yet.
+     */
+    @PackagePrivate
+    int assignedId() {
+        return id - 1;
+    }
+
+    /**
+     * Gives a well-mixed 64-bit hash of the type held by this object, derived only from the names of the classes and from
+     * the structure of the type.
+     *
+     * <p>Unlike {@link #hashCode()}, which depends on the identity hash codes of the classes, the fingerprint is the same
+     * in every JVM run and in every node. So, it might be used as a compact key in distributed caches, off-heap maps and
+     * message headers. As with any hash, distinct types might have the same fingerprint, although that is very
+     * unlikely.</p>
+     *
+     * @return The fingerprint of the type held by this object.
+     */
+    public long fingerprint() {
+        long f = fingerprint;
+        if (f == 0) {
+            f = Fingerprints.of(getType());
+            fingerprint = f;
+        }
+        return f;
+    }
+
+    /**
+     * Finds the {@code ReifiedGeneric} instance that currently owns the given id.
+     * @param id The id.
+     * @return The {@code ReifiedGeneric} instance whose {@link #id()} is the given one, or {@code null} if there is none.
+     * @see #id()
+     */
+    public static ReifiedGeneric<?> byId(int id) {
+        return TypeIds.byId(id);
+    }
+
+    /**
+     * Gives an upper bound (exclusive) to every id given by {@link #id()} so far. Useful for sizing dispatch tables.
+     * @return An upper bound to every id given so far.
+     * @see #id()
+     */
+    public static int idBound() {
+        return TypeIds.bound();
+    }
+
+    /**
+     * Gives the type of the given field as seen from the type held by {@code this} object, with the type variables of the
+     * field's declaring class (and of its enclosing classes) replaced by their actual arguments.
+     *
+     * <p>For example, for a {@code class Box<T> { T value; }}, resolving the field {@code value} from a
+     * {@code Box<String>} or from a {@code class StringBox extends Box<String>} gives {@code String}. If the declaring
+     * class is seen as a raw type, the erasure of the field's type is given. The same goes for an inner class of a raw
+     * type, even if that inner class isn't generic itself.</p>
+     *
+     * <p>The bindings of the type variables of each declaring class are cached by {@link #asSupertype(Class)}, so
+     * resolving many members of the same class is cheap.</p>
+     *
+     * @param field The field whose type should be resolved.
+     * @return The {@code ReifiedGeneric} of the resolved type of the field.
+     * @throws IllegalArgumentException If {@code field} is {@code null} or if it is not declared in a supertype of the type
+     *     held by {@code this} object.
+     * @throws MalformedReifiedGenericException If the resolved type can't be reified, as when it is a bare type variable
+     *     or a generic array.
+     */
+    @NonNull
+    public ReifiedGeneric<?> resolve(@NonNull Field field) {
+        return resolveMember(field.getDeclaringClass(), field.getGenericType());
+    }
+
+    /**
+     * Gives the return type of the given method as seen from the type held by {@code this} object, with the type variables
+     * of the method's declaring class (and of its enclosing classes) replaced by their actual arguments.
+     *
+     * <p>For example, for an {@code interface Repository<E> { List<E> findAll(); }}, resolving {@code findAll} from a
+     * {@code Repository<User>} gives {@code List<User>}. Type variables declared by the method itself can't be resolved
+     * and are left as they are.</p>
+     *
+     * @param method The method whose return type should be resolved.
+     * @return The {@code ReifiedGeneric} of the resolved return type of the method.
+     * @throws IllegalArgumentException If {@code method} is {@code null} or if it is not declared in a supertype of the
+     *     type held by {@code this} object.
+     * @throws MalformedReifiedGenericException If the resolved type can't be reified, as when it is a bare type variable
+     *     or a generic array.
+     * @see #resolve(Field)
+     */
+    @NonNull
+    public ReifiedGeneric<?> resolveReturnType(@NonNull Method method) {
+        return resolveMember(method.getDeclaringClass(), method.getGenericReturnType());
+    }
+
+    /**
+     * Gives the type of the given method or constructor parameter as seen from the type held by {@code this} object, with
+     * the type variables of the declaring class (and of its enclosing classes) replaced by their actual arguments.
+     * @param parameter The parameter whose type should be resolved.
+     * @return The {@code ReifiedGeneric} of the resolved type of the parameter.
+     * @throws IllegalArgumentException If {@code parameter} is {@code null} or if it is not declared in a supertype of the
+     *     type held by {@code this} object.
+     * @throws MalformedReifiedGenericException If the resolved type can't be reified, as when it is a bare type variable
+     *     or a generic array.
+     * @see #resolve(Field)
+     * @see #resolveReturnType(Method)
+     */
+    @NonNull
+    public ReifiedGeneric<?> resolveParameter(@NonNull Parameter parameter) {
+        return resolveMember(parameter.getDeclaringExecutable().getDeclaringClass(), parameter.getParameterizedType());
+    }
+
+    @NonNull
+    private ReifiedGeneric<?> resolveMember(@NonNull Class<?> declaringClass, @NonNull Type memberType) {
+        Type context = asSupertype(declaringClass).getType();
+        if (memberType instanceof Class<?>) return of(memberType);
+        if (context instanceof ParameterizedType) return of(TypeRelations.substitute(memberType, (ParameterizedType) context));
+        return of(TypeRelations.inGenericScope(declaringClass) ? TypeRelations.erasure(memberType) : memberType);
+    }
+
     /**
      * If this {@code ReifiedGeneric} instance is compatible with the given {@code base}, returns this instance as
      * something that extends the given {@code base}.
@@ -173,7 +665,7 @@ public abstract class ReifiedGeneric<X> {
      */
     @Override
     public boolean equals(Object other) {
-        return other instanceof ReifiedGeneric<?> && isSameOf((ReifiedGeneric<?>) other);
+        return this == other || (other instanceof ReifiedGeneric<?> && isSameOf((ReifiedGeneric<?>) other));
     }
 
     /**
@@ -190,12 +682,18 @@ public abstract class ReifiedGeneric<X> {
     /**
      * Gives a {@link String} representation of this instance. That representation consists in {@code "ReifiedGeneric"}
      * followed by the represented type name between angle brackets.
+     * @implNote The representation is computed only once and then reused.
      * @return A {@link String} representation of this instance.
      */
     @NonNull
     @Override
     public String toString() {
-        return "ReifiedGeneric<" + getType().getTypeName() + ">";
+        String n = name;
+        if (n == null) {
+            n = "ReifiedGeneric<" + getType().getTypeName() + ">";
+            name = n;
+        }
+        return n;
     }
 
     private static final class ClassReifiedGeneric<X> extends ReifiedGeneric<X> {
@@ -203,6 +701,7 @@ public abstract class ReifiedGeneric<X> {
         private final Class<X> type;
 
         private ClassReifiedGeneric(Class<X> type) {
+            super(type);
             this.type = type;
         }
 
@@ -215,14 +714,68 @@ public abstract class ReifiedGeneric<X> {
         public Class<X> asClass() {
             return type;
         }
+
+        @Override
+        public int typeArgumentCount() {
+            return 0;
+        }
+
+        @Override
+        public ReifiedGeneric<?> typeArgument(int index) {
+            throw new IndexOutOfBoundsException(index);
+        }
     }
 
+    /**
+     * The {@code ReifiedGeneric} of a parameterized type. The {@code ReifiedGeneric}s of the first two type arguments
+     * are cached in fields, so the common cases of one or two type arguments don't need an array.
+     * @param <X> The compile-time generic to be reified.
+     */
     private static final class ParameterizedReifiedGeneric<X> extends ReifiedGeneric<X> {
 
         private final MyParameterizedType type;
 
-        private ParameterizedReifiedGeneric(ParameterizedType type) {
-            this.type = MyParameterizedType.wrap(type);
+        private ReifiedGeneric<?> first;
+
+        private ReifiedGeneric<?> second;
+
+        private final ReifiedGeneric<?>[] rest;
+
+        private ParameterizedReifiedGeneric(ParameterizedType type, Class<?> anchor) {
+            super(anchor);
+            MyParameterizedType wrapped = MyParameterizedType.wrap(type);
+            int count = wrapped.typeArgumentCount();
+            ReifiedGeneric<?>[] children = new ReifiedGeneric<?>[count];
+            Type[] args = new Type[count];
+            boolean changed = false;
+            for (int i = 0; i < count; i++) {
+                Type arg = wrapped.typeArgument(i);
+                children[i] = shared(arg);
+                args[i] = children[i] == null ? arg : children[i].getType();
+                changed |= args[i] != arg;
+            }
+            Type owner = wrapped.explicitOwnerType();
+            ReifiedGeneric<?> sharedOwner = shared(owner);
+            if (sharedOwner != null && sharedOwner.getType() != owner) {
+                owner = sharedOwner.getType();
+                changed = true;
+            }
+            this.type = changed ? MyParameterizedType.of(wrapped.getRawType(), args, owner) : wrapped;
+            this.first = count > 0 ? children[0] : null;
+            this.second = count > 1 ? children[1] : null;
+            this.rest = count > 2 ? Arrays.copyOfRange(children, 2, count) : null;
+        }
+
+        /**
+         * Gives the canonical instance of a type argument or owner, so its node can be shared.
+         * @param type The type argument or owner.
+         * @return The canonical instance of {@code type}, or {@code null} if it is a wildcard, a generic array or absent.
+         */
+        @Nullable
+        private static ReifiedGeneric<?> shared(Type type) {
+            if (type instanceof Class<?>) return Interner.canonical((Class<?>) type);
+            if (type instanceof ParameterizedType) return Interner.canonical((ParameterizedType) type);
+            return null;
         }
 
         @Override
@@ -235,5 +788,27 @@ public abstract class ReifiedGeneric<X> {
         public Class<X> asClass() {
             return (Class<X>) type.getRawType();
         }
+
+        @Override
+        public int typeArgumentCount() {
+            return type.typeArgumentCount();
+        }
+
+        @Override
+        public ReifiedGeneric<?> typeArgument(int index) {
+            ReifiedGeneric<?> found = index == 0 ? first : index == 1 ? second : null;
+            if (found != null) return found;
+            Objects.checkIndex(index, type.typeArgumentCount());
+            if (index > 1 && rest[index - 2] != null) return rest[index - 2];
+            ReifiedGeneric<?> created = ReifiedGeneric.of(type.typeArgument(index));
+            if (index == 0) {
+                first = created;
+            } else if (index == 1) {
+                second = created;
+            } else {
+                rest[index - 2] = created;
+            }
+            return created;
+        }
     }
 }
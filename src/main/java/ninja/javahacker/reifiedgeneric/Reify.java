@@ -0,0 +1,42 @@
+package ninja.javahacker.reifiedgeneric;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link ReifiedGeneric} field whose value should be precomputed at compile-time by the
+ * {@link ninja.javahacker.reifiedgeneric.processor.ReifyProcessor} annotation processor.
+ *
+ * <p>For each class with fields marked with this annotation, the processor generates a package-private holder class in
+ * the same package, named after the class (with the names of enclosing classes joined by {@code _}) followed by
+ * {@code _Reified}. The holder has a constant with the same name and type of each marked field, built directly through
+ * {@link Wrappers#make(Class, java.lang.reflect.Type[], java.lang.reflect.Type)} and {@link ReifiedGeneric#of(Class)}.
+ * So, the field should simply be initialized from it:</p>
+ *
+ * <pre>
+ * public class Foo {
+ *     &#64;Reify
+ *     private static final ReifiedGeneric&lt;Map&lt;String, List&lt;Integer&gt;&gt;&gt; TYPE = Foo_Reified.TYPE;
+ * }
+ * </pre>
+ *
+ * <p>This gives the very same canonical instance that {@code new Token<Map<String, List<Integer>>>() {}.getReified()}
+ * gives, but without creating an anonymous subclass of {@link Token} that must be loaded, verified and reflected
+ * upon at runtime, which saves startup time and metaspace when there are lots of them.</p>
+ *
+ * <p>The type argument of the field type must be reifiable, i.e., it can't be or contain type variables and, at the top
+ * level, it can't be a wildcard nor a generic array. Also, every class mentioned in it must be accessible from the
+ * generated holder. Otherwise, the processor reports a compile error.</p>
+ *
+ * @see ninja.javahacker.reifiedgeneric.processor.ReifyProcessor
+ * @see Token
+ * @author Victor Williams Stafusa da Silva
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Reify {
+}
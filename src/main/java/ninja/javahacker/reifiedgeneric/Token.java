@@ -33,6 +33,16 @@ import lombok.NonNull;
  */
 public abstract class Token<X> {
 
+    /**
+     * The {@link ReifiedGeneric} instances produced by each {@code Token} subclass, computed only once per subclass.
+     */
+    private static final ClassValue<ReifiedGeneric<?>> REIFIED = new ClassValue<>() {
+        @Override
+        protected ReifiedGeneric<?> computeValue(Class<?> type) {
+            return ReifiedGeneric.ofToken(type.getGenericSuperclass());
+        }
+    };
+
     /**
      * The {@link ReifiedGeneric} instance produced by this {@code Token}.
      */
@@ -42,19 +52,49 @@ public abstract class Token<X> {
     /**
      * Used as a superconstructor for anonymous subclasses specifying the generic type.
      *
+     * <p>The generic type is read and validated only once for each subclass. Further instantiations of the same subclass
+     * just reuse the {@link ReifiedGeneric} instance produced by the first one.</p>
+     *
      * @throws MalformedReifiedGenericException If the anonymous subclass do not specifies a {@link ParameterizedType} nor a
      *     {@link Class} in it's generic declaration (likely to be a raw type, a generic array type or a type variable).
      */
     @SuppressWarnings("unchecked")
     protected Token() {
-        this.reified = (ReifiedGeneric<X>) ReifiedGeneric.ofToken(this.getClass().getGenericSuperclass());
+        this.reified = (ReifiedGeneric<X>) REIFIED.get(this.getClass());
+    }
+
+    /**
+     * Gives the {@link ReifiedGeneric} instance that would be produced by instances of the given {@code Token} subclass,
+     * without needing to instantiate it.
+     *
+     * <p>This is useful for named (and possibly abstract) subclasses of {@code Token}, like this:</p>
+     *
+     * <pre>
+     * class FooMapToken extends Token&lt;Map&lt;String, List&lt;Foo&gt;&gt;&gt; {}
+     * ReifiedGeneric&lt;Map&lt;String, List&lt;Foo&gt;&gt;&gt; t = Token.reifiedOf(FooMapToken.class);
+     * </pre>
+     *
+     * @param tokenClass The {@code Token} subclass.
+     * @param <X> The compile-time generic to be reified.
+     * @return The {@link ReifiedGeneric} instance produced by the given {@code Token} subclass.
+     * @throws IllegalArgumentException If {@code tokenClass} is {@code null} or if it is not a {@code Token} subclass.
+     * @throws MalformedReifiedGenericException If the given subclass do not specifies a {@link ParameterizedType} nor a
+     *     {@link Class} in it's generic declaration (likely to be a raw type, a generic array type or a type variable).
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public static <X> ReifiedGeneric<X> reifiedOf(@NonNull Class<? extends Token<X>> tokenClass) {
+        if (!Token.class.isAssignableFrom(tokenClass) || Token.class.equals(tokenClass)) {
+            throw new IllegalArgumentException(tokenClass.getName() + " is not a Token subclass.");
+        }
+        return (ReifiedGeneric<X>) REIFIED.get(tokenClass);
     }
 
     /**
      * Gives the {@link ReifiedGeneric} instance produced by this {@code Token}.
      *
      * <p>Multiple calls of this method on the same instance of {@code Token} always produces the same
-     * object as a result.</p>
+     * object as a result. The same is true for instances of the same {@code Token} subclass.</p>
      *
      * @return The {@link ReifiedGeneric} instance produced by this {@code Token}.
      */
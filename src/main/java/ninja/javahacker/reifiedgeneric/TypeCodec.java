@@ -0,0 +1,386 @@
+package ninja.javahacker.reifiedgeneric;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.MalformedParameterizedTypeException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.NonNull;
+
+/**
+ * Encodes and decodes {@link ReifiedGeneric} instances in a compact binary format, suitable for being sent alongside
+ * payloads without the overhead of shipping the full type name.
+ *
+ * <p>The type is encoded as a tree of nodes. Each node starts with a varint header whose lowest three bits tell the kind
+ * of the node and whose remaining bits carry a small number (a name length, an array dimension count, a type argument
+ * count, etc.). Class names are written only once per stream when a dictionary is used: every further occurrence of
+ * the same class is written as its index in the dictionary, so a repeated {@code List<String>} costs just three
+ * bytes.</p>
+ *
+ * <p>Codecs created by {@link #withDictionary()} keep state about the stream that they are writing to or reading from.
+ * So, a distinct instance should be used for each stream and direction, the writing and the reading sides must see the
+ * very same sequence of types, and those instances are not thread-safe. The codec given by {@link #withoutDictionary()}
+ * is stateless and might be freely shared.</p>
+ *
+ * @author Victor Williams Stafusa da Silva
+ */
+@SuppressFBWarnings("ITC_INHERITANCE_TYPE_CHECKING")
+public final class TypeCodec {
+
+    private static final int CLASS_NEW = 0;
+    private static final int CLASS_REF = 1;
+    private static final int PRIMITIVE = 2;
+    private static final int ARRAY = 3;
+    private static final int PARAMETERIZED = 4;
+    private static final int OWNED = 5;
+    private static final int EXTENDS = 6;
+    private static final int SUPER = 7;
+
+    private static final int MAX_NAME_LENGTH = 65_535;
+    private static final int MAX_DEPTH = 255;
+
+    private static final Class<?>[] PRIMITIVES = {
+        boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class, double.class, void.class
+    };
+
+    private static final TypeCodec STATELESS = new TypeCodec(false);
+
+    private final boolean dictionary;
+    private final Map<Class<?>, Integer> written;
+    private final List<Class<?>> read;
+
+    private TypeCodec(boolean dictionary) {
+        this.dictionary = dictionary;
+        this.written = dictionary ? new HashMap<>(32) : Map.of();
+        this.read = dictionary ? new ArrayList<>(32) : List.of();
+    }
+
+    /**
+     * Creates a new codec that keeps a dictionary of the class names already seen in its stream.
+     * @return A new codec that keeps a dictionary of class names.
+     */
+    @NonNull
+    public static TypeCodec withDictionary() {
+        return new TypeCodec(true);
+    }
+
+    /**
+     * Gives a codec that spells out every class name, useful when each encoded type is meant to be read in isolation.
+     * @return A stateless codec.
+     */
+    @NonNull
+    public static TypeCodec withoutDictionary() {
+        return STATELESS;
+    }
+
+    /**
+     * Forgets every class name in the dictionary, as if this codec was just created. Useful when the stream is restarted.
+     * This does nothing if this codec has no dictionary.
+     */
+    public void reset() {
+        if (!dictionary) return;
+        written.clear();
+        read.clear();
+    }
+
+    /**
+     * Writes the binary encoding of the given type.
+     * @param type The type to be encoded.
+     * @param out Where the encoded type should be written to.
+     * @throws IllegalArgumentException If any parameter is {@code null}, if {@code type} contains type variables or if it
+     *     is nested too deeply to be read back.
+     * @throws IOException If writing to {@code out} fails.
+     */
+    public void write(@NonNull ReifiedGeneric<?> type, @NonNull DataOutput out) throws IOException {
+        ByteSink<IOException> sink = out::write;
+        encodeTop(type.getType(), sink);
+    }
+
+    /**
+     * Writes the binary encoding of the given type.
+     * @param type The type to be encoded.
+     * @param out Where the encoded type should be written to.
+     * @throws IllegalArgumentException If any parameter is {@code null}, if {@code type} contains type variables or if it
+     *     is nested too deeply to be read back.
+     * @throws java.nio.BufferOverflowException If there is no room left in {@code out}. Nothing is written in that case.
+     */
+    public void write(@NonNull ReifiedGeneric<?> type, @NonNull ByteBuffer out) {
+        ByteSink<RuntimeException> sink = out::put;
+        encodeTop(type.getType(), sink);
+    }
+
+    /**
+     * Reads a type previously written in binary form.
+     * @param in Where the encoded type should be read from.
+     * @param loader The {@link ClassLoader} used to load the classes, or {@code null} for the bootstrap class loader.
+     * @return The canonical {@link ReifiedGeneric} instance that was decoded.
+     * @throws IllegalArgumentException If {@code in} is {@code null}, if the data is malformed or if some class couldn't
+     *     be loaded.
+     * @throws MalformedReifiedGenericException If the decoded type can't be reified.
+     * @throws IOException If reading from {@code in} fails, including the case where the data is truncated.
+     */
+    @NonNull
+    public ReifiedGeneric<?> read(@NonNull DataInput in, ClassLoader loader) throws IOException {
+        ByteSource<IOException> source = in::readUnsignedByte;
+        return decodeTop(source, loader);
+    }
+
+    /**
+     * Reads a type previously written in binary form.
+     * @param in Where the encoded type should be read from.
+     * @param loader The {@link ClassLoader} used to load the classes, or {@code null} for the bootstrap class loader.
+     * @return The canonical {@link ReifiedGeneric} instance that was decoded.
+     * @throws IllegalArgumentException If {@code in} is {@code null}, if the data is malformed or if some class couldn't
+     *     be loaded.
+     * @throws MalformedReifiedGenericException If the decoded type can't be reified.
+     * @throws java.nio.BufferUnderflowException If the data is truncated.
+     */
+    @NonNull
+    public ReifiedGeneric<?> read(@NonNull ByteBuffer in, ClassLoader loader) {
+        ByteSource<RuntimeException> source = () -> in.get() & 0xFF;
+        return decodeTop(source, loader);
+    }
+
+    /**
+     * Encodes the type as a whole before handing it to {@code out}, so a type that fails to be encoded midway leaves
+     * nothing behind in the stream. This also makes sure that the dictionary doesn't retain the classes of a type that
+     * failed to be encoded or written, since the reading side would never see them.
+     * @param type The type to be encoded.
+     * @param out Where the encoded type should be written to.
+     * @param <E> The exception that might be thrown when writing.
+     * @throws E If writing fails.
+     */
+    private <E extends Exception> void encodeTop(Type type, ByteSink<E> out) throws E {
+        int before = written.size();
+        boolean done = false;
+        try {
+            ByteArrayOutputStream scratch = new ByteArrayOutputStream(32);
+            encode(type, scratch, 0);
+            out.put(scratch.toByteArray());
+            done = true;
+        } finally {
+            if (!done && dictionary) written.values().removeIf(index -> index >= before);
+        }
+    }
+
+    private void encode(Type type, ByteArrayOutputStream out, int depth) {
+        if (type instanceof Class<?>) {
+            encodeClass((Class<?>) type, out, depth);
+            return;
+        }
+        checkDepth(type, depth);
+        if (type instanceof ParameterizedType) {
+            ParameterizedType p = (ParameterizedType) type;
+            Type owner = p.getOwnerType();
+            Type[] args = p.getActualTypeArguments();
+            boolean owned = owner instanceof ParameterizedType;
+            writeVarint(header(owned ? OWNED : PARAMETERIZED, args.length), out);
+            if (owned) encode(owner, out, depth + 1);
+            encodeClass((Class<?>) p.getRawType(), out, depth + 1);
+            for (Type arg : args) {
+                encode(arg, out, depth + 1);
+            }
+        } else if (type instanceof WildcardType) {
+            WildcardType w = (WildcardType) type;
+            Type[] lower = w.getLowerBounds();
+            Type[] upper = w.getUpperBounds();
+            boolean unbounded = upper.length == 1 && upper[0] == Object.class;
+            Type[] bounds = lower.length != 0 ? lower : unbounded ? new Type[0] : upper;
+            writeVarint(header(lower.length != 0 ? SUPER : EXTENDS, bounds.length), out);
+            for (Type bound : bounds) {
+                encode(bound, out, depth + 1);
+            }
+        } else if (type instanceof GenericArrayType) {
+            int dimensions = 0;
+            Type component = type;
+            while (component instanceof GenericArrayType) {
+                component = ((GenericArrayType) component).getGenericComponentType();
+                dimensions++;
+            }
+            checkDepth(type, dimensions);
+            writeVarint(header(ARRAY, dimensions), out);
+            encode(component, out, depth + 1);
+        } else {
+            throw new IllegalArgumentException("The type " + type.getTypeName() + " can't be encoded.");
+        }
+    }
+
+    private void encodeClass(Class<?> type, ByteArrayOutputStream out, int depth) {
+        checkDepth(type, depth);
+        if (type.isArray()) {
+            int dimensions = 0;
+            Class<?> component = type;
+            while (component.isArray()) {
+                component = component.getComponentType();
+                dimensions++;
+            }
+            writeVarint(header(ARRAY, dimensions), out);
+            encodeClass(component, out, depth + 1);
+            return;
+        }
+        if (type.isPrimitive()) {
+            for (int i = 0; i < PRIMITIVES.length; i++) {
+                if (PRIMITIVES[i] == type) writeVarint(header(PRIMITIVE, i), out);
+            }
+            return;
+        }
+        if (dictionary) {
+            Integer index = written.get(type);
+            if (index != null) {
+                writeVarint(header(CLASS_REF, index), out);
+                return;
+            }
+            written.put(type, written.size());
+        }
+        String name = type.getName();
+        writeVarint(header(CLASS_NEW, name.length()), out);
+        for (int i = 0; i < name.length(); i++) {
+            writeVarint(name.charAt(i), out);
+        }
+    }
+
+    /**
+     * Rejects what {@link #decode(ByteSource, ClassLoader, int)} would refuse to read back.
+     * @param type The type being encoded.
+     * @param depth How deeply that type is nested, or how many array dimensions it has.
+     * @throws IllegalArgumentException If {@code depth} is above the limit.
+     */
+    private static void checkDepth(Type type, int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("The type " + type.getTypeName() + " is nested too deeply to be encoded.");
+        }
+    }
+
+    private static int header(int kind, int payload) {
+        return payload << 3 | kind;
+    }
+
+    private static void writeVarint(int value, ByteArrayOutputStream out) {
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            out.write(v & 0x7F | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    /**
+     * Decodes the type, making sure that the dictionary doesn't retain the classes of a type that failed to be decoded.
+     * @param in Where the encoded type should be read from.
+     * @param loader The {@link ClassLoader} used to load the classes.
+     * @param <E> The exception that might be thrown when reading.
+     * @return The canonical {@link ReifiedGeneric} instance that was decoded.
+     * @throws E If reading fails.
+     */
+    private <E extends Exception> ReifiedGeneric<?> decodeTop(ByteSource<E> in, ClassLoader loader) throws E {
+        int before = read.size();
+        boolean done = false;
+        try {
+            ReifiedGeneric<?> result = ReifiedGeneric.of(decode(in, loader, 0));
+            done = true;
+            return result;
+        } catch (MalformedParameterizedTypeException e) {
+            throw MalformedReifiedGenericException.illDefined(e);
+        } finally {
+            if (!done && dictionary) read.subList(before, read.size()).clear();
+        }
+    }
+
+    @SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.CognitiveComplexity"})
+    private <E extends Exception> Type decode(ByteSource<E> in, ClassLoader loader, int depth) throws E {
+        if (depth > MAX_DEPTH) throw malformed("Type nested too deeply");
+        int header = readVarint(in);
+        int kind = header & 7;
+        int payload = header >>> 3;
+        switch (kind) {
+            case CLASS_NEW:
+                return decodeName(in, loader, payload);
+            case CLASS_REF:
+                if (payload >= read.size()) throw malformed("Unknown class reference " + payload);
+                return read.get(payload);
+            case PRIMITIVE:
+                if (payload >= PRIMITIVES.length) throw malformed("Unknown primitive type " + payload);
+                return PRIMITIVES[payload];
+            case ARRAY: {
+                if (payload == 0 || payload > MAX_DEPTH) throw malformed("Bad array dimension count " + payload);
+                Type component = decode(in, loader, depth + 1);
+                for (int i = 0; i < payload; i++) {
+                    component = TypeRelations.arrayOf(component);
+                }
+                return component;
+            }
+            case PARAMETERIZED:
+            case OWNED: {
+                Type owner = kind == OWNED ? decode(in, loader, depth + 1) : null;
+                Type raw = decode(in, loader, depth + 1);
+                if (!(raw instanceof Class<?>) || ((Class<?>) raw).isPrimitive() || ((Class<?>) raw).isArray()) {
+                    throw malformed("Parameterized type without a raw class");
+                }
+                if (payload != ((Class<?>) raw).getTypeParameters().length) throw new MalformedParameterizedTypeException();
+                Type[] args = new Type[payload];
+                for (int i = 0; i < payload; i++) {
+                    args[i] = decode(in, loader, depth + 1);
+                }
+                return MyParameterizedType.of((Class<?>) raw, args, owner);
+            }
+            default: {
+                if (payload > MAX_DEPTH) throw malformed("Bad wildcard bound count " + payload);
+                Type[] bounds = new Type[payload];
+                for (int i = 0; i < payload; i++) {
+                    bounds[i] = decode(in, loader, depth + 1);
+                }
+                return kind == SUPER ? new MyWildcardType(new Type[0], bounds) : new MyWildcardType(bounds, new Type[0]);
+            }
+        }
+    }
+
+    private <E extends Exception> Class<?> decodeName(ByteSource<E> in, ClassLoader loader, int length) throws E {
+        if (length == 0 || length > MAX_NAME_LENGTH) throw malformed("Bad class name length " + length);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            int c = readVarint(in);
+            if (c > Character.MAX_VALUE) throw malformed("Bad character in class name");
+            chars[i] = (char) c;
+        }
+        Class<?> type = TypeParser.forName(new String(chars), loader);
+        if (dictionary) read.add(type);
+        return type;
+    }
+
+    private static <E extends Exception> int readVarint(ByteSource<E> in) throws E {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) break;
+                return value;
+            }
+        }
+        throw malformed("Bad varint");
+    }
+
+    private static IllegalArgumentException malformed(String what) {
+        return new IllegalArgumentException(what + " in encoded type.");
+    }
+
+    @FunctionalInterface
+    private interface ByteSink<E extends Exception> {
+        void put(byte[] bytes) throws E;
+    }
+
+    @FunctionalInterface
+    private interface ByteSource<E extends Exception> {
+        int get() throws E;
+    }
+}
@@ -0,0 +1,263 @@
+package ninja.javahacker.reifiedgeneric;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.BitSet;
+import lombok.NonNull;
+
+/**
+ * Maps {@link ReifiedGeneric} keys to handlers, finding for any given type the handler of the most specific registered
+ * type that is {@linkplain ReifiedGeneric#isAssignableFrom(ReifiedGeneric) assignable from} it, the same way that the
+ * most specific overload of a method is chosen.
+ *
+ * <pre>
+ * TypeDispatcher&lt;Serializer&lt;?&gt;&gt; serializers = new TypeDispatcher&lt;&gt;();
+ * serializers.register(new Token&lt;Collection&lt;?&gt;&gt;() {}.getReified(), collectionSerializer);
+ * serializers.register(new Token&lt;List&lt;String&gt;&gt;() {}.getReified(), stringListSerializer);
+ * serializers.dispatch(new Token&lt;ArrayList&lt;String&gt;&gt;() {}.getReified()); // stringListSerializer
+ * serializers.dispatch(new Token&lt;Set&lt;Integer&gt;&gt;() {}.getReified()); // collectionSerializer
+ * </pre>
+ *
+ * <p>The registered types are kept sorted from the most specific to the least specific one and, for each of them, the
+ * set of registered types that are more general than it is precomputed. Registering a new type compares it only once
+ * against each already registered type to find its place in that order, and removing a type needs no comparison at
+ * all. So, finding the most specific type for a type never seen before is a single pass over the registered types,
+ * stopping at the first that accepts it and then just confirming that no other unrelated one also does. Each answer is then
+ * cached in a table indexed by the {@linkplain ReifiedGeneric#id() id} of the given type, so dispatching the same type
+ * again is just an array access. That cache is cleared whenever some type is registered or removed. It starts small and
+ * grows only to fit the ids actually dispatched, and it refers only weakly to the dispatched types, so it never keeps
+ * them (nor their ids and class loaders) alive.</p>
+ *
+ * <p>Instances are thread-safe. Dispatching never locks, while registering and removing types are serialized.</p>
+ *
+ * @param <H> The type of the handlers.
+ * @author Victor Williams Stafusa da Silva
+ */
+public final class TypeDispatcher<H> {
+
+    private volatile State<H> state;
+
+    /**
+     * Creates an empty instance.
+     */
+    public TypeDispatcher() {
+        this.state = State.empty();
+    }
+
+    /**
+     * Registers a handler for the given type, replacing the one previously registered for it, if any.
+     * @param type The type to be handled.
+     * @param handler The handler.
+     * @return The handler previously registered for the given type, or {@code null} if there was none.
+     * @throws IllegalArgumentException If any parameter is {@code null}.
+     */
+    public synchronized H register(@NonNull ReifiedGeneric<?> type, @NonNull H handler) {
+        State<H> current = state;
+        Registration<H> added = new Registration<>(type, handler);
+        int index = current.indexOf(type);
+        if (index < 0) {
+            state = current.inserted(added);
+            return null;
+        }
+        state = current.replaced(index, added);
+        return current.registrations[index].handler;
+    }
+
+    /**
+     * Removes the handler registered for the given type, if any.
+     * @param type The type whose handler should be removed.
+     * @return The removed handler, or {@code null} if there was none.
+     * @throws IllegalArgumentException If {@code type} is {@code null}.
+     */
+    public synchronized H remove(@NonNull ReifiedGeneric<?> type) {
+        State<H> current = state;
+        int index = current.indexOf(type);
+        if (index < 0) return null;
+        state = current.removed(index);
+        return current.registrations[index].handler;
+    }
+
+    /**
+     * Gives the number of registered types.
+     * @return The number of registered types.
+     */
+    public int size() {
+        return state.registrations.length;
+    }
+
+    /**
+     * Finds the handler of the most specific registered type that is assignable from the given type.
+     * @param type The type to be handled.
+     * @return The handler of the most specific registered type that is assignable from {@code type}, or {@code null} if
+     *     no registered type is.
+     * @throws IllegalArgumentException If {@code type} is {@code null} or if there are several registered types that are
+     *     assignable from it, but none of them is more specific than all the others.
+     */
+    public H dispatch(@NonNull ReifiedGeneric<?> type) {
+        State<H> current = state;
+        int id = type.id();
+        Object[] cache = current.cache;
+        Resolution<H> found = id < cache.length ? cast(cache[id]) : null;
+        if (found == null || found.get() != type) {
+            found = current.resolve(type);
+            if (id >= cache.length) cache = current.grow(id);
+            cache[id] = found;
+        }
+        if (found.ambiguity != null) throw new IllegalArgumentException(found.ambiguity);
+        return found.handler;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <H> Resolution<H> cast(Object resolution) {
+        return (Resolution<H>) resolution;
+    }
+
+    private static final class Registration<H> {
+        private final ReifiedGeneric<?> type;
+        private final H handler;
+
+        private Registration(ReifiedGeneric<?> type, H handler) {
+            this.type = type;
+            this.handler = handler;
+        }
+    }
+
+    private static final class Resolution<H> extends WeakReference<ReifiedGeneric<?>> {
+        private final H handler;
+        private final String ambiguity;
+
+        private Resolution(ReifiedGeneric<?> type, H handler, String ambiguity) {
+            super(type);
+            this.handler = handler;
+            this.ambiguity = ambiguity;
+        }
+    }
+
+    /**
+     * The registered types, sorted from the most specific to the least specific, with the precomputed specificity
+     * relation among them and the cache of the answers given so far.
+     * @param <H> The type of the handlers.
+     */
+    private static final class State<H> {
+        private final Registration<H>[] registrations;
+        private final BitSet[] generals;
+        private volatile Object[] cache;
+
+        private State(Registration<H>[] registrations, BitSet[] generals) {
+            this.registrations = registrations;
+            this.generals = generals;
+            this.cache = new Object[16];
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static <H> State<H> empty() {
+            return new State<>(new Registration[0], new BitSet[0]);
+        }
+
+        private int indexOf(ReifiedGeneric<?> type) {
+            for (int i = 0; i < registrations.length; i++) {
+                if (registrations[i].type == type) return i;
+            }
+            return -1;
+        }
+
+        private State<H> replaced(int index, Registration<H> registration) {
+            Registration<H>[] all = registrations.clone();
+            all[index] = registration;
+            return new State<>(all, generals);
+        }
+
+        /**
+         * Gives the state with a new type, placed right after the last registered type that is more specific than it.
+         * Since the order is topological, no registered type that is more general than the new one comes before that.
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private State<H> inserted(Registration<H> added) {
+            int n = registrations.length;
+            BitSet moreGeneral = new BitSet(n);
+            BitSet moreSpecific = new BitSet(n);
+            int position = 0;
+            for (int i = 0; i < n; i++) {
+                ReifiedGeneric<?> other = registrations[i].type;
+                if (other.isAssignableFrom(added.type)) moreGeneral.set(i);
+                if (added.type.isAssignableFrom(other)) {
+                    moreSpecific.set(i);
+                    position = i + 1;
+                }
+            }
+
+            Registration<H>[] all = new Registration[n + 1];
+            BitSet[] allGenerals = new BitSet[n + 1];
+            for (int i = 0; i < n; i++) {
+                int to = i < position ? i : i + 1;
+                all[to] = registrations[i];
+                allGenerals[to] = opened(generals[i], position);
+                if (moreSpecific.get(i) && i < position) allGenerals[to].set(position);
+            }
+            all[position] = added;
+            BitSet mine = opened(moreGeneral, position);
+            mine.clear(0, position + 1);
+            allGenerals[position] = mine;
+            return new State<>(all, allGenerals);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private State<H> removed(int index) {
+            int n = registrations.length - 1;
+            Registration<H>[] all = new Registration[n];
+            BitSet[] allGenerals = new BitSet[n];
+            for (int i = 0; i < n; i++) {
+                int from = i < index ? i : i + 1;
+                all[i] = registrations[from];
+                allGenerals[i] = closed(generals[from], index);
+            }
+            return new State<>(all, allGenerals);
+        }
+
+        /**
+         * Gives a copy of the given bits with a gap opened at the given index, i.e., with every bit from there on moved one
+         * position up.
+         */
+        private static BitSet opened(BitSet bits, int index) {
+            BitSet result = bits.get(0, index);
+            for (int i = bits.nextSetBit(index); i >= 0; i = bits.nextSetBit(i + 1)) {
+                result.set(i + 1);
+            }
+            return result;
+        }
+
+        /**
+         * Gives a copy of the given bits without the one at the given index, i.e., with every bit after it moved one
+         * position down.
+         */
+        private static BitSet closed(BitSet bits, int index) {
+            BitSet result = bits.get(0, index);
+            for (int i = bits.nextSetBit(index + 1); i >= 0; i = bits.nextSetBit(i + 1)) {
+                result.set(i - 1);
+            }
+            return result;
+        }
+
+        private Object[] grow(int id) {
+            Object[] old = cache;
+            if (id < old.length) return old;
+            Object[] grown = Arrays.copyOf(old, Math.max(id + 1, old.length * 2));
+            cache = grown;
+            return grown;
+        }
+
+        private Resolution<H> resolve(ReifiedGeneric<?> type) {
+            int best = -1;
+            for (int i = 0; i < registrations.length; i++) {
+                if (best >= 0 && generals[best].get(i)) continue;
+                if (!registrations[i].type.isAssignableFrom(type)) continue;
+                if (best >= 0) {
+                    return new Resolution<>(type, null, "Both " + registrations[best].type + " and " + registrations[i].type
+                            + " are assignable from " + type + ", but none of them is more specific than the other.");
+                }
+                best = i;
+            }
+            return new Resolution<>(type, best < 0 ? null : registrations[best].handler, null);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package ninja.javahacker.reifiedgeneric;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.NonNull;
+import lombok.experimental.PackagePrivate;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Allocates the dense integer ids given by {@link ReifiedGeneric#id()}.
+ *
+ * <p>Fresh ids are taken from a single atomic counter, so allocating one is a single uncontended CAS most of the time,
+ * and that happens only once per instance anyway. Each {@link ReifiedGeneric} with an id is tracked by a weak reference.
+ * Once it is collected, its id goes back to a free list to be reused, keeping the ids dense. Depending on the class
+ * loaders of its classes, a canonical instance is collected either once it is no longer used or only after those classes
+ * are unloaded (see {@link Interner}), so the same type might get different ids over time.</p>
+ *
+ * @author Victor Williams Stafusa da Silva
+ */
+@PackagePrivate
+@UtilityClass
+class TypeIds {
+
+    private static final AtomicInteger NEXT = new AtomicInteger();
+
+    private static final ConcurrentLinkedQueue<Integer> FREE = new ConcurrentLinkedQueue<>();
+
+    private static final ConcurrentMap<Integer, IdReference> LIVE = new ConcurrentHashMap<>(64);
+
+    private static final ReferenceQueue<ReifiedGeneric<?>> QUEUE = new ReferenceQueue<>();
+
+    /**
+     * Allocates an id, preferring the reclaimed ones.
+     * @return The allocated id.
+     * @throws IllegalStateException If there are no more ids available.
+     */
+    @PackagePrivate
+    static int allocate() {
+        expunge();
+        Integer reclaimed = FREE.poll();
+        if (reclaimed != null) return reclaimed;
+        int fresh = NEXT.getAndIncrement();
+        if (fresh < 0) throw new IllegalStateException("Type ids exhausted.");
+        return fresh;
+    }
+
+    /**
+     * Gives back an id that was allocated but ended up unused.
+     * @param id The unused id.
+     */
+    @PackagePrivate
+    static void release(int id) {
+        FREE.add(id);
+    }
+
+    /**
+     * Records that the given instance owns the given id, so the id can be reclaimed once the instance is collected.
+     * @param type The instance that owns the id.
+     * @param id The id.
+     */
+    @PackagePrivate
+    static void track(@NonNull ReifiedGeneric<?> type, int id) {
+        LIVE.put(id, new IdReference(type, id));
+    }
+
+    /**
+     * Finds the instance that owns the given id.
+     * @param id The id.
+     * @return The instance that owns the given id, or {@code null} if there is none.
+     */
+    @PackagePrivate
+    static ReifiedGeneric<?> byId(int id) {
+        IdReference ref = LIVE.get(id);
+        return ref == null ? null : ref.get();
+    }
+
+    /**
+     * Gives an upper bound (exclusive) to every id allocated so far.
+     * @return An upper bound to every id allocated so far.
+     */
+    @PackagePrivate
+    static int bound() {
+        return NEXT.get();
+    }
+
+    private static void expunge() {
+        for (Reference<?> r = QUEUE.poll(); r != null; r = QUEUE.poll()) {
+            IdReference dead = (IdReference) r;
+            if (LIVE.remove(dead.id, dead)) FREE.add(dead.id);
+        }
+    }
+
+    private static final class IdReference extends WeakReference<ReifiedGeneric<?>> {
+        private final int id;
+
+        private IdReference(ReifiedGeneric<?> value, int id) {
+            super(value, QUEUE);
+            this.id = id;
+        }
+    }
+}
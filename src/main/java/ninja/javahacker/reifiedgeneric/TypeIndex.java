@@ -0,0 +1,234 @@
+package ninja.javahacker.reifiedgeneric;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.module.ModuleReader;
+import java.lang.module.ResolvedModule;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.MalformedParameterizedTypeException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.NonNull;
+
+/**
+ * An index of the types of the fields, method return types and method and constructor parameters declared in a set of
+ * classes, grouped by their canonical {@link ReifiedGeneric} instances.
+ *
+ * <pre>
+ * TypeIndex index = TypeIndex.of(someClasses);
+ * List&lt;AnnotatedElement&gt; suppliers = index.assignableTo(new Token&lt;Supplier&lt;Foo&gt;&gt;() {}.getReified());
+ * </pre>
+ *
+ * <p>The index is built in parallel in the common {@link ForkJoinPool}: the classes are split into chunks that are
+ * scanned independently and then merged, so building it scales with the number of cores. Member types that can't be
+ * reified (bare type variables, wildcards and generic arrays) are silently skipped, using the non-throwing
+ * {@link ReifiedGeneric#tryOf(Type)}. Classes whose members can't be inspected (e.g. due to missing dependencies) are
+ * skipped too.</p>
+ *
+ * <p>Instances are immutable and thread-safe. The results of the queries are cached.</p>
+ *
+ * @author Victor Williams Stafusa da Silva
+ */
+public final class TypeIndex {
+
+    private static final int CHUNK = 32;
+
+    private final Map<ReifiedGeneric<?>, List<AnnotatedElement>> members;
+
+    private final ConcurrentMap<ReifiedGeneric<?>, List<AnnotatedElement>> assignable;
+
+    private TypeIndex(Map<ReifiedGeneric<?>, List<AnnotatedElement>> members) {
+        this.members = members;
+        this.assignable = new ConcurrentHashMap<>(16);
+    }
+
+    /**
+     * Builds an index of the member types declared in the given classes.
+     * @param classes The classes whose members should be indexed. Duplicates are indexed only once.
+     * @return The built index.
+     * @throws IllegalArgumentException If {@code classes} is {@code null} or contains {@code null}.
+     */
+    @NonNull
+    public static TypeIndex of(@NonNull Collection<? extends Class<?>> classes) {
+        Class<?>[] array = new LinkedHashSet<>(classes).toArray(new Class<?>[0]);
+        for (Class<?> c : array) {
+            if (c == null) throw new IllegalArgumentException("The classes can't contain null.");
+        }
+        Map<ReifiedGeneric<?>, List<AnnotatedElement>> found = ForkJoinPool.commonPool().invoke(new Scan(array, 0, array.length));
+        Map<ReifiedGeneric<?>, List<AnnotatedElement>> frozen = new LinkedHashMap<>(found.size() * 2);
+        found.forEach((k, v) -> frozen.put(k, List.copyOf(v)));
+        return new TypeIndex(frozen);
+    }
+
+    /**
+     * Builds an index of the member types declared in all the classes of the given named module.
+     * @param module The module whose classes should be indexed.
+     * @return The built index.
+     * @throws IllegalArgumentException If {@code module} is {@code null} or is not a named module in some layer.
+     * @throws UncheckedIOException If the contents of the module couldn't be read.
+     */
+    @NonNull
+    public static TypeIndex of(@NonNull Module module) {
+        ModuleLayer layer = module.getLayer();
+        ResolvedModule resolved = !module.isNamed() || layer == null
+                ? null
+                : layer.configuration().findModule(module.getName()).orElse(null);
+        if (resolved == null) throw new IllegalArgumentException("The module " + module + " is not a named module in a layer.");
+
+        List<String> names;
+        try (ModuleReader reader = resolved.reference().open()) {
+            try (Stream<String> s = reader.list()) {
+                names = s.filter(n -> n.endsWith(".class") && !n.endsWith("module-info.class") && !n.contains("-"))
+                        .map(n -> n.substring(0, n.length() - 6).replace('/', '.'))
+                        .collect(Collectors.toList());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<Class<?>> classes = new ArrayList<>(names.size());
+        for (String name : names) {
+            try {
+                Class<?> c = Class.forName(module, name);
+                if (c != null) classes.add(c);
+            } catch (LinkageError e) {
+                // Skips classes that can't be loaded.
+            }
+        }
+        return of(classes);
+    }
+
+    /**
+     * Gives all the distinct types found in the index.
+     * @return All the distinct types found in the index.
+     */
+    @NonNull
+    public Set<ReifiedGeneric<?>> types() {
+        return Set.copyOf(members.keySet());
+    }
+
+    /**
+     * Gives the members (i.e. {@link Field}s, {@link Method}s by their return types and {@link Parameter}s) whose
+     * declared type is exactly the given one.
+     * @param type The type to be looked for.
+     * @return The members whose declared type is exactly the given one, in the order they were scanned.
+     * @throws IllegalArgumentException If {@code type} is {@code null}.
+     */
+    @NonNull
+    public List<AnnotatedElement> ofType(@NonNull ReifiedGeneric<?> type) {
+        return members.getOrDefault(type, List.of());
+    }
+
+    /**
+     * Gives the members (i.e. {@link Field}s, {@link Method}s by their return types and {@link Parameter}s) whose
+     * declared type is assignable to the given one, taking type arguments into account.
+     * @param type The type to which the member types should be assignable.
+     * @return The members whose declared type is assignable to the given one.
+     * @throws IllegalArgumentException If {@code type} is {@code null}.
+     * @see ReifiedGeneric#isAssignableFrom(ReifiedGeneric)
+     */
+    @NonNull
+    public List<AnnotatedElement> assignableTo(@NonNull ReifiedGeneric<?> type) {
+        List<AnnotatedElement> found = assignable.get(type);
+        if (found != null) return found;
+        List<AnnotatedElement> result = new ArrayList<>();
+        members.forEach((k, v) -> {
+            if (type.isAssignableFrom(k)) result.addAll(v);
+        });
+        List<AnnotatedElement> frozen = List.copyOf(result);
+        List<AnnotatedElement> raced = assignable.putIfAbsent(type, frozen);
+        return raced == null ? frozen : raced;
+    }
+
+    /**
+     * Gives the number of distinct types in this index.
+     * @return The number of distinct types in this index.
+     */
+    public int size() {
+        return members.size();
+    }
+
+    private static final class Scan extends RecursiveTask<Map<ReifiedGeneric<?>, List<AnnotatedElement>>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Class<?>[] classes;
+        private final int from;
+        private final int to;
+
+        private Scan(Class<?>[] classes, int from, int to) {
+            this.classes = classes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<ReifiedGeneric<?>, List<AnnotatedElement>> compute() {
+            if (to - from <= CHUNK) {
+                Map<ReifiedGeneric<?>, List<AnnotatedElement>> found = new HashMap<>(64);
+                for (int i = from; i < to; i++) {
+                    scan(classes[i], found);
+                }
+                return found;
+            }
+            int middle = (from + to) >>> 1;
+            Scan left = new Scan(classes, from, middle);
+            left.fork();
+            Map<ReifiedGeneric<?>, List<AnnotatedElement>> right = new Scan(classes, middle, to).compute();
+            Map<ReifiedGeneric<?>, List<AnnotatedElement>> merged = left.join();
+            right.forEach((k, v) -> merged.computeIfAbsent(k, x -> new ArrayList<>(v.size())).addAll(v));
+            return merged;
+        }
+
+        private static void scan(Class<?> type, Map<ReifiedGeneric<?>, List<AnnotatedElement>> found) {
+            // The members are only merged once the whole class was inspected, so a failure never leaves it half-indexed.
+            List<Map.Entry<ReifiedGeneric<?>, AnnotatedElement>> entries = new ArrayList<>(16);
+            try {
+                for (Field f : type.getDeclaredFields()) {
+                    if (!f.isSynthetic()) add(f.getGenericType(), f, entries);
+                }
+                for (Method m : type.getDeclaredMethods()) {
+                    if (m.isSynthetic() || m.isBridge()) continue;
+                    if (m.getReturnType() != void.class) add(m.getGenericReturnType(), m, entries);
+                    parameters(m, entries);
+                }
+                for (Executable c : type.getDeclaredConstructors()) {
+                    if (!c.isSynthetic()) parameters(c, entries);
+                }
+            } catch (LinkageError | TypeNotPresentException | MalformedParameterizedTypeException | SecurityException e) {
+                // Skips classes whose members can't be inspected.
+                return;
+            }
+            for (Map.Entry<ReifiedGeneric<?>, AnnotatedElement> e : entries) {
+                found.computeIfAbsent(e.getKey(), x -> new ArrayList<>(2)).add(e.getValue());
+            }
+        }
+
+        private static void parameters(Executable e, List<Map.Entry<ReifiedGeneric<?>, AnnotatedElement>> entries) {
+            for (Parameter p : e.getParameters()) {
+                if (!p.isSynthetic()) add(p.getParameterizedType(), p, entries);
+            }
+        }
+
+        private static void add(Type type, AnnotatedElement member, List<Map.Entry<ReifiedGeneric<?>, AnnotatedElement>> entries) {
+            ReificationResult r = ReifiedGeneric.tryOf(type);
+            if (r.isSuccess()) entries.add(Map.entry(r.get(), member));
+        }
+    }
+}
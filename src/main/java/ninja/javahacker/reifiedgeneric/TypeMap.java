@@ -0,0 +1,386 @@
+package ninja.javahacker.reifiedgeneric;
+
+import java.lang.invoke.MethodType;
+import java.util.StringJoiner;
+import java.util.function.BiConsumer;
+import lombok.NonNull;
+
+/**
+ * An immutable type-safe heterogeneous container, mapping {@link ReifiedGeneric} keys to values of the corresponding
+ * types.
+ *
+ * <pre>
+ * ReifiedGeneric&lt;List&lt;String&gt;&gt; names = new Token&lt;List&lt;String&gt;&gt;() {}.getReified();
+ * TypeMap context = TypeMap.empty().with(names, List.of("a", "b")).with(ReifiedGeneric.of(Integer.class), 42);
+ * List&lt;String&gt; x = context.get(names);
+ * </pre>
+ *
+ * <p>Instances are persistent hash array mapped tries. Adding or removing a key gives a new instance that shares almost
+ * all of its structure with the original one, copying only the O(log n) nodes in the path to the changed key. Since
+ * instances are never modified, readers never lock and a writer just publishes the new version, e.g. through a volatile
+ * field or an {@link java.util.concurrent.atomic.AtomicReference}.</p>
+ *
+ * @author Victor Williams Stafusa da Silva
+ */
+public final class TypeMap {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final TypeMap EMPTY = new TypeMap(null, 0);
+
+    private final Trie root;
+    private final int size;
+
+    private TypeMap(Trie root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Gives the empty {@code TypeMap}.
+     * @return The empty {@code TypeMap}.
+     */
+    @NonNull
+    public static TypeMap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Gives the value mapped to the given key.
+     * @param <T> The type of the value.
+     * @param key The key whose value is wanted.
+     * @return The value mapped to the given key, or {@code null} if there is none.
+     * @throws IllegalArgumentException If {@code key} is {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NonNull ReifiedGeneric<T> key) {
+        return root == null ? null : (T) root.find(key, hash(key), 0);
+    }
+
+    /**
+     * Tells if there is some value mapped to the given key.
+     * @param key The key to be checked.
+     * @return {@code true} if there is some value mapped to the given key, {@code false} otherwise.
+     * @throws IllegalArgumentException If {@code key} is {@code null}.
+     */
+    public boolean containsKey(@NonNull ReifiedGeneric<?> key) {
+        return root != null && root.find(key, hash(key), 0) != null;
+    }
+
+    /**
+     * Gives a {@code TypeMap} like this one, but with the given value mapped to the given key.
+     * @param <T> The type of the value.
+     * @param key The key to be mapped.
+     * @param value The value to be mapped.
+     * @return A {@code TypeMap} like this one, but with the given value mapped to the given key. If this one already maps
+     *     the key to the very same value, gives {@code this}.
+     * @throws IllegalArgumentException If {@code key} or {@code value} are {@code null}.
+     * @throws ClassCastException If {@code value} is not an instance of {@code key}'s {@linkplain ReifiedGeneric#asClass()
+     *     class}.
+     */
+    @NonNull
+    public <T> TypeMap with(@NonNull ReifiedGeneric<T> key, @NonNull T value) {
+        Class<?> type = key.asClass();
+        Class<?> boxed = type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+        if (!boxed.isInstance(value)) {
+            throw new ClassCastException("Can't map " + value.getClass().getName() + " to " + key.getType().getTypeName() + ".");
+        }
+        int h = hash(key);
+        if (root == null) return new TypeMap(new Entry(key, value, h), 1);
+        Object old = root.find(key, h, 0);
+        if (old == value) return this;
+        return new TypeMap(root.put(new Entry(key, value, h), 0), old == null ? size + 1 : size);
+    }
+
+    /**
+     * Gives a {@code TypeMap} like this one, but without the given key.
+     * @param key The key to be unmapped.
+     * @return A {@code TypeMap} like this one, but without the given key. If this one doesn't have the key, gives
+     *     {@code this}.
+     * @throws IllegalArgumentException If {@code key} is {@code null}.
+     */
+    @NonNull
+    public TypeMap without(@NonNull ReifiedGeneric<?> key) {
+        if (root == null) return this;
+        Trie changed = root.remove(key, hash(key), 0);
+        if (changed == root) return this;
+        return changed == null ? EMPTY : new TypeMap(changed, size - 1);
+    }
+
+    /**
+     * Gives the number of keys in this {@code TypeMap}.
+     * @return The number of keys in this {@code TypeMap}.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Tells if this {@code TypeMap} is empty.
+     * @return {@code true} if this {@code TypeMap} has no keys, {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Feeds every key and its value to the given action, in no particular order.
+     * @param action The action to be performed.
+     * @throws IllegalArgumentException If {@code action} is {@code null}.
+     */
+    public void forEach(@NonNull BiConsumer<? super ReifiedGeneric<?>, Object> action) {
+        if (root != null) root.forEach(action);
+    }
+
+    /**
+     * Tells if {@code other} is a {@code TypeMap} with the same keys mapped to equal values.
+     * @param other The object to be compared to this.
+     * @return {@code true} if {@code other} is a {@code TypeMap} with the same mappings, {@code false} otherwise.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) return true;
+        if (!(other instanceof TypeMap)) return false;
+        TypeMap that = (TypeMap) other;
+        if (this.size != that.size) return false;
+        boolean[] same = {true};
+        forEach((k, v) -> same[0] &= v.equals(that.get(k)));
+        return same[0];
+    }
+
+    /**
+     * Gives a hash code for this {@code TypeMap}, computed the same way as {@link java.util.Map#hashCode()}.
+     * @return A hash code for this {@code TypeMap}.
+     */
+    @Override
+    public int hashCode() {
+        int[] h = {0};
+        forEach((k, v) -> h[0] += k.hashCode() ^ v.hashCode());
+        return h[0];
+    }
+
+    /**
+     * Gives a string representation of this {@code TypeMap}.
+     * @return A string representation of this {@code TypeMap}.
+     */
+    @Override
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ", "TypeMap{", "}");
+        forEach((k, v) -> sj.add(k.getType().getTypeName() + "=" + v));
+        return sj.toString();
+    }
+
+    private static int hash(ReifiedGeneric<?> key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int index(int hash, int shift) {
+        return (hash >>> shift) & MASK;
+    }
+
+    /**
+     * A node of the trie. Every operation gives a new node, leaving the original untouched.
+     */
+    private abstract static class Trie {
+        abstract Object find(ReifiedGeneric<?> key, int hash, int shift);
+
+        abstract Trie put(Entry entry, int shift);
+
+        abstract Trie remove(ReifiedGeneric<?> key, int hash, int shift);
+
+        abstract void forEach(BiConsumer<? super ReifiedGeneric<?>, Object> action);
+    }
+
+    /**
+     * A node that holds keys with a single hash, i.e. a single {@link Entry} or a {@link Collision}.
+     */
+    private abstract static class Leaf extends Trie {
+        abstract int hash();
+
+        /**
+         * Puts an entry with a different hash together with this leaf, in new branches deep enough to tell them apart.
+         * @param entry The entry to be put together with this leaf.
+         * @param shift The shift of the level where this leaf was.
+         * @return A branch with both this leaf and the entry.
+         */
+        Trie merge(Entry entry, int shift) {
+            int a = index(hash(), shift);
+            int b = index(entry.hash, shift);
+            if (a == b) return new Branch(1 << a, new Trie[] {merge(entry, shift + BITS)});
+            return new Branch((1 << a) | (1 << b), a < b ? new Trie[] {this, entry} : new Trie[] {entry, this});
+        }
+    }
+
+    private static final class Entry extends Leaf {
+        private final ReifiedGeneric<?> key;
+        private final Object value;
+        private final int hash;
+
+        Entry(ReifiedGeneric<?> key, Object value, int hash) {
+            this.key = key;
+            this.value = value;
+            this.hash = hash;
+        }
+
+        @Override
+        int hash() {
+            return hash;
+        }
+
+        boolean matches(ReifiedGeneric<?> other, int otherHash) {
+            return hash == otherHash && key.equals(other);
+        }
+
+        @Override
+        Object find(ReifiedGeneric<?> other, int otherHash, int shift) {
+            return matches(other, otherHash) ? value : null;
+        }
+
+        @Override
+        Trie put(Entry entry, int shift) {
+            if (entry.matches(key, hash)) return entry;
+            if (entry.hash == hash) return new Collision(hash, new Entry[] {this, entry});
+            return merge(entry, shift);
+        }
+
+        @Override
+        Trie remove(ReifiedGeneric<?> other, int otherHash, int shift) {
+            return matches(other, otherHash) ? null : this;
+        }
+
+        @Override
+        void forEach(BiConsumer<? super ReifiedGeneric<?>, Object> action) {
+            action.accept(key, value);
+        }
+    }
+
+    private static final class Collision extends Leaf {
+        private final int hash;
+        private final Entry[] entries;
+
+        Collision(int hash, Entry[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+
+        @Override
+        int hash() {
+            return hash;
+        }
+
+        private int indexOf(ReifiedGeneric<?> key, int otherHash) {
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].matches(key, otherHash)) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(ReifiedGeneric<?> key, int otherHash, int shift) {
+            int i = indexOf(key, otherHash);
+            return i < 0 ? null : entries[i].value;
+        }
+
+        @Override
+        Trie put(Entry entry, int shift) {
+            if (entry.hash != hash) return merge(entry, shift);
+            int i = indexOf(entry.key, entry.hash);
+            Entry[] copy;
+            if (i < 0) {
+                copy = new Entry[entries.length + 1];
+                System.arraycopy(entries, 0, copy, 0, entries.length);
+                copy[entries.length] = entry;
+            } else {
+                copy = entries.clone();
+                copy[i] = entry;
+            }
+            return new Collision(hash, copy);
+        }
+
+        @Override
+        Trie remove(ReifiedGeneric<?> key, int otherHash, int shift) {
+            int i = indexOf(key, otherHash);
+            if (i < 0) return this;
+            if (entries.length == 2) return entries[1 - i];
+            Entry[] copy = new Entry[entries.length - 1];
+            System.arraycopy(entries, 0, copy, 0, i);
+            System.arraycopy(entries, i + 1, copy, i, copy.length - i);
+            return new Collision(hash, copy);
+        }
+
+        @Override
+        void forEach(BiConsumer<? super ReifiedGeneric<?>, Object> action) {
+            for (Entry e : entries) {
+                action.accept(e.key, e.value);
+            }
+        }
+    }
+
+    private static final class Branch extends Trie {
+        private final int bitmap;
+        private final Trie[] children;
+
+        Branch(int bitmap, Trie[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        private int slot(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(ReifiedGeneric<?> key, int hash, int shift) {
+            int bit = 1 << index(hash, shift);
+            if ((bitmap & bit) == 0) return null;
+            return children[slot(bit)].find(key, hash, shift + BITS);
+        }
+
+        @Override
+        Trie put(Entry entry, int shift) {
+            int bit = 1 << index(entry.hash, shift);
+            int i = slot(bit);
+            if ((bitmap & bit) == 0) {
+                Trie[] copy = new Trie[children.length + 1];
+                System.arraycopy(children, 0, copy, 0, i);
+                copy[i] = entry;
+                System.arraycopy(children, i, copy, i + 1, children.length - i);
+                return new Branch(bitmap | bit, copy);
+            }
+            Trie[] copy = children.clone();
+            copy[i] = children[i].put(entry, shift + BITS);
+            return new Branch(bitmap, copy);
+        }
+
+        @Override
+        Trie remove(ReifiedGeneric<?> key, int hash, int shift) {
+            int bit = 1 << index(hash, shift);
+            if ((bitmap & bit) == 0) return this;
+            int i = slot(bit);
+            Trie child = children[i];
+            Trie changed = child.remove(key, hash, shift + BITS);
+            if (changed == child) return this;
+            if (changed == null) {
+                if (children.length == 1) return null;
+                if (children.length == 2 && children[1 - i] instanceof Leaf) return children[1 - i];
+                Trie[] copy = new Trie[children.length - 1];
+                System.arraycopy(children, 0, copy, 0, i);
+                System.arraycopy(children, i + 1, copy, i, copy.length - i);
+                return new Branch(bitmap & ~bit, copy);
+            }
+            if (children.length == 1 && changed instanceof Leaf) return changed;
+            Trie[] copy = children.clone();
+            copy[i] = changed;
+            return new Branch(bitmap, copy);
+        }
+
+        @Override
+        void forEach(BiConsumer<? super ReifiedGeneric<?>, Object> action) {
+            for (Trie child : children) {
+                child.forEach(action);
+            }
+        }
+    }
+}
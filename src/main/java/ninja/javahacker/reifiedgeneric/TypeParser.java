@@ -0,0 +1,271 @@
+package ninja.javahacker.reifiedgeneric;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.MalformedParameterizedTypeException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.NonNull;
+import lombok.experimental.PackagePrivate;
+
+/**
+ * Parses type names, as given by {@link Type#getTypeName()}, back into {@link Type} instances.
+ *
+ * <p>The grammar accepted is the one produced by the {@code toString()} methods of {@link MyParameterizedType},
+ * {@link MyWildcardType} and {@link MyGenericArrayType}, and also by {@link Class#getTypeName()}. Type variables can't
+ * be parsed, since there is no way to know where they came from.</p>
+ *
+ * <p>The most recently parsed names are kept in a small direct-mapped cache. Its entries only hold weak references to
+ * both the class loader and the resulting (canonical) {@link ReifiedGeneric} instance, so it never pins anything.</p>
+ *
+ * @author Victor Williams Stafusa da Silva
+ */
+@PackagePrivate
+final class TypeParser {
+
+    private static final int CACHE_SIZE = 256;
+
+    private static final int MAX_DEPTH = 255;
+
+    private static final String PREFIX = "ReifiedGeneric<";
+
+    private static final CacheEntry[] CACHE = new CacheEntry[CACHE_SIZE];
+
+    private final CharSequence text;
+    private final ClassLoader loader;
+    private int pos;
+    private int depth;
+
+    private TypeParser(CharSequence text, ClassLoader loader) {
+        this.text = text;
+        this.loader = loader;
+    }
+
+    /**
+     * Parses the given type name into a {@link ReifiedGeneric}.
+     * @param text The type name to be parsed. It might also be wrapped as given by {@link ReifiedGeneric#toString()}.
+     * @param loader The class loader used to load the classes, or {@code null} for the bootstrap class loader.
+     * @return The canonical {@link ReifiedGeneric} instance represented by the given type name.
+     * @throws IllegalArgumentException If the type name is malformed, nested too deeply or refers to classes that couldn't
+     *     be loaded.
+     * @throws MalformedReifiedGenericException If the type name represents something that can't be reified.
+     */
+    @NonNull
+    @PackagePrivate
+    static ReifiedGeneric<?> parse(@NonNull CharSequence text, ClassLoader loader) {
+        int hash = hash(text, loader);
+        int slot = hash & (CACHE_SIZE - 1);
+        CacheEntry entry = CACHE[slot];
+        if (entry != null && entry.hash == hash && entry.loader.get() == loader && entry.text.contentEquals(text)) {
+            ReifiedGeneric<?> found = entry.value.get();
+            if (found != null) return found;
+        }
+
+        TypeParser p = new TypeParser(text, loader);
+        Type type;
+        try {
+            type = p.parseAll();
+        } catch (MalformedParameterizedTypeException e) {
+            throw MalformedReifiedGenericException.illDefined(e);
+        }
+        ReifiedGeneric<?> result = ReifiedGeneric.of(type);
+        CACHE[slot] = new CacheEntry(hash, text.toString(), loader, result);
+        return result;
+    }
+
+    private static int hash(CharSequence text, ClassLoader loader) {
+        int h = 0;
+        if (text instanceof String) {
+            h = text.hashCode();
+        } else {
+            for (int i = 0; i < text.length(); i++) {
+                h = 31 * h + text.charAt(i);
+            }
+        }
+        h ^= System.identityHashCode(loader);
+        return h ^ (h >>> 16);
+    }
+
+    private Type parseAll() {
+        int end = text.length();
+        if (startsWith(PREFIX) && end > PREFIX.length() && text.charAt(end - 1) == '>') {
+            pos = PREFIX.length();
+            end--;
+        }
+        skipSpaces();
+        Type t = peek('?') ? parseWildcard() : parseType();
+        skipSpaces();
+        if (pos != end) throw error("Unexpected trailing characters");
+        return t;
+    }
+
+    private Type parseType() {
+        skipSpaces();
+        Type t = parseNamed();
+        while (true) {
+            skipSpaces();
+            if (!startsWith("[]")) return t;
+            pos += 2;
+            t = TypeRelations.arrayOf(t);
+        }
+    }
+
+    private Type parseNamed() {
+        String name = readName();
+        Class<?> raw = load(name);
+        skipSpaces();
+        if (!peek('<')) return raw;
+        ParameterizedType t = MyParameterizedType.of(raw, parseArguments(), null);
+        while (peek('$')) {
+            pos++;
+            String segment = readName();
+
+            // Intermediate owners without type arguments are all in the same segment, as in Outer<String>$Mid$Inner<Integer>.
+            int start = 0;
+            for (int dollar = segment.indexOf('$'); dollar >= 0; dollar = segment.indexOf('$', start)) {
+                raw = load(raw.getName() + "$" + segment.substring(start, dollar));
+                t = MyParameterizedType.of(raw, new Type[0], t);
+                start = dollar + 1;
+            }
+            Class<?> inner = load(raw.getName() + "$" + segment.substring(start));
+            skipSpaces();
+            Type[] args = peek('<') ? parseArguments() : new Type[0];
+            t = MyParameterizedType.of(inner, args, t);
+            raw = inner;
+        }
+        return t;
+    }
+
+    private Type[] parseArguments() {
+        if (++depth > MAX_DEPTH) throw error("Type nested too deeply");
+        pos++; // Skips the '<'.
+        List<Type> args = new ArrayList<>(4);
+        while (true) {
+            skipSpaces();
+            args.add(peek('?') ? parseWildcard() : parseType());
+            skipSpaces();
+            if (peek('>')) {
+                pos++;
+                depth--;
+                return args.toArray(new Type[0]);
+            }
+            if (!peek(',')) throw error("Expected ',' or '>'");
+            pos++;
+        }
+    }
+
+    private Type parseWildcard() {
+        pos++; // Skips the '?'.
+        skipSpaces();
+        boolean upper;
+        if (startsWith("extends ")) {
+            upper = true;
+            pos += 8;
+        } else if (startsWith("super ")) {
+            upper = false;
+            pos += 6;
+        } else {
+            return new MyWildcardType(new Type[0], new Type[0]);
+        }
+        List<Type> bounds = new ArrayList<>(2);
+        while (true) {
+            bounds.add(parseType());
+            skipSpaces();
+            if (!peek('&')) break;
+            pos++;
+        }
+        Type[] b = bounds.toArray(new Type[0]);
+        return upper ? new MyWildcardType(b, new Type[0]) : new MyWildcardType(new Type[0], b);
+    }
+
+    private String readName() {
+        skipSpaces();
+        int start = pos;
+        if (pos < text.length() && Character.isJavaIdentifierStart(text.charAt(pos))) {
+            pos++;
+            while (pos < text.length()) {
+                char c = text.charAt(pos);
+                if (c == '.' && pos + 1 < text.length() && Character.isJavaIdentifierStart(text.charAt(pos + 1))) {
+                    pos += 2;
+                } else if (Character.isJavaIdentifierPart(c)) {
+                    pos++;
+                } else {
+                    break;
+                }
+            }
+        }
+        if (start == pos) throw error("Expected a type name");
+        return text.subSequence(start, pos).toString();
+    }
+
+    private Class<?> load(String name) {
+        return forName(name, loader);
+    }
+
+    /**
+     * Loads a class by its name, including primitive ones.
+     * @param name The binary name of the class, or the name of a primitive type.
+     * @param loader The class loader used to load the class, or {@code null} for the bootstrap class loader.
+     * @return The loaded class.
+     * @throws IllegalArgumentException If the class couldn't be loaded.
+     */
+    @NonNull
+    @PackagePrivate
+    @SuppressWarnings("PMD.CyclomaticComplexity")
+    static Class<?> forName(@NonNull String name, ClassLoader loader) {
+        switch (name) {
+            case "boolean": return boolean.class;
+            case "byte": return byte.class;
+            case "char": return char.class;
+            case "short": return short.class;
+            case "int": return int.class;
+            case "long": return long.class;
+            case "float": return float.class;
+            case "double": return double.class;
+            case "void": return void.class;
+            default:
+                try {
+                    return Class.forName(name, false, loader);
+                } catch (ClassNotFoundException | LinkageError e) {
+                    throw new IllegalArgumentException("The class " + name + " couldn't be loaded.", e);
+                }
+        }
+    }
+
+    private void skipSpaces() {
+        while (pos < text.length() && text.charAt(pos) == ' ') {
+            pos++;
+        }
+    }
+
+    private boolean peek(char c) {
+        return pos < text.length() && text.charAt(pos) == c;
+    }
+
+    private boolean startsWith(String s) {
+        if (pos + s.length() > text.length()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (text.charAt(pos + i) != s.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private IllegalArgumentException error(String what) {
+        return new IllegalArgumentException(what + " at position " + pos + " of \"" + text + "\".");
+    }
+
+    private static final class CacheEntry {
+        private final int hash;
+        private final String text;
+        private final WeakReference<ClassLoader> loader;
+        private final WeakReference<ReifiedGeneric<?>> value;
+
+        private CacheEntry(int hash, String text, ClassLoader loader, ReifiedGeneric<?> value) {
+            this.hash = hash;
+            this.text = text;
+            this.loader = new WeakReference<>(loader);
+            this.value = new WeakReference<>(value);
+        }
+    }
+}
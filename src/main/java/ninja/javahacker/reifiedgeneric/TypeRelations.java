@@ -0,0 +1,361 @@
+package ninja.javahacker.reifiedgeneric;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.NonNull;
+import lombok.experimental.PackagePrivate;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Implements the generic-aware subtyping rules over {@link Type} instances.
+ *
+ * <p>The rules are a simplification of those given in the JLS. Notably, capture conversion isn't performed and
+ * unchecked conversion isn't allowed, so a raw type is never considered a subtype of a parameterized one.</p>
+ *
+ * @author Victor Williams Stafusa da Silva
+ */
+@PackagePrivate
+@UtilityClass
+@SuppressFBWarnings("ITC_INHERITANCE_TYPE_CHECKING")
+class TypeRelations {
+
+    private static final int SLOTS = 1024;
+
+    /**
+     * Verdicts of the already answered {@link #isAssignable(ReifiedGeneric, ReifiedGeneric)} questions. They are stored
+     * alongside the anchor of both types for the same reasons that {@link Interner} does so.
+     *
+     * <p>Each anchor has a fixed-size direct-mapped table where each pair of types has a single slot, chosen by their
+     * hashes. A new verdict simply overwrites whatever was in its slot, so the table never grows but always keeps the
+     * most recently answered questions, which matters since every type made only of JDK classes shares the same anchor.
+     * The verdicts are immutable, so racing writers can't corrupt the table, at most one of them is lost.</p>
+     */
+    private static final ClassValue<Verdict[]> VERDICTS = new ClassValue<>() {
+        @Override
+        protected Verdict[] computeValue(Class<?> type) {
+            return new Verdict[SLOTS];
+        }
+    };
+
+    /**
+     * For each class, maps every raw supertype of it (including itself) to the generic form of that supertype, written in
+     * terms of the type variables of the class.
+     */
+    private static final ClassValue<Map<Class<?>, Type>> HIERARCHY = new ClassValue<>() {
+        @Override
+        protected Map<Class<?>, Type> computeValue(Class<?> type) {
+            return hierarchy(type);
+        }
+    };
+
+    /**
+     * Tells if the type held by {@code target} is assignable from the type held by {@code source}, caching the result.
+     * @param target The possible supertype.
+     * @param source The possible subtype.
+     * @return {@code true} if {@code source} is a subtype of {@code target} or if both are the same type, {@code false}
+     *     otherwise.
+     */
+    @PackagePrivate
+    static boolean isAssignable(@NonNull ReifiedGeneric<?> target, @NonNull ReifiedGeneric<?> source) {
+        if (target == source) return true;
+        Class<?> anchor = Interner.commonAnchor(target.anchor(), source.anchor());
+        if (anchor == null) return isSubtype(source.getType(), target.getType());
+
+        Verdict[] table = VERDICTS.get(anchor);
+        int h = target.hashCode() * 31 + source.hashCode();
+        int slot = (h ^ (h >>> 16)) & (SLOTS - 1);
+        Verdict found = table[slot];
+        if (found != null && found.target == target && found.source == source) return found.assignable;
+
+        boolean verdict = isSubtype(source.getType(), target.getType());
+        table[slot] = new Verdict(target, source, verdict);
+        return verdict;
+    }
+
+    /**
+     * Finds the supertype of {@code type} which have the given raw type, substituting all the type variables found in the
+     * way.
+     * @param type The type whose supertype is wanted.
+     * @param target The raw type of the wanted supertype.
+     * @return The supertype of {@code type} which have {@code target} as its raw type, or {@code null} if there is no
+     *     such supertype. If {@code type} is a raw type, so is the result. This includes inner classes of raw types, even
+     *     if those inner classes aren't generic themselves.
+     */
+    @PackagePrivate
+    static Type supertype(@NonNull Type type, @NonNull Class<?> target) {
+        if (type instanceof Class<?>) {
+            Class<?> c = (Class<?>) type;
+            if (!target.isAssignableFrom(c)) return null;
+            if (c.isArray() || c.isPrimitive() || inGenericScope(c)) return target;
+            return HIERARCHY.get(c).get(target);
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType p = (ParameterizedType) type;
+            Class<?> raw = (Class<?>) p.getRawType();
+            if (raw == target) return p;
+            Type generic = HIERARCHY.get(raw).get(target);
+            return generic == null ? null : substitute(generic, p);
+        }
+        if (type instanceof GenericArrayType) {
+            return target == Object.class || target == Cloneable.class || target == Serializable.class ? target : null;
+        }
+        for (Type bound : upperBounds(type)) {
+            Type found = supertype(bound, target);
+            if (found != null) return found;
+        }
+        return null;
+    }
+
+    /**
+     * Tells if the type variables of the given class or of any class enclosing it are in scope inside of it. When such a
+     * class is seen as a raw type, its enclosing classes are raw too, so its members and supertypes must be erased.
+     * @param type The class to be checked.
+     * @return {@code true} if some type variable of the given class or of its enclosing classes is in scope.
+     */
+    @PackagePrivate
+    static boolean inGenericScope(@NonNull Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+            if (c.getTypeParameters().length != 0) return true;
+            if (Modifier.isStatic(c.getModifiers())) return false;
+        }
+        return false;
+    }
+
+    private static Map<Class<?>, Type> hierarchy(Class<?> type) {
+        Map<Class<?>, Type> table = new HashMap<>(16);
+        TypeVariable<?>[] formals = type.getTypeParameters();
+        table.put(type, formals.length == 0 ? type : MyParameterizedType.of(type, formals, null));
+        Type sup = type.getGenericSuperclass();
+        if (sup != null) inherit(table, sup);
+        for (Type itf : type.getGenericInterfaces()) {
+            inherit(table, itf);
+        }
+        table.putIfAbsent(Object.class, Object.class);
+        return Map.copyOf(table);
+    }
+
+    private static void inherit(Map<Class<?>, Type> table, Type sup) {
+        if (sup instanceof Class<?>) {
+            Class<?> c = (Class<?>) sup;
+            boolean raw = inGenericScope(c);
+            for (Map.Entry<Class<?>, Type> e : HIERARCHY.get(c).entrySet()) {
+                table.putIfAbsent(e.getKey(), raw ? e.getKey() : e.getValue());
+            }
+        } else {
+            ParameterizedType p = (ParameterizedType) sup;
+            Class<?> raw = (Class<?>) p.getRawType();
+            for (Map.Entry<Class<?>, Type> e : HIERARCHY.get(raw).entrySet()) {
+                table.putIfAbsent(e.getKey(), e.getKey() == raw ? p : substitute(e.getValue(), p));
+            }
+        }
+    }
+
+    /**
+     * Replaces the type variables found in {@code type} with the type arguments given by {@code context} or by its owners.
+     * @param type The type where type variables should be replaced.
+     * @param context The parameterized type that gives the values of the type variables.
+     * @return The type with the type variables replaced. Type variables not declared by {@code context}, nor by its owners,
+     *     are left as is.
+     */
+    @PackagePrivate
+    static Type substitute(@NonNull Type type, ParameterizedType context) {
+        if (context == null || type instanceof Class<?>) return type;
+        if (type instanceof TypeVariable<?>) return lookup((TypeVariable<?>) type, context);
+        if (type instanceof ParameterizedType) {
+            ParameterizedType p = (ParameterizedType) type;
+            Type[] args = p.getActualTypeArguments();
+            boolean changed = false;
+            for (int i = 0; i < args.length; i++) {
+                Type s = substitute(args[i], context);
+                changed |= s != args[i];
+                args[i] = s;
+            }
+            Type owner = p.getOwnerType();
+            Type newOwner = owner == null ? null : substitute(owner, context);
+            if (!changed && owner == newOwner) return p;
+            return MyParameterizedType.of((Class<?>) p.getRawType(), args, newOwner);
+        }
+        if (type instanceof WildcardType) {
+            WildcardType w = (WildcardType) type;
+            Type[] upper = w.getUpperBounds();
+            Type[] lower = w.getLowerBounds();
+            boolean changed = false;
+            for (int i = 0; i < upper.length; i++) {
+                Type s = substitute(upper[i], context);
+                changed |= s != upper[i];
+                upper[i] = s;
+            }
+            for (int i = 0; i < lower.length; i++) {
+                Type s = substitute(lower[i], context);
+                changed |= s != lower[i];
+                lower[i] = s;
+            }
+            return changed ? new MyWildcardType(upper, lower) : w;
+        }
+        if (type instanceof GenericArrayType) {
+            Type component = ((GenericArrayType) type).getGenericComponentType();
+            Type s = substitute(component, context);
+            if (s == component) return type;
+            return arrayOf(s);
+        }
+        return type;
+    }
+
+    @PackagePrivate
+    static Type arrayOf(@NonNull Type component) {
+        if (component instanceof Class<?>) return Array.newInstance((Class<?>) component, 0).getClass();
+        return new MyGenericArrayType(component);
+    }
+
+    private static Type lookup(TypeVariable<?> v, ParameterizedType context) {
+        for (ParameterizedType p = context; p != null; ) {
+            TypeVariable<?>[] formals = ((Class<?>) p.getRawType()).getTypeParameters();
+            for (int i = 0; i < formals.length; i++) {
+                if (formals[i].equals(v)) return p.getActualTypeArguments()[i];
+            }
+            Type owner = p.getOwnerType();
+            p = owner instanceof ParameterizedType ? (ParameterizedType) owner : null;
+        }
+        return v;
+    }
+
+    /**
+     * Tells if {@code source} is a subtype of {@code target}.
+     * @param source The possible subtype.
+     * @param target The possible supertype.
+     * @return {@code true} if {@code source} is a subtype of {@code target} or if both are the same type, {@code false}
+     *     otherwise.
+     */
+    @PackagePrivate
+    @SuppressWarnings("PMD.CognitiveComplexity")
+    static boolean isSubtype(@NonNull Type source, @NonNull Type target) {
+        if (source.equals(target)) return true;
+        if (source instanceof TypeVariable<?> || source instanceof WildcardType) {
+            for (Type bound : upperBounds(source)) {
+                if (isSubtype(bound, target)) return true;
+            }
+            return false;
+        }
+        if (target instanceof Class<?>) {
+            Class<?> t = (Class<?>) target;
+            if (source instanceof GenericArrayType) {
+                if (!t.isArray()) return supertype(source, t) != null;
+                return isSubtype(((GenericArrayType) source).getGenericComponentType(), t.getComponentType());
+            }
+            return t.isAssignableFrom(erasure(source));
+        }
+        if (target instanceof ParameterizedType) {
+            ParameterizedType t = (ParameterizedType) target;
+            Type found = supertype(source, (Class<?>) t.getRawType());
+            if (!(found instanceof ParameterizedType)) return false;
+            ParameterizedType s = (ParameterizedType) found;
+            Type targetOwner = t.getOwnerType();
+            if (targetOwner instanceof ParameterizedType) {
+                Type sourceOwner = s.getOwnerType();
+                if (sourceOwner == null || !isSubtype(sourceOwner, targetOwner)) return false;
+            }
+            Type[] targetArgs = t.getActualTypeArguments();
+            Type[] sourceArgs = s.getActualTypeArguments();
+            for (int i = 0; i < targetArgs.length; i++) {
+                if (!contains(targetArgs[i], sourceArgs[i])) return false;
+            }
+            return true;
+        }
+        if (target instanceof GenericArrayType) {
+            Type tc = ((GenericArrayType) target).getGenericComponentType();
+            if (source instanceof GenericArrayType) return isSubtype(((GenericArrayType) source).getGenericComponentType(), tc);
+            if (source instanceof Class<?> && ((Class<?>) source).isArray()) {
+                Class<?> sc = ((Class<?>) source).getComponentType();
+                return !sc.isPrimitive() && isSubtype(sc, tc);
+            }
+            return false;
+        }
+        if (target instanceof WildcardType) {
+            for (Type bound : ((WildcardType) target).getLowerBounds()) {
+                if (isSubtype(source, bound)) return true;
+            }
+            return false;
+        }
+        return false;
+    }
+
+    /**
+     * Tells if the type argument {@code target} contains the type argument {@code source}.
+     * @param target The possibly containing type argument.
+     * @param source The possibly contained type argument.
+     * @return {@code true} if {@code target} contains {@code source}, {@code false} otherwise.
+     */
+    @SuppressWarnings("PMD.CognitiveComplexity")
+    private static boolean contains(Type target, Type source) {
+        if (!(target instanceof WildcardType)) return target.equals(source);
+        WildcardType t = (WildcardType) target;
+        Type[] sourceUpper = upperBounds(source);
+        Type[] sourceLower = source instanceof WildcardType ? ((WildcardType) source).getLowerBounds() : new Type[] {source};
+        for (Type bound : t.getUpperBounds()) {
+            if (bound == Object.class) continue;
+            boolean ok = false;
+            for (Type su : sourceUpper) {
+                if (isSubtype(su, bound)) {
+                    ok = true;
+                    break;
+                }
+            }
+            if (!ok) return false;
+        }
+        for (Type bound : t.getLowerBounds()) {
+            boolean ok = false;
+            for (Type sl : sourceLower) {
+                if (isSubtype(bound, sl)) {
+                    ok = true;
+                    break;
+                }
+            }
+            if (!ok) return false;
+        }
+        return true;
+    }
+
+    private static Type[] upperBounds(Type type) {
+        if (type instanceof TypeVariable<?>) return ((TypeVariable<?>) type).getBounds();
+        if (type instanceof WildcardType) return ((WildcardType) type).getUpperBounds();
+        return new Type[] {type};
+    }
+
+    /**
+     * Gives the erasure of the given type.
+     * @param type The type to be erased.
+     * @return The erasure of the given type.
+     */
+    @NonNull
+    @PackagePrivate
+    static Class<?> erasure(@NonNull Type type) {
+        if (type instanceof Class<?>) return (Class<?>) type;
+        if (type instanceof ParameterizedType) return (Class<?>) ((ParameterizedType) type).getRawType();
+        if (type instanceof GenericArrayType) {
+            return (Class<?>) arrayOf(erasure(((GenericArrayType) type).getGenericComponentType()));
+        }
+        Type[] bounds = upperBounds(type);
+        return bounds.length == 0 ? Object.class : erasure(bounds[0]);
+    }
+
+    private static final class Verdict {
+        private final ReifiedGeneric<?> target;
+        private final ReifiedGeneric<?> source;
+        private final boolean assignable;
+
+        private Verdict(ReifiedGeneric<?> target, ReifiedGeneric<?> source, boolean assignable) {
+            this.target = target;
+            this.source = source;
+            this.assignable = assignable;
+        }
+    }
+}
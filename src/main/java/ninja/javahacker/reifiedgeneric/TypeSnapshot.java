@@ -0,0 +1,243 @@
+package ninja.javahacker.reifiedgeneric;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import lombok.NonNull;
+
+/**
+ * A read-only registry of types persisted to a file, meant to avoid rebuilding the very same {@link ReifiedGeneric}
+ * instances through reflection on every start of an application.
+ *
+ * <pre>
+ * // When shutting down or at build time:
+ * TypeSnapshot.write(knownTypes, path);
+ *
+ * // At the next start:
+ * TypeSnapshot snapshot = TypeSnapshot.open(path, MyApp.class.getClassLoader());
+ * ReifiedGeneric&lt;?&gt; type = snapshot.find(fingerprint);
+ * </pre>
+ *
+ * <p>The file is memory-mapped when opened. Only its index, i.e., the fingerprints and the offsets of the types, is
+ * read up-front, to check that the file isn't corrupted. Each type is only decoded and materialized into its canonical
+ * {@link ReifiedGeneric} instance the first time it is accessed, and it is kept from then on. The types are encoded
+ * with a {@link TypeCodec} each, so decoding them needs no reflection beyond loading their classes by name.</p>
+ *
+ * <p>The snapshot is validated against the current classpath lazily: a type whose classes can't be loaded anymore, or
+ * whose structure doesn't match them anymore (e.g. if the number of type parameters of some class changed), is
+ * considered stale, and accessing it gives {@code null} instead of failing. The types are sorted by their
+ * {@linkplain ReifiedGeneric#fingerprint() fingerprints}, which are stored alongside them, so they can be looked up
+ * with a binary search without materializing any other type.</p>
+ *
+ * <p>Instances are thread-safe. There is no way to explicitly unmap the file, which is unmapped when the instance is
+ * garbage collected.</p>
+ *
+ * @author Victor Williams Stafusa da Silva
+ */
+public final class TypeSnapshot {
+
+    private static final int MAGIC = 0x52475331; // "RGS1"
+    private static final int VERSION = 1;
+    private static final int HEADER = 12;
+
+    private static final Object STALE = new Object();
+
+    private final ByteBuffer buffer;
+    private final ClassLoader loader;
+    private final int count;
+    private final int offsets;
+    private final int data;
+    private final AtomicReferenceArray<Object> materialized;
+
+    private TypeSnapshot(ByteBuffer buffer, ClassLoader loader, int count) {
+        this.buffer = buffer;
+        this.loader = loader;
+        this.count = count;
+        this.offsets = HEADER + count * Long.BYTES;
+        this.data = offsets + (count + 1) * Integer.BYTES;
+        this.materialized = new AtomicReferenceArray<>(count);
+    }
+
+    /**
+     * Writes a snapshot of the given types to a file, replacing it if it already exists.
+     * @param types The types to be written. Duplicates are written only once.
+     * @param file The file to be written.
+     * @throws IllegalArgumentException If any parameter is {@code null}, if {@code types} contains {@code null} or if
+     *     two distinct types have the same fingerprint.
+     * @throws IOException If writing the file fails.
+     */
+    public static void write(@NonNull Collection<? extends ReifiedGeneric<?>> types, @NonNull Path file) throws IOException {
+        List<ReifiedGeneric<?>> sorted = new ArrayList<>(new LinkedHashSet<>(types));
+        for (ReifiedGeneric<?> t : sorted) {
+            if (t == null) throw new IllegalArgumentException("The types can't contain null.");
+        }
+        sorted.sort(Comparator.comparingLong(ReifiedGeneric::fingerprint));
+
+        TypeCodec codec = TypeCodec.withDictionary();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(sorted.size() * 32);
+        DataOutputStream encoded = new DataOutputStream(bytes);
+        int[] ends = new int[sorted.size()];
+        for (int i = 0; i < ends.length; i++) {
+            ReifiedGeneric<?> t = sorted.get(i);
+            if (i > 0 && t.fingerprint() == sorted.get(i - 1).fingerprint()) {
+                throw new IllegalArgumentException("The types " + sorted.get(i - 1) + " and " + t + " have the same fingerprint.");
+            }
+            codec.reset();
+            codec.write(t, encoded);
+            ends[i] = encoded.size();
+        }
+
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sorted.size());
+            for (ReifiedGeneric<?> t : sorted) {
+                out.writeLong(t.fingerprint());
+            }
+            out.writeInt(0);
+            for (int end : ends) {
+                out.writeInt(end);
+            }
+            bytes.writeTo(out);
+        }
+    }
+
+    /**
+     * Opens a snapshot previously written by {@link #write(Collection, Path)}, mapping it into memory. The whole index of
+     * the snapshot is validated here, but none of its types is decoded.
+     * @param file The file to be opened.
+     * @param loader The {@link ClassLoader} used to load the classes of the types, or {@code null} for the bootstrap class
+     *     loader.
+     * @return The opened snapshot.
+     * @throws IllegalArgumentException If {@code file} is {@code null}.
+     * @throws IOException If reading the file fails or if it isn't a valid snapshot.
+     */
+    @NonNull
+    public static TypeSnapshot open(@NonNull Path file, ClassLoader loader) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER || size > Integer.MAX_VALUE) throw new IOException("Not a type snapshot: " + file);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        if (buffer.getInt(0) != MAGIC) throw new IOException("Not a type snapshot: " + file);
+        if (buffer.getInt(4) != VERSION) throw new IOException("Unsupported type snapshot version: " + file);
+        int count = buffer.getInt(8);
+        if (count < 0 || (buffer.limit() - HEADER - Integer.BYTES) / (Long.BYTES + Integer.BYTES) < count) {
+            throw new IOException("Corrupted type snapshot: " + file);
+        }
+        TypeSnapshot snapshot = new TypeSnapshot(buffer, loader, count);
+        if (!snapshot.consistent()) throw new IOException("Corrupted type snapshot: " + file);
+        return snapshot;
+    }
+
+    private boolean consistent() {
+        if (data + end(count - 1) != buffer.limit() || end(-1) != 0) return false;
+        for (int i = 0; i < count; i++) {
+            if (end(i) <= end(i - 1)) return false;
+            if (i > 0 && fingerprint(i) <= fingerprint(i - 1)) return false;
+        }
+        return true;
+    }
+
+    private int end(int index) {
+        return buffer.getInt(offsets + (index + 1) * Integer.BYTES);
+    }
+
+    /**
+     * Gives the number of types in this snapshot, including the stale ones.
+     * @return The number of types in this snapshot.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gives the fingerprint of the type at the given position, without materializing it.
+     * @param index The position of the type. The types are sorted by their fingerprints.
+     * @return The fingerprint of the type at the given position.
+     * @throws IndexOutOfBoundsException If {@code index} is negative or not less than {@link #size()}.
+     * @see ReifiedGeneric#fingerprint()
+     */
+    public long fingerprint(int index) {
+        Objects.checkIndex(index, count);
+        return buffer.getLong(HEADER + index * Long.BYTES);
+    }
+
+    /**
+     * Gives the type at the given position, materializing it if needed.
+     * @param index The position of the type. The types are sorted by their fingerprints.
+     * @return The canonical {@link ReifiedGeneric} instance of the type at the given position, or {@code null} if it is
+     *     stale.
+     * @throws IndexOutOfBoundsException If {@code index} is negative or not less than {@link #size()}.
+     */
+    public ReifiedGeneric<?> get(int index) {
+        Objects.checkIndex(index, count);
+        Object found = materialized.get(index);
+        if (found == null) {
+            found = materialize(index);
+            if (!materialized.compareAndSet(index, null, found)) found = materialized.get(index);
+        }
+        return found == STALE ? null : (ReifiedGeneric<?>) found;
+    }
+
+    /**
+     * Finds the type with the given fingerprint, materializing only it.
+     * @param fingerprint The fingerprint of the wanted type.
+     * @return The canonical {@link ReifiedGeneric} instance with the given fingerprint, or {@code null} if there is none
+     *     or if it is stale.
+     * @see ReifiedGeneric#fingerprint()
+     */
+    public ReifiedGeneric<?> find(long fingerprint) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long here = fingerprint(middle);
+            if (here < fingerprint) {
+                low = middle + 1;
+            } else if (here > fingerprint) {
+                high = middle - 1;
+            } else {
+                return get(middle);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Materializes every type in this snapshot at once, e.g. to warm up an application before it starts serving.
+     * @return The number of stale types.
+     */
+    public int validate() {
+        int stale = 0;
+        for (int i = 0; i < count; i++) {
+            if (get(i) == null) stale++;
+        }
+        return stale;
+    }
+
+    private Object materialize(int index) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(data + end(index)).position(data + end(index - 1));
+        try {
+            ReifiedGeneric<?> type = TypeCodec.withDictionary().read(slice, loader);
+            return slice.hasRemaining() || type.fingerprint() != fingerprint(index) ? STALE : type;
+        } catch (IllegalArgumentException | MalformedReifiedGenericException | BufferUnderflowException e) {
+            return STALE;
+        }
+    }
+}
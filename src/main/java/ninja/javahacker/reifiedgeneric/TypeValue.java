@@ -0,0 +1,165 @@
+package ninja.javahacker.reifiedgeneric;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import lombok.NonNull;
+
+/**
+ * Lazily associates a computed value with (potentially) every type, the same way that {@link ClassValue} does for
+ * classes, but keyed by {@link ReifiedGeneric}. For example, a codec, a validator or a comparator might be cached for
+ * each type that needs one.
+ *
+ * <pre>
+ * TypeValue&lt;Codec&lt;?&gt;&gt; codecs = new TypeValue&lt;&gt;() {
+ *     &#64;Override
+ *     protected Codec&lt;?&gt; computeValue(ReifiedGeneric&lt;?&gt; type) {
+ *         return Codec.create(type);
+ *     }
+ * };
+ * Codec&lt;?&gt; codec = codecs.get(new Token&lt;Map&lt;String, List&lt;Integer&gt;&gt;&gt;() {}.getReified());
+ * </pre>
+ *
+ * <p>Each value is kept by whichever side is expected to go away first. The canonical {@link ReifiedGeneric} instances
+ * are kept alongside the deepest class loader among those of the classes that compose their types. If the class of this
+ * {@code TypeValue} is visible from that class loader, the type can't outlive this {@code TypeValue}, so the value is
+ * stored in the canonical instance itself and goes away together with the classes of the type. The same happens for
+ * types mixing classes from unrelated class loaders, which are kept only for as long as they are used. Otherwise, as
+ * when a {@code TypeValue} created by a web application caches something for {@code List<String>}, the value is stored
+ * in a table owned by this {@code TypeValue} that refers only weakly to the types, so the value goes away together with
+ * this {@code TypeValue} (and with its class loader), or earlier if the type is collected.</p>
+ *
+ * <p>In that last case, the value is strongly held by this {@code TypeValue}. So, a value that refers to its own type
+ * keeps that type, and the classes that compose it, alive for as long as this {@code TypeValue} lives or until the value
+ * is {@linkplain #remove(ReifiedGeneric) removed}.</p>
+ *
+ * <p>Either way, finding a value is an identity lookup or an array access by the {@linkplain ReifiedGeneric#id() id} of
+ * the type, which never hashes nor compares the structure of the types and never locks. Like {@link ClassValue}
+ * instances, {@code TypeValue} instances are meant to be long-lived, usually held by static fields.</p>
+ *
+ * <p>Like in {@link ClassValue}, if several threads race to compute the value of the same type, the
+ * {@link #computeValue(ReifiedGeneric)} method might be called more than once, but only one of the computed values is
+ * ever kept and returned to all of them.</p>
+ *
+ * @param <T> The type of the associated values.
+ * @author Victor Williams Stafusa da Silva
+ */
+public abstract class TypeValue<T> {
+
+    private static final Object NULL = new Object();
+
+    private final ReferenceQueue<ReifiedGeneric<?>> stale = new ReferenceQueue<>();
+
+    /**
+     * The values that this instance keeps by itself, indexed by the ids of their types.
+     */
+    private volatile Slot[] slots = new Slot[0];
+
+    /**
+     * Sole constructor, to be used by subclasses.
+     */
+    protected TypeValue() {
+    }
+
+    /**
+     * Computes the value to be associated to the given type. This is called the first time that {@link #get(ReifiedGeneric)}
+     * is invoked for a type, or after the value was {@linkplain #remove(ReifiedGeneric) removed}.
+     * @param type The type whose value should be computed.
+     * @return The value to be associated to the given type. Might be {@code null}.
+     */
+    protected abstract T computeValue(@NonNull ReifiedGeneric<?> type);
+
+    /**
+     * Gives the value associated to the given type, computing it if needed.
+     * @param type The type whose value is wanted.
+     * @return The value associated to the given type.
+     * @throws IllegalArgumentException If {@code type} is {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(@NonNull ReifiedGeneric<?> type) {
+        Object found = find(type);
+        if (found == null) {
+            T computed = computeValue(type);
+            Object value = computed == null ? NULL : computed;
+            found = isKeptByType(type) ? type.associateValue(this, value) : keep(type, value);
+        }
+        return found == NULL ? null : (T) found;
+    }
+
+    /**
+     * Removes the value associated to the given type, if there is any. The next call to {@link #get(ReifiedGeneric)} for
+     * that type will compute it again.
+     * @param type The type whose value should be removed.
+     * @throws IllegalArgumentException If {@code type} is {@code null}.
+     */
+    public void remove(@NonNull ReifiedGeneric<?> type) {
+        type.dissociateValue(this);
+        forget(type);
+    }
+
+    /**
+     * Tells if the given type should keep its value by itself. That happens if the class of this instance is visible from
+     * the class loader that keeps the type, so the type can't live longer than this instance. It also happens if the type
+     * has no anchor, since otherwise a value referring to the type would pin the unrelated class loaders of its classes.
+     */
+    private boolean isKeptByType(ReifiedGeneric<?> type) {
+        Class<?> anchor = type.anchor();
+        return anchor == null || Interner.commonAnchor(anchor, getClass()) == anchor;
+    }
+
+    private Object find(ReifiedGeneric<?> type) {
+        Object found = type.associatedValue(this);
+        if (found != null) return found;
+        Slot[] current = slots;
+        int id = type.assignedId();
+        if (id < 0 || id >= current.length) return null;
+        Slot slot = current[id];
+        return slot != null && slot.get() == type ? slot.value : null;
+    }
+
+    private synchronized Object keep(ReifiedGeneric<?> type, Object value) {
+        expunge();
+        int id = type.id();
+        Slot[] current = slots;
+        if (id < current.length) {
+            Slot old = current[id];
+            if (old != null && old.get() == type) return old.value;
+            current[id] = new Slot(type, id, value, stale);
+            return value;
+        }
+        Slot[] grown = Arrays.copyOf(current, Math.max(id + 1, current.length * 2));
+        grown[id] = new Slot(type, id, value, stale);
+        slots = grown;
+        return value;
+    }
+
+    private synchronized void forget(ReifiedGeneric<?> type) {
+        expunge();
+        int id = type.assignedId();
+        Slot[] current = slots;
+        if (id >= 0 && id < current.length && current[id] != null && current[id].get() == type) current[id] = null;
+    }
+
+    /**
+     * Drops the values whose types were already collected, since their ids might be given to other types.
+     */
+    private void expunge() {
+        Slot[] current = slots;
+        for (Reference<?> r = stale.poll(); r != null; r = stale.poll()) {
+            Slot slot = (Slot) r;
+            if (slot.id < current.length && current[slot.id] == slot) current[slot.id] = null;
+        }
+    }
+
+    private static final class Slot extends WeakReference<ReifiedGeneric<?>> {
+        private final int id;
+        private final Object value;
+
+        private Slot(ReifiedGeneric<?> type, int id, Object value, ReferenceQueue<ReifiedGeneric<?>> queue) {
+            super(type, queue);
+            this.id = id;
+            this.value = value;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package ninja.javahacker.reifiedgeneric;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -18,6 +20,10 @@ import lombok.experimental.UtilityClass;
 
 /**
  * Utility methods used to wrap, unwrap and compose {@link ReifiedGeneric} instances.
+ *
+ * <p>The results of the wrapping methods are memoized in the given instances, so wrapping the same types again (e.g. in
+ * tight loops) is just a lookup that allocates nothing.</p>
+ *
  * @author Victor Williams Stafusa da Silva
  */
 @UtilityClass
@@ -44,7 +50,44 @@ public class Wrappers {
      * @return An instance of {@link ParameterizedType} with the given arguments.
      */
     public ParameterizedType make(Class<?> rawType, Type[] actualTypeArguments, Type ownerType) {
-        return new MyParameterizedType(rawType, actualTypeArguments, ownerType);
+        return MyParameterizedType.of(rawType, actualTypeArguments, ownerType);
+    }
+
+    /**
+     * Creates {@link WildcardType} instances, in the same way that {@link #make(Class, Type[], Type)} does for
+     * {@link ParameterizedType}s. Those are meant to be used as type arguments of parameterized types.
+     *
+     * @param upperBounds The value to be returned by the {@link WildcardType#getUpperBounds()} method. If empty,
+     *     {@link Object} is used.
+     * @param lowerBounds The value to be returned by the {@link WildcardType#getLowerBounds()} method.
+     *
+     * @return An instance of {@link WildcardType} with the given bounds.
+     */
+    public WildcardType makeWildcard(Type[] upperBounds, Type[] lowerBounds) {
+        return new MyWildcardType(upperBounds, lowerBounds);
+    }
+
+    /**
+     * Creates {@link GenericArrayType} instances, in the same way that {@link #make(Class, Type[], Type)} does for
+     * {@link ParameterizedType}s. Those are meant to be used as type arguments of parameterized types.
+     *
+     * @param genericComponentType The value to be returned by the {@link GenericArrayType#getGenericComponentType()}
+     *     method.
+     *
+     * @return An instance of {@link GenericArrayType} with the given component type.
+     */
+    public GenericArrayType makeArray(Type genericComponentType) {
+        return new MyGenericArrayType(genericComponentType);
+    }
+
+    private ReifiedGeneric<?> unwrap(ReifiedGeneric<?> target, Class<?> base, int index, String what) {
+        Class<?> raw = target.asClass();
+        if (!base.isAssignableFrom(raw)) throw new IllegalArgumentException(raw.getName() + " is not " + what + ".");
+        ReifiedGeneric<?> resolved = target.asSupertype(base);
+        if (resolved.typeArgumentCount() == 0) {
+            throw new IllegalArgumentException(raw.getName() + " doesn't specify the type arguments of " + base.getName() + ".");
+        }
+        return resolved.typeArgument(index);
     }
 
     /**
@@ -52,7 +95,8 @@ public class Wrappers {
      * @param target The {@link ReifiedGeneric} of an {@link Iterable}.
      * @param <E> The generic type of the {@link Iterable}.
      * @return The {@link ReifiedGeneric} of the base type.
-     * @throws IllegalArgumentException If the parameters is {@code null} or is not of an {@link Iterable} type.
+     * @throws IllegalArgumentException If the parameters is {@code null} or is not of an {@link Iterable} type
+     *     or if it doesn't specify the type arguments of it.
      * @see #iterable(ReifiedGeneric)
      * @see #list(ReifiedGeneric)
      * @see #set(ReifiedGeneric)
@@ -60,10 +104,7 @@ public class Wrappers {
      * @see #navigableSet(ReifiedGeneric)
      */
     public <E> ReifiedGeneric<E> unwrapIterable(@NonNull ReifiedGeneric<? extends Iterable<E>> target) {
-        Class<?> raw = target.asClass();
-        if (!Iterable.class.isAssignableFrom(raw)) throw new IllegalArgumentException(raw.getName() + " is not an Iterable.");
-        ParameterizedType p = (ParameterizedType) target.getType();
-        return (ReifiedGeneric<E>) ReifiedGeneric.of(p.getActualTypeArguments()[TYPE_INDEX]);
+        return (ReifiedGeneric<E>) unwrap(target, Iterable.class, TYPE_INDEX, "an Iterable");
     }
 
     /**
@@ -71,14 +112,12 @@ public class Wrappers {
      * @param target The {@link ReifiedGeneric} of an {@link Iterator}.
      * @param <E> The generic type of the {@link Iterator}.
      * @return The {@link ReifiedGeneric} of the base type.
-     * @throws IllegalArgumentException If the parameters is {@code null} or is not of an {@link Iterator} type.
+     * @throws IllegalArgumentException If the parameters is {@code null} or is not of an {@link Iterator} type
+     *     or if it doesn't specify the type arguments of it.
      * @see #iterator(ReifiedGeneric)
      */
     public <E> ReifiedGeneric<E> unwrapIterator(@NonNull ReifiedGeneric<? extends Iterator<E>> target) {
-        Class<?> raw = target.asClass();
-        if (!Iterator.class.isAssignableFrom(raw)) throw new IllegalArgumentException(raw.getName() + " is not an Iterator.");
-        ParameterizedType p = (ParameterizedType) target.getType();
-        return (ReifiedGeneric<E>) ReifiedGeneric.of(p.getActualTypeArguments()[TYPE_INDEX]);
+        return (ReifiedGeneric<E>) unwrap(target, Iterator.class, TYPE_INDEX, "an Iterator");
     }
 
     /**
@@ -86,14 +125,12 @@ public class Wrappers {
      * @param target The {@link ReifiedGeneric} of a {@link Stream}.
      * @param <E> The generic type of the {@link Stream}.
      * @return The {@link ReifiedGeneric} of the base type.
-     * @throws IllegalArgumentException If the parameters is {@code null} or is not of a {@link Stream} type.
+     * @throws IllegalArgumentException If the parameters is {@code null} or is not of a {@link Stream} type
+     *     or if it doesn't specify the type arguments of it.
      * @see #stream(ReifiedGeneric)
      */
     public <E> ReifiedGeneric<E> unwrapStream(@NonNull ReifiedGeneric<? extends Stream<E>> target) {
-        Class<?> raw = target.asClass();
-        if (!Stream.class.isAssignableFrom(raw)) throw new IllegalArgumentException(raw.getName() + " is not an Stream.");
-        ParameterizedType p = (ParameterizedType) target.getType();
-        return (ReifiedGeneric<E>) ReifiedGeneric.of(p.getActualTypeArguments()[TYPE_INDEX]);
+        return (ReifiedGeneric<E>) unwrap(target, Stream.class, TYPE_INDEX, "an Stream");
     }
 
     /**
@@ -101,16 +138,14 @@ public class Wrappers {
      * @param target The {@link ReifiedGeneric} of a {@link Map}.
      * @param <E> The generic type of the {@link Map}'s key.
      * @return The {@link ReifiedGeneric} of the key type.
-     * @throws IllegalArgumentException If the parameters is {@code null} or is not of a {@link Map} type.
+     * @throws IllegalArgumentException If the parameters is {@code null} or is not of a {@link Map} type
+     *     or if it doesn't specify the type arguments of it.
      * @see #map(ReifiedGeneric, ReifiedGeneric)
      * @see #sortedMap(ReifiedGeneric, ReifiedGeneric)
      * @see #navigableMap(ReifiedGeneric, ReifiedGeneric)
      */
     public <E> ReifiedGeneric<E> unwrapMapKey(@NonNull ReifiedGeneric<? extends Map<E, ?>> target) {
-        Class<?> raw = target.asClass();
-        if (!Map.class.isAssignableFrom(raw)) throw new IllegalArgumentException(raw.getName() + " is not a Map.");
-        ParameterizedType p = (ParameterizedType) target.getType();
-        return (ReifiedGeneric<E>) ReifiedGeneric.of(p.getActualTypeArguments()[KEY_INDEX]);
+        return (ReifiedGeneric<E>) unwrap(target, Map.class, KEY_INDEX, "a Map");
     }
 
     /**
@@ -118,16 +153,14 @@ public class Wrappers {
      * @param target The {@link ReifiedGeneric} of a {@link Map}.
      * @param <E> The generic type of the {@link Map}'s value.
      * @return The {@link ReifiedGeneric} of the value type.
-     * @throws IllegalArgumentException If the parameters is {@code null} or is not of a {@link Map} type.
+     * @throws IllegalArgumentException If the parameters is {@code null} or is not of a {@link Map} type
+     *     or if it doesn't specify the type arguments of it.
      * @see #map(ReifiedGeneric, ReifiedGeneric)
      * @see #sortedMap(ReifiedGeneric, ReifiedGeneric)
      * @see #navigableMap(ReifiedGeneric, ReifiedGeneric)
      */
     public <E> ReifiedGeneric<E> unwrapMapValue(@NonNull ReifiedGeneric<? extends Map<?, E>> target) {
-        Class<?> raw = target.asClass();
-        if (!Map.class.isAssignableFrom(raw)) throw new IllegalArgumentException(raw.getName() + " is not a Map.");
-        ParameterizedType p = (ParameterizedType) target.getType();
-        return (ReifiedGeneric<E>) ReifiedGeneric.of(p.getActualTypeArguments()[VALUE_INDEX]);
+        return (ReifiedGeneric<E>) unwrap(target, Map.class, VALUE_INDEX, "a Map");
     }
 
     /**
@@ -135,14 +168,12 @@ public class Wrappers {
      * @param target The {@link ReifiedGeneric} of a {@link Map.Entry}.
      * @param <E> The generic type of the {@link Map.Entry}'s key.
      * @return The {@link ReifiedGeneric} of the entry's key type.
-     * @throws IllegalArgumentException If the parameters is {@code null} or is not of a {@link Map.Entry} type.
+     * @throws IllegalArgumentException If the parameters is {@code null} or is not of a {@link Map.Entry} type
+     *     or if it doesn't specify the type arguments of it.
      * @see #entry(ReifiedGeneric, ReifiedGeneric)
      */
     public <E> ReifiedGeneric<E> unwrapMapEntryKey(@NonNull ReifiedGeneric<? extends Map.Entry<E, ?>> target) {
-        Class<?> raw = target.asClass();
-        if (!Map.Entry.class.isAssignableFrom(raw)) throw new IllegalArgumentException(raw.getName() + " is not a Map.Entry.");
-        ParameterizedType p = (ParameterizedType) target.getType();
-        return (ReifiedGeneric<E>) ReifiedGeneric.of(p.getActualTypeArguments()[KEY_INDEX]);
+        return (ReifiedGeneric<E>) unwrap(target, Map.Entry.class, KEY_INDEX, "a Map.Entry");
     }
 
     /**
@@ -150,14 +181,12 @@ public class Wrappers {
      * @param target The {@link ReifiedGeneric} of a {@link Map.Entry}.
      * @param <E> The generic type of the {@link Map.Entry}'s value.
      * @return The {@link ReifiedGeneric} of the entry's value type.
-     * @throws IllegalArgumentException If the parameters is {@code null} or is not of a {@link Map.Entry} type.
+     * @throws IllegalArgumentException If the parameters is {@code null} or is not of a {@link Map.Entry} type
+     *     or if it doesn't specify the type arguments of it.
      * @see #entry(ReifiedGeneric, ReifiedGeneric)
      */
     public <E> ReifiedGeneric<E> unwrapMapEntryValue(@NonNull ReifiedGeneric<? extends Map.Entry<?, E>> target) {
-        Class<?> raw = target.asClass();
-        if (!Map.Entry.class.isAssignableFrom(raw)) throw new IllegalArgumentException(raw.getName() + " is not a Map.Entry.");
-        ParameterizedType p = (ParameterizedType) target.getType();
-        return (ReifiedGeneric<E>) ReifiedGeneric.of(p.getActualTypeArguments()[VALUE_INDEX]);
+        return (ReifiedGeneric<E>) unwrap(target, Map.Entry.class, VALUE_INDEX, "a Map.Entry");
     }
 
     /**
@@ -169,7 +198,7 @@ public class Wrappers {
      * @see #unwrapIterable(ReifiedGeneric)
      */
     public <E> ReifiedGeneric<Iterable<E>> iterable(@NonNull ReifiedGeneric<E> base) {
-        return (ReifiedGeneric<Iterable<E>>) ReifiedGeneric.of(make(Iterable.class, new Type[] {base.getType()}, null));
+        return (ReifiedGeneric<Iterable<E>>) DerivedTypes.ITERABLE.of(base);
     }
 
     /**
@@ -181,7 +210,7 @@ public class Wrappers {
      * @see #unwrapIterator(ReifiedGeneric)
      */
     public <E> ReifiedGeneric<Iterator<E>> iterator(@NonNull ReifiedGeneric<E> base) {
-        return (ReifiedGeneric<Iterator<E>>) ReifiedGeneric.of(make(Iterator.class, new Type[] {base.getType()}, null));
+        return (ReifiedGeneric<Iterator<E>>) DerivedTypes.ITERATOR.of(base);
     }
 
     /**
@@ -193,7 +222,7 @@ public class Wrappers {
      * @see #unwrapStream(ReifiedGeneric)
      */
     public <E> ReifiedGeneric<Stream<E>> stream(@NonNull ReifiedGeneric<E> base) {
-        return (ReifiedGeneric<Stream<E>>) ReifiedGeneric.of(make(Stream.class, new Type[] {base.getType()}, null));
+        return (ReifiedGeneric<Stream<E>>) DerivedTypes.STREAM.of(base);
     }
 
     /**
@@ -205,7 +234,7 @@ public class Wrappers {
      * @see #unwrapIterable(ReifiedGeneric)
      */
     public <E> ReifiedGeneric<Collection<E>> collection(@NonNull ReifiedGeneric<E> base) {
-        return (ReifiedGeneric<Collection<E>>) ReifiedGeneric.of(make(Collection.class, new Type[] {base.getType()}, null));
+        return (ReifiedGeneric<Collection<E>>) DerivedTypes.COLLECTION.of(base);
     }
 
     /**
@@ -217,7 +246,7 @@ public class Wrappers {
      * @see #unwrapIterable(ReifiedGeneric)
      */
     public <E> ReifiedGeneric<List<E>> list(@NonNull ReifiedGeneric<E> base) {
-        return (ReifiedGeneric<List<E>>) ReifiedGeneric.of(make(List.class, new Type[] {base.getType()}, null));
+        return (ReifiedGeneric<List<E>>) DerivedTypes.LIST.of(base);
     }
 
     /**
@@ -229,7 +258,7 @@ public class Wrappers {
      * @see #unwrapIterable(ReifiedGeneric)
      */
     public <E> ReifiedGeneric<Set<E>> set(@NonNull ReifiedGeneric<E> base) {
-        return (ReifiedGeneric<Set<E>>) ReifiedGeneric.of(make(Set.class, new Type[] {base.getType()}, null));
+        return (ReifiedGeneric<Set<E>>) DerivedTypes.SET.of(base);
     }
 
     /**
@@ -241,7 +270,7 @@ public class Wrappers {
      * @see #unwrapIterable(ReifiedGeneric)
      */
     public <E> ReifiedGeneric<SortedSet<E>> sortedSet(@NonNull ReifiedGeneric<E> base) {
-        return (ReifiedGeneric<SortedSet<E>>) ReifiedGeneric.of(make(SortedSet.class, new Type[] {base.getType()}, null));
+        return (ReifiedGeneric<SortedSet<E>>) DerivedTypes.SORTED_SET.of(base);
     }
 
     /**
@@ -253,7 +282,7 @@ public class Wrappers {
      * @see #unwrapIterable(ReifiedGeneric)
      */
     public <E> ReifiedGeneric<NavigableSet<E>> navigableSet(@NonNull ReifiedGeneric<E> base) {
-        return (ReifiedGeneric<NavigableSet<E>>) ReifiedGeneric.of(make(NavigableSet.class, new Type[] {base.getType()}, null));
+        return (ReifiedGeneric<NavigableSet<E>>) DerivedTypes.NAVIGABLE_SET.of(base);
     }
 
     /**
@@ -269,8 +298,7 @@ public class Wrappers {
      * @see #unwrapMapValue(ReifiedGeneric)
      */
     public <E, F> ReifiedGeneric<Map<E, F>> map(@NonNull ReifiedGeneric<E> base1, @NonNull ReifiedGeneric<F> base2) {
-        return (ReifiedGeneric<Map<E, F>>) ReifiedGeneric.of(
-                make(Map.class, new Type[] {base1.getType(), base2.getType()}, null));
+        return (ReifiedGeneric<Map<E, F>>) DerivedTypes.MAP.of(base1, base2);
     }
 
     /**
@@ -286,8 +314,7 @@ public class Wrappers {
      * @see #unwrapMapValue(ReifiedGeneric)
      */
     public <E, F> ReifiedGeneric<SortedMap<E, F>> sortedMap(@NonNull ReifiedGeneric<E> base1, @NonNull ReifiedGeneric<F> base2) {
-        return (ReifiedGeneric<SortedMap<E, F>>) ReifiedGeneric.of(
-                make(SortedMap.class, new Type[] {base1.getType(), base2.getType()}, null));
+        return (ReifiedGeneric<SortedMap<E, F>>) DerivedTypes.SORTED_MAP.of(base1, base2);
     }
 
     /**
@@ -303,8 +330,7 @@ public class Wrappers {
      * @see #unwrapMapValue(ReifiedGeneric)
      */
     public <E, F> ReifiedGeneric<NavigableMap<E, F>> navigableMap(@NonNull ReifiedGeneric<E> base1, @NonNull ReifiedGeneric<F> base2) {
-        return (ReifiedGeneric<NavigableMap<E, F>>) ReifiedGeneric.of(
-                make(NavigableMap.class, new Type[] {base1.getType(), base2.getType()}, null));
+        return (ReifiedGeneric<NavigableMap<E, F>>) DerivedTypes.NAVIGABLE_MAP.of(base1, base2);
     }
 
     /**
@@ -320,7 +346,58 @@ public class Wrappers {
      * @see #unwrapMapEntryValue(ReifiedGeneric)
      */
     public <E, F> ReifiedGeneric<Map.Entry<E, F>> entry(@NonNull ReifiedGeneric<E> base1, @NonNull ReifiedGeneric<F> base2) {
-        return (ReifiedGeneric<Map.Entry<E, F>>) ReifiedGeneric.of(
-                make(Map.Entry.class, new Type[] {base1.getType(), base2.getType()}, null));
+        return (ReifiedGeneric<Map.Entry<E, F>>) DerivedTypes.ENTRY.of(base1, base2);
+    }
+
+    /**
+     * Gives a view of the given {@link List} that checks that every inserted element is an instance of the given type,
+     * taking its type arguments into account, like {@link ReifiedGeneric#isInstance(Object)} does.
+     *
+     * <p>This works like {@link java.util.Collections#checkedList(List, Class)}, except that the latter checks only the
+     * classes of the elements, so it can't tell a {@code List<String>} element from a {@code List<Integer>} one. The
+     * elements already in the given list aren't checked. The {@code null} element is always allowed by the view, although
+     * the given list might reject it.</p>
+     *
+     * <p>If {@code elementType} has no type arguments to check, the runtime class of an element alone decides, and that
+     * decision is cached for each runtime class, so inserting such elements is usually just a lookup for each one.
+     * Otherwise, the contents of each inserted element are checked in full.</p>
+     *
+     * @param list The list to be viewed.
+     * @param elementType The type of the elements of the list.
+     * @param <E> The type of the elements of the list.
+     * @return The checked view of the list.
+     * @throws IllegalArgumentException If any of the given parameters is {@code null}.
+     */
+    public <E> List<E> checkedList(@NonNull List<E> list, @NonNull ReifiedGeneric<E> elementType) {
+        return CheckedCollections.list(list, elementType);
+    }
+
+    /**
+     * Gives a view of the given {@link Set} that checks that every inserted element is an instance of the given type,
+     * taking its type arguments into account. See {@link #checkedList(List, ReifiedGeneric)} for the details.
+     * @param set The set to be viewed.
+     * @param elementType The type of the elements of the set.
+     * @param <E> The type of the elements of the set.
+     * @return The checked view of the set.
+     * @throws IllegalArgumentException If any of the given parameters is {@code null}.
+     */
+    public <E> Set<E> checkedSet(@NonNull Set<E> set, @NonNull ReifiedGeneric<E> elementType) {
+        return CheckedCollections.set(set, elementType);
+    }
+
+    /**
+     * Gives a view of the given {@link Map} that checks that every inserted key and value is an instance of the given
+     * types, taking their type arguments into account. See {@link #checkedList(List, ReifiedGeneric)} for the details.
+     * The values set through the entries of the map are checked too.
+     * @param map The map to be viewed.
+     * @param keyType The type of the keys of the map.
+     * @param valueType The type of the values of the map.
+     * @param <K> The type of the keys of the map.
+     * @param <V> The type of the values of the map.
+     * @return The checked view of the map.
+     * @throws IllegalArgumentException If any of the given parameters is {@code null}.
+     */
+    public <K, V> Map<K, V> checkedMap(@NonNull Map<K, V> map, @NonNull ReifiedGeneric<K> keyType, @NonNull ReifiedGeneric<V> valueType) {
+        return CheckedCollections.map(map, keyType, valueType);
     }
 }
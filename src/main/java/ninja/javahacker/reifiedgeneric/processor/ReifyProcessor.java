@@ -0,0 +1,357 @@
+package ninja.javahacker.reifiedgeneric.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import ninja.javahacker.reifiedgeneric.Reify;
+
+/**
+ * Annotation processor that precomputes the values of the {@link ninja.javahacker.reifiedgeneric.ReifiedGeneric} fields
+ * marked with {@link Reify}.
+ *
+ * <p>The generated holders build the types directly through the {@link ninja.javahacker.reifiedgeneric.Wrappers}
+ * factories, so no anonymous {@link ninja.javahacker.reifiedgeneric.Token} subclass is ever created, loaded or reflected
+ * upon.</p>
+ *
+ * <p>This processor is registered as a service, so it is enough to put this library in the annotation processor path
+ * of the compiler.</p>
+ *
+ * @see Reify
+ * @author Victor Williams Stafusa da Silva
+ */
+@SupportedAnnotationTypes(ReifyProcessor.REIFY)
+public final class ReifyProcessor extends AbstractProcessor {
+
+    /**
+     * The name of the {@link Reify} annotation.
+     */
+    static final String REIFY = "ninja.javahacker.reifiedgeneric.Reify";
+
+    private static final String REIFIED_GENERIC = "ninja.javahacker.reifiedgeneric.ReifiedGeneric";
+    private static final String WRAPPERS = "ninja.javahacker.reifiedgeneric.Wrappers";
+    private static final String TYPE = "java.lang.reflect.Type";
+    private static final String SUFFIX = "_Reified";
+
+    /**
+     * The classes whose fields couldn't be processed yet because their types refer to classes not generated yet.
+     */
+    private final Set<String> deferred;
+
+    /**
+     * Sole constructor, to be used by the compiler.
+     */
+    public ReifyProcessor() {
+        this.deferred = new LinkedHashSet<>();
+    }
+
+    /**
+     * Supports the latest source version, since this processor only deals with fields and types.
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * Generates the holders of the fields marked with {@link Reify}.
+     * @param annotations {@inheritDoc}
+     * @param round {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        if (round.processingOver()) {
+            for (String name : deferred) {
+                TypeElement type = processingEnv.getElementUtils().getTypeElement(name);
+                error("The types of the @Reify fields of " + name + " couldn't be resolved.", type);
+            }
+            deferred.clear();
+            return false;
+        }
+
+        Map<TypeElement, List<VariableElement>> byClass = new LinkedHashMap<>(16);
+        for (String name : deferred) {
+            TypeElement type = processingEnv.getElementUtils().getTypeElement(name);
+            if (type == null) continue;
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                if (field.getAnnotation(Reify.class) != null) byClass.computeIfAbsent(type, x -> new ArrayList<>(4)).add(field);
+            }
+        }
+        deferred.clear();
+
+        for (VariableElement field : ElementFilter.fieldsIn(round.getElementsAnnotatedWith(Reify.class))) {
+            Element owner = field.getEnclosingElement();
+            if (!(owner instanceof TypeElement) || !named((TypeElement) owner)) {
+                error("@Reify fields must be declared in top-level or member classes.", field);
+                continue;
+            }
+            byClass.computeIfAbsent((TypeElement) owner, x -> new ArrayList<>(4)).add(field);
+        }
+
+        byClass.forEach(this::generate);
+        return false;
+    }
+
+    private void generate(TypeElement owner, List<VariableElement> fields) {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(owner);
+        StringBuilder constants = new StringBuilder(256);
+        boolean ok = true;
+        for (VariableElement field : fields) {
+            TypeMirror reified = reifiedType(field);
+            if (reified == null) {
+                ok = false;
+                continue;
+            }
+            if (hasErrors(reified)) {
+                deferred.add(owner.getQualifiedName().toString());
+                return;
+            }
+            String problem = check(reified, pkg, true);
+            if (problem != null) {
+                error(problem, field);
+                ok = false;
+                continue;
+            }
+            String type = REIFIED_GENERIC + "<" + source(reified) + ">";
+            String cast = plain(reified) ? "" : "(" + type + ") ";
+            constants.append("\n    static final ").append(type).append(' ').append(field.getSimpleName()).append(" =\n")
+                    .append("            ").append(cast).append(REIFIED_GENERIC).append(".of(")
+                    .append(expression(reified)).append(");\n");
+        }
+        if (!ok) return;
+
+        String holder = holderName(owner);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String qualifiedHolder = packageName.isEmpty() ? holder : packageName + "." + holder;
+        try (Writer w = processingEnv.getFiler().createSourceFile(qualifiedHolder, owner).openWriter()) {
+            w.write("// Generated by " + ReifyProcessor.class.getName() + " from " + owner.getQualifiedName() + ". Do not edit.\n");
+            if (!packageName.isEmpty()) w.write("package " + packageName + ";\n");
+            w.write("\n/**\n * Precomputed {@code ReifiedGeneric} constants for {@link " + owner.getQualifiedName() + "}.\n */\n");
+            w.write("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\nfinal class " + holder + " {\n");
+            w.write(constants.toString());
+            w.write("\n    private " + holder + "() {\n        throw new UnsupportedOperationException();\n    }\n}\n");
+        } catch (IOException e) {
+            error("Couldn't generate " + qualifiedHolder + ": " + e.getMessage(), owner);
+        }
+    }
+
+    private TypeMirror reifiedType(VariableElement field) {
+        TypeMirror type = field.asType();
+        if (type.getKind() == TypeKind.DECLARED) {
+            DeclaredType declared = (DeclaredType) type;
+            TypeElement element = (TypeElement) declared.asElement();
+            if (element.getQualifiedName().contentEquals(REIFIED_GENERIC) && declared.getTypeArguments().size() == 1) {
+                return declared.getTypeArguments().get(0);
+            }
+        }
+        if (type.getKind() != TypeKind.ERROR) error("@Reify fields must be of a parameterized ReifiedGeneric type.", field);
+        return null;
+    }
+
+    private static boolean named(TypeElement type) {
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            NestingKind kind = ((TypeElement) e).getNestingKind();
+            if (kind != NestingKind.TOP_LEVEL && kind != NestingKind.MEMBER) return false;
+        }
+        return true;
+    }
+
+    private static String holderName(TypeElement owner) {
+        StringBuilder sb = new StringBuilder(owner.getSimpleName());
+        for (Element e = owner.getEnclosingElement(); e instanceof TypeElement; e = e.getEnclosingElement()) {
+            sb.insert(0, '_').insert(0, e.getSimpleName());
+        }
+        return sb.append(SUFFIX).toString();
+    }
+
+    private static boolean hasErrors(TypeMirror type) {
+        switch (type.getKind()) {
+            case ERROR:
+                return true;
+            case DECLARED:
+                DeclaredType declared = (DeclaredType) type;
+                if (hasErrors(declared.getEnclosingType())) return true;
+                for (TypeMirror arg : declared.getTypeArguments()) {
+                    if (hasErrors(arg)) return true;
+                }
+                return false;
+            case ARRAY:
+                return hasErrors(((ArrayType) type).getComponentType());
+            case WILDCARD:
+                WildcardType wildcard = (WildcardType) type;
+                return (wildcard.getExtendsBound() != null && hasErrors(wildcard.getExtendsBound()))
+                        || (wildcard.getSuperBound() != null && hasErrors(wildcard.getSuperBound()));
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Tells if the given type can be reified by the generated code.
+     * @param type The type to be checked.
+     * @param pkg The package where the holder will be generated.
+     * @param top If the type is the one to be reified, as opposed to one of its parts.
+     * @return A description of why the type can't be reified, or {@code null} if it can be.
+     */
+    private static String check(TypeMirror type, PackageElement pkg, boolean top) {
+        switch (type.getKind()) {
+            case DECLARED: {
+                DeclaredType declared = (DeclaredType) type;
+                TypeElement element = (TypeElement) declared.asElement();
+                if (!named(element)) return "Local and anonymous classes can't be reified: " + element + ".";
+                for (Element e = element; e instanceof TypeElement; e = e.getEnclosingElement()) {
+                    Set<Modifier> mods = e.getModifiers();
+                    if (mods.contains(Modifier.PRIVATE) || (mods.contains(Modifier.PROTECTED) && !pkg.equals(packageOf(e)))) {
+                        return e + " is not accessible from the generated holder.";
+                    }
+                }
+                if (declared.getTypeArguments().isEmpty() && parameterized(declared.getEnclosingType())) {
+                    return "Non-generic inner classes of parameterized types can't be reified: " + type + ".";
+                }
+                if (parameterized(declared.getEnclosingType())) {
+                    String problem = check(declared.getEnclosingType(), pkg, false);
+                    if (problem != null) return problem;
+                }
+                for (TypeMirror arg : declared.getTypeArguments()) {
+                    String problem = check(arg, pkg, false);
+                    if (problem != null) return problem;
+                }
+                return null;
+            }
+            case ARRAY: {
+                TypeMirror component = ((ArrayType) type).getComponentType();
+                if (top && !plain(component)) return "Generic arrays can't be reified: " + type + ".";
+                return check(component, pkg, false);
+            }
+            case WILDCARD: {
+                if (top) return "Wildcards can't be reified: " + type + ".";
+                WildcardType wildcard = (WildcardType) type;
+                TypeMirror bound = wildcard.getExtendsBound() != null ? wildcard.getExtendsBound() : wildcard.getSuperBound();
+                return bound == null ? null : check(bound, pkg, false);
+            }
+            case TYPEVAR:
+                return "Type variables can't be reified: " + type + ".";
+            default:
+                if (type.getKind().isPrimitive()) return null;
+                return "Unsupported type: " + type + ".";
+        }
+    }
+
+    private static PackageElement packageOf(Element element) {
+        Element e = element;
+        while (!(e instanceof PackageElement)) {
+            e = e.getEnclosingElement();
+        }
+        return (PackageElement) e;
+    }
+
+    private static boolean parameterized(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED
+                && (!((DeclaredType) type).getTypeArguments().isEmpty() || parameterized(((DeclaredType) type).getEnclosingType()));
+    }
+
+    private static boolean plain(TypeMirror type) {
+        if (type.getKind().isPrimitive()) return true;
+        if (type.getKind() == TypeKind.ARRAY) return plain(((ArrayType) type).getComponentType());
+        return type.getKind() == TypeKind.DECLARED && !parameterized(type);
+    }
+
+    /**
+     * Renders the given type as it should be written in the source code.
+     * @param type The type to be rendered.
+     * @return The type as it should be written in the source code.
+     */
+    private static String source(TypeMirror type) {
+        switch (type.getKind()) {
+            case DECLARED: {
+                DeclaredType declared = (DeclaredType) type;
+                TypeElement element = (TypeElement) declared.asElement();
+                TypeMirror owner = declared.getEnclosingType();
+                String name = parameterized(owner)
+                        ? source(owner) + "." + element.getSimpleName()
+                        : element.getQualifiedName().toString();
+                if (declared.getTypeArguments().isEmpty()) return name;
+                StringJoiner args = new StringJoiner(", ", name + "<", ">");
+                for (TypeMirror arg : declared.getTypeArguments()) {
+                    args.add(source(arg));
+                }
+                return args.toString();
+            }
+            case ARRAY:
+                return source(((ArrayType) type).getComponentType()) + "[]";
+            case WILDCARD: {
+                WildcardType wildcard = (WildcardType) type;
+                if (wildcard.getExtendsBound() != null) return "? extends " + source(wildcard.getExtendsBound());
+                if (wildcard.getSuperBound() != null) return "? super " + source(wildcard.getSuperBound());
+                return "?";
+            }
+            default:
+                return type.toString();
+        }
+    }
+
+    /**
+     * Renders an expression that evaluates to the {@link java.lang.reflect.Type} that represents the given type.
+     * @param type The type to be rendered.
+     * @return An expression that evaluates to the {@link java.lang.reflect.Type} that represents the given type.
+     */
+    private static String expression(TypeMirror type) {
+        if (plain(type)) return source(type) + ".class";
+        switch (type.getKind()) {
+            case DECLARED: {
+                DeclaredType declared = (DeclaredType) type;
+                TypeElement element = (TypeElement) declared.asElement();
+                TypeMirror owner = declared.getEnclosingType();
+                return WRAPPERS + ".make(" + element.getQualifiedName() + ".class, " + array(declared.getTypeArguments()) + ", "
+                        + (parameterized(owner) ? expression(owner) : "null") + ")";
+            }
+            case ARRAY:
+                return WRAPPERS + ".makeArray(" + expression(((ArrayType) type).getComponentType()) + ")";
+            default: {
+                WildcardType wildcard = (WildcardType) type;
+                List<TypeMirror> upper = new ArrayList<>(1);
+                List<TypeMirror> lower = new ArrayList<>(1);
+                if (wildcard.getExtendsBound() != null) upper.add(wildcard.getExtendsBound());
+                if (wildcard.getSuperBound() != null) lower.add(wildcard.getSuperBound());
+                return WRAPPERS + ".makeWildcard(" + array(upper) + ", " + array(lower) + ")";
+            }
+        }
+    }
+
+    private static String array(List<? extends TypeMirror> types) {
+        if (types.isEmpty()) return "new " + TYPE + "[0]";
+        StringJoiner sj = new StringJoiner(", ", "new " + TYPE + "[] {", "}");
+        for (TypeMirror t : types) {
+            sj.add(expression(t));
+        }
+        return sj.toString();
+    }
+
+    private void error(String message, Element where) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, where);
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Compile-time support for {@link ninja.javahacker.reifiedgeneric.ReifiedGeneric}, through the
+ * {@link ninja.javahacker.reifiedgeneric.Reify} annotation.
+ * @author Victor Williams Stafusa da Silva
+ */
+package ninja.javahacker.reifiedgeneric.processor;
@@ -1,4 +1,7 @@
 open module ninja.javahacker.test.reifiedgeneric {
     requires ninja.javahacker.reifiedgeneric;
+    requires java.compiler;
+    requires java.logging;
+    requires jdk.management;
     requires org.junit.jupiter.api;
 }
\ No newline at end of file
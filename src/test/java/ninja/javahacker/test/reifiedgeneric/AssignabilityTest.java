@@ -0,0 +1,125 @@
+package ninja.javahacker.test.reifiedgeneric;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import ninja.javahacker.reifiedgeneric.Wrappers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+public class AssignabilityTest {
+
+    private static class Foo implements Iterable<String> {
+        @Override
+        public Iterator<String> iterator() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class Bar<A, B> extends HashMap<B, List<A>> {
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static class Baz implements Supplier<List<Integer>> {
+        @Override
+        public List<Integer> get() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static void assignable(ReifiedGeneric<?> target, ReifiedGeneric<?> source) {
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(target.isAssignableFrom(source), target + " from " + source),
+                () -> Assertions.assertTrue(source.isAssignableTo(target), source + " to " + target),
+                () -> Assertions.assertTrue(target.isAssignableFrom(source), target + " from " + source + " (cached)")
+        );
+    }
+
+    private static void notAssignable(ReifiedGeneric<?> target, ReifiedGeneric<?> source) {
+        Assertions.assertAll(
+                () -> Assertions.assertFalse(target.isAssignableFrom(source), target + " from " + source),
+                () -> Assertions.assertFalse(source.isAssignableTo(target), source + " to " + target),
+                () -> Assertions.assertFalse(target.isAssignableFrom(source), target + " from " + source + " (cached)")
+        );
+    }
+
+    @Test
+    public void testSameType() {
+        assignable(new Token<List<String>>() {}.getReified(), new Token<List<String>>() {}.getReified());
+        assignable(ReifiedGeneric.of(String.class), ReifiedGeneric.of(String.class));
+    }
+
+    @Test
+    public void testDifferentArguments() {
+        notAssignable(new Token<List<Integer>>() {}.getReified(), new Token<List<String>>() {}.getReified());
+        notAssignable(new Token<List<Object>>() {}.getReified(), new Token<List<String>>() {}.getReified());
+    }
+
+    @Test
+    public void testClasses() {
+        assignable(ReifiedGeneric.of(CharSequence.class), ReifiedGeneric.of(String.class));
+        notAssignable(ReifiedGeneric.of(String.class), ReifiedGeneric.of(CharSequence.class));
+        assignable(ReifiedGeneric.of(Object[].class), ReifiedGeneric.of(String[].class));
+        notAssignable(ReifiedGeneric.of(Object.class), ReifiedGeneric.of(int.class));
+    }
+
+    @Test
+    public void testSupertypes() {
+        assignable(new Token<Collection<String>>() {}.getReified(), new Token<ArrayList<String>>() {}.getReified());
+        assignable(new Token<Iterable<String>>() {}.getReified(), ReifiedGeneric.of(Foo.class));
+        assignable(new Token<Map<Integer, List<String>>>() {}.getReified(), new Token<Bar<String, Integer>>() {}.getReified());
+        notAssignable(new Token<Map<String, List<Integer>>>() {}.getReified(), new Token<Bar<String, Integer>>() {}.getReified());
+        assignable(new Token<Supplier<List<Integer>>>() {}.getReified(), ReifiedGeneric.of(Baz.class));
+        notAssignable(new Token<Supplier<List<String>>>() {}.getReified(), ReifiedGeneric.of(Baz.class));
+    }
+
+    @Test
+    public void testRawTypes() {
+        assignable(ReifiedGeneric.of(List.class), new Token<List<String>>() {}.getReified());
+        assignable(ReifiedGeneric.of(Collection.class), new Token<ArrayList<String>>() {}.getReified());
+        notAssignable(new Token<List<String>>() {}.getReified(), ReifiedGeneric.of(List.class));
+        notAssignable(new Token<List<String>>() {}.getReified(), ReifiedGeneric.of(ArrayList.class));
+    }
+
+    @Test
+    public void testWildcards() {
+        assignable(new Token<Collection<? extends Number>>() {}.getReified(), new Token<ArrayList<Integer>>() {}.getReified());
+        assignable(new Token<List<?>>() {}.getReified(), new Token<ArrayList<Integer>>() {}.getReified());
+        assignable(new Token<List<? super Integer>>() {}.getReified(), new Token<List<Number>>() {}.getReified());
+        assignable(new Token<List<? extends Number>>() {}.getReified(), new Token<List<? extends Integer>>() {}.getReified());
+        notAssignable(new Token<List<? super Number>>() {}.getReified(), new Token<List<Integer>>() {}.getReified());
+        notAssignable(new Token<List<? extends Number>>() {}.getReified(), new Token<List<String>>() {}.getReified());
+        notAssignable(new Token<List<Integer>>() {}.getReified(), new Token<List<? extends Integer>>() {}.getReified());
+        assignable(
+                new Token<Supplier<? extends Collection<? extends Number>>>() {}.getReified(),
+                ReifiedGeneric.of(Baz.class));
+    }
+
+    @Test
+    public void testManyPairs() {
+        List<ReifiedGeneric<?>> types = new ArrayList<>();
+        ReifiedGeneric<?> integers = ReifiedGeneric.of(Integer.class);
+        ReifiedGeneric<?> numbers = ReifiedGeneric.of(Number.class);
+        for (int i = 0; i < 300; i++) {
+            types.add(integers);
+            integers = Wrappers.list(integers);
+            numbers = Wrappers.list(numbers);
+            notAssignable(numbers, integers);
+        }
+        for (int round = 0; round < 2; round++) {
+            for (ReifiedGeneric<?> t : types) {
+                assignable(Wrappers.collection(t), Wrappers.list(t));
+                notAssignable(Wrappers.list(t), Wrappers.collection(t));
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package ninja.javahacker.test.reifiedgeneric;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import ninja.javahacker.reifiedgeneric.Wrappers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class CheckedCollectionsTest {
+
+    private static final ReifiedGeneric<String> STRING = ReifiedGeneric.of(String.class);
+    private static final ReifiedGeneric<Integer> INTEGER = ReifiedGeneric.of(Integer.class);
+    private static final ReifiedGeneric<List<String>> STRINGS = Wrappers.list(STRING);
+
+    private static List<Object> mixed() {
+        List<Object> list = new ArrayList<>();
+        list.add("a");
+        list.add(1);
+        return list;
+    }
+
+    @Test
+    public void testCheckedList() {
+        List<List<String>> backing = new ArrayList<>();
+        List<List<String>> checked = Wrappers.checkedList(backing, STRINGS);
+        List raw = checked;
+        checked.add(new ArrayList<>(List.of("a", "b")));
+        checked.add(null);
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(checked instanceof RandomAccess),
+                () -> Assertions.assertFalse(Wrappers.checkedList(new LinkedList<>(), STRING) instanceof RandomAccess),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> raw.add(new ArrayList<>(List.of(1)))),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> raw.add("a")),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> raw.set(0, List.of(2))),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> raw.add(0, mixed())),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> raw.addAll(List.of(List.of("x"), List.of(3)))),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> raw.subList(0, 1).add(List.of(4))),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> raw.replaceAll(x -> List.of(5))),
+                () -> Assertions.assertEquals(Integer.valueOf(2), Integer.valueOf(backing.size())),
+                () -> Assertions.assertEquals(backing, checked),
+                () -> Assertions.assertEquals(Integer.valueOf(backing.hashCode()), Integer.valueOf(checked.hashCode()))
+        );
+        checked.addAll(List.of(List.of("c"), List.of()));
+        ListIterator it = raw.listIterator();
+        it.next();
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(Integer.valueOf(4), Integer.valueOf(backing.size())),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> it.set(List.of(6))),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> it.add(7))
+        );
+        it.set(List.of("d"));
+        Assertions.assertEquals(List.of("d"), backing.get(0));
+    }
+
+    @Test
+    public void testSameClassDifferentContents() {
+        List<List<String>> checked = Wrappers.checkedList(new ArrayList<>(), STRINGS);
+        List raw = checked;
+        for (int i = 0; i < 100; i++) {
+            checked.add(new ArrayList<>(List.of("x" + i)));
+            Assertions.assertThrows(ClassCastException.class, () -> raw.add(new ArrayList<>(List.of(1))));
+        }
+        Assertions.assertEquals(Integer.valueOf(100), Integer.valueOf(checked.size()));
+    }
+
+    @Test
+    public void testCheckedSet() {
+        Set<String> backing = new HashSet<>();
+        Set<String> checked = Wrappers.checkedSet(backing, STRING);
+        Set raw = checked;
+        checked.add("a");
+        Assertions.assertAll(
+                () -> Assertions.assertThrows(ClassCastException.class, () -> raw.add(1)),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> raw.addAll(mixed())),
+                () -> Assertions.assertEquals(Set.of("a"), backing),
+                () -> Assertions.assertEquals(checked, backing),
+                () -> Assertions.assertTrue(checked.remove("a")),
+                () -> Assertions.assertTrue(backing.isEmpty())
+        );
+    }
+
+    @Test
+    public void testCheckedMap() {
+        ReifiedGeneric<Map<String, List<Integer>>> type = new Token<Map<String, List<Integer>>>() {}.getReified();
+        Map<String, List<Integer>> backing = new HashMap<>();
+        Map<String, List<Integer>> checked = Wrappers.checkedMap(backing, STRING, Wrappers.list(INTEGER));
+        Map raw = checked;
+        checked.put("a", List.of(1));
+        Map<Object, Object> bad = new HashMap<>();
+        bad.put("b", List.of(2));
+        bad.put("c", List.of("x"));
+        Assertions.assertAll(
+                () -> Assertions.assertThrows(ClassCastException.class, () -> raw.put(1, List.of(1))),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> raw.put("b", List.of("b"))),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> raw.putAll(bad)),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> raw.putIfAbsent("b", "b")),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> raw.computeIfAbsent("b", k -> List.of(k))),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> raw.merge("a", List.of(), (x, y) -> "z")),
+                () -> Assertions.assertThrows(ClassCastException.class,
+                        () -> ((Map.Entry) raw.entrySet().iterator().next()).setValue(List.of("y"))),
+                () -> Assertions.assertThrows(UnsupportedOperationException.class, () -> raw.entrySet().add(Map.entry("b", List.of()))),
+                () -> Assertions.assertEquals(Map.of("a", List.of(1)), backing),
+                () -> Assertions.assertTrue(type.isInstance(backing)),
+                () -> Assertions.assertEquals(backing, checked)
+        );
+        checked.entrySet().iterator().next().setValue(List.of(2, 3));
+        checked.merge("a", List.of(4), (x, y) -> y);
+        Assertions.assertEquals(Map.of("a", List.of(4)), backing);
+    }
+}
@@ -0,0 +1,72 @@
+package ninja.javahacker.test.reifiedgeneric;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import ninja.javahacker.reifiedgeneric.Wrappers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+public class FingerprintTest {
+
+    private static Map.Entry<String, Long> foo() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Test
+    public void testStableValues() {
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(0x632E5F882A429C71L, ReifiedGeneric.of(String.class).fingerprint()),
+                () -> Assertions.assertEquals(
+                        0xE4F999578CEC3DF7L,
+                        new Token<Map<String, List<Integer>>>() {}.getReified().fingerprint()),
+                () -> Assertions.assertEquals(
+                        0x75062DFDA95C0171L,
+                        new Token<List<? extends Number>>() {}.getReified().fingerprint())
+        );
+    }
+
+    @Test
+    public void testStructureMatters() {
+        long ab = new Token<Map<String, Integer>>() {}.getReified().fingerprint();
+        long ba = new Token<Map<Integer, String>>() {}.getReified().fingerprint();
+        long nested = new Token<List<List<String>>>() {}.getReified().fingerprint();
+        long flat = new Token<List<String>>() {}.getReified().fingerprint();
+        long array = new Token<List<String[]>>() {}.getReified().fingerprint();
+        long ext = new Token<List<? extends String>>() {}.getReified().fingerprint();
+        long sup = new Token<List<? super String>>() {}.getReified().fingerprint();
+        Set<Long> all = new HashSet<>(List.of(ab, ba, nested, flat, array, ext, sup));
+        Assertions.assertEquals(7, all.size());
+    }
+
+    @Test
+    public void testSameTypeSameFingerprint() throws Exception {
+        ParameterizedType jdk = (ParameterizedType) FingerprintTest.class.getDeclaredMethod("foo").getGenericReturnType();
+        ParameterizedType mine = Wrappers.make(Map.Entry.class, new Type[] {String.class, Long.class}, null);
+        Assertions.assertEquals(ReifiedGeneric.of(jdk).fingerprint(), ReifiedGeneric.of(mine).fingerprint());
+        Assertions.assertEquals(
+                ReifiedGeneric.of(mine).fingerprint(),
+                ReifiedGeneric.parse(mine.getTypeName(), null).fingerprint());
+    }
+
+    @Test
+    public void testFewCollisions() {
+        Set<Long> seen = new HashSet<>();
+        Type list = Integer.class;
+        Type map = Long.class;
+        for (int i = 0; i < 300; i++) {
+            list = Wrappers.make(List.class, new Type[] {list}, null);
+            map = Wrappers.make(Map.class, new Type[] {list, map}, null);
+            Assertions.assertTrue(seen.add(ReifiedGeneric.of(list).fingerprint()));
+            Assertions.assertTrue(seen.add(ReifiedGeneric.of(map).fingerprint()));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package ninja.javahacker.test.reifiedgeneric;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import ninja.javahacker.reifiedgeneric.Wrappers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Estimates memory footprints the same way that JOL does for a 64-bit JVM with compressed references (12-byte object
+ * headers, 16-byte array headers, 4-byte references and 8-byte alignment).
+ * @author Victor Williams Stafusa da Silva
+ */
+@SuppressWarnings("unused")
+public class FootprintTest {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+
+    private List<String> list;
+    private Map<String, Integer> map;
+    private Map.Entry<String, Integer> entry;
+    private BiFunction<String, Integer, Long> function;
+    private Set<List<Map<String, List<FootprintTest>>>> nested;
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static int sizeOf(Class<?> type) {
+        if (type == long.class || type == double.class) return 8;
+        if (type == int.class || type == float.class) return 4;
+        if (type == short.class || type == char.class) return 2;
+        if (type == byte.class || type == boolean.class) return 1;
+        return REFERENCE;
+    }
+
+    private static long shallowSize(Object o) {
+        Class<?> c = o.getClass();
+        if (c.isArray()) return align(ARRAY_HEADER + (long) Array.getLength(o) * sizeOf(c.getComponentType()));
+        long size = OBJECT_HEADER;
+        for (Class<?> k = c; k != null; k = k.getSuperclass()) {
+            for (Field f : k.getDeclaredFields()) {
+                if (!Modifier.isStatic(f.getModifiers())) size += sizeOf(f.getType());
+            }
+        }
+        return align(size);
+    }
+
+    /**
+     * Sums the footprint of the given {@link Type} and of the objects that belong only to it, i.e., excluding the classes,
+     * the lazily computed names and the other types that it refers to.
+     */
+    private static long footprint(Type type) throws IllegalAccessException {
+        return footprint(type, type, new IdentityHashMap<>());
+    }
+
+    private static long footprint(Object root, Object o, IdentityHashMap<Object, Boolean> seen) throws IllegalAccessException {
+        if (o == null || seen.put(o, Boolean.TRUE) != null) return 0;
+        if (o instanceof Class<?> || o instanceof String || (o instanceof Type && o != root)) return 0;
+        long size = shallowSize(o);
+        if (o instanceof Object[]) {
+            for (Object e : (Object[]) o) {
+                size += footprint(root, e, seen);
+            }
+            return size;
+        }
+        for (Class<?> k = o.getClass(); k != null; k = k.getSuperclass()) {
+            for (Field f : k.getDeclaredFields()) {
+                if (Modifier.isStatic(f.getModifiers()) || f.getType().isPrimitive()) continue;
+                f.setAccessible(true);
+                size += footprint(root, f.get(o), seen);
+            }
+        }
+        return size;
+    }
+
+    private static ParameterizedType declared(String field) throws NoSuchFieldException {
+        return (ParameterizedType) FootprintTest.class.getDeclaredField(field).getGenericType();
+    }
+
+    private static boolean holdsArrays(Object o) throws IllegalAccessException {
+        for (Class<?> k = o.getClass(); k != null; k = k.getSuperclass()) {
+            for (Field f : k.getDeclaredFields()) {
+                if (Modifier.isStatic(f.getModifiers()) || f.getType().isPrimitive()) continue;
+                f.setAccessible(true);
+                Object value = f.get(o);
+                if (value != null && value.getClass().isArray()) return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testCompactTypes() throws Exception {
+        Type list = new Token<List<String>>() {}.getReified().getType();
+        Type map = new Token<Map<String, Integer>>() {}.getReified().getType();
+        Type entry = new Token<Map.Entry<String, Integer>>() {}.getReified().getType();
+        Type function = new Token<BiFunction<String, Integer, Long>>() {}.getReified().getType();
+
+        // An explicit owner that isn't the declaring class forces the general representation even with a single argument.
+        Type general1 = Wrappers.make(List.class, new Type[] {String.class}, Object.class);
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(32L, footprint(list)),
+                () -> Assertions.assertEquals(32L, footprint(map)),
+                () -> Assertions.assertEquals(32L, footprint(entry)),
+                () -> Assertions.assertEquals(56L, footprint(general1)),
+                () -> Assertions.assertTrue(footprint(list) < footprint(general1)),
+                () -> Assertions.assertTrue(holdsArrays(general1)),
+                () -> Assertions.assertTrue(footprint(function) > footprint(map)),
+                () -> Assertions.assertFalse(holdsArrays(list)),
+                () -> Assertions.assertFalse(holdsArrays(map)),
+                () -> Assertions.assertTrue(holdsArrays(function))
+        );
+    }
+
+    @Test
+    public void testCompactReifiedGenerics() throws Exception {
+        ReifiedGeneric<?> list = new Token<List<String>>() {}.getReified();
+        ReifiedGeneric<?> map = new Token<Map<String, Integer>>() {}.getReified();
+        Assertions.assertAll(
+                () -> Assertions.assertSame(ReifiedGeneric.of(String.class), list.typeArgument(0)),
+                () -> Assertions.assertSame(ReifiedGeneric.of(Integer.class), map.typeArgument(1)),
+                () -> Assertions.assertFalse(holdsArrays(list)),
+                () -> Assertions.assertFalse(holdsArrays(map)),
+                () -> Assertions.assertThrows(IndexOutOfBoundsException.class, () -> list.typeArgument(1)),
+                () -> Assertions.assertThrows(IndexOutOfBoundsException.class, () -> map.typeArgument(2))
+        );
+    }
+
+    @Test
+    public void testSameBehaviorAsJdk() throws Exception {
+        for (String name : List.of("list", "map", "entry", "function")) {
+            ParameterizedType jdk = declared(name);
+            Type ours = ReifiedGeneric.of(jdk).getType();
+            Assertions.assertAll(name,
+                    () -> Assertions.assertEquals(jdk, ours),
+                    () -> Assertions.assertEquals(ours, jdk),
+                    () -> Assertions.assertEquals(jdk.hashCode(), ours.hashCode()),
+                    () -> Assertions.assertEquals(jdk.getTypeName(), ours.getTypeName()),
+                    () -> Assertions.assertEquals(jdk.getOwnerType(), ((ParameterizedType) ours).getOwnerType()),
+                    () -> Assertions.assertArrayEquals(jdk.getActualTypeArguments(), ((ParameterizedType) ours).getActualTypeArguments())
+            );
+        }
+        Assertions.assertSame(Map.class, ((ParameterizedType) ReifiedGeneric.of(declared("entry")).getType()).getOwnerType());
+    }
+
+    @Test
+    public void testSharedSubterms() throws Exception {
+        ReifiedGeneric<?> list = new Token<List<FootprintTest>>() {}.getReified();
+        ReifiedGeneric<?> map = new Token<Map<String, List<FootprintTest>>>() {}.getReified();
+        ReifiedGeneric<?> set = new Token<Set<List<FootprintTest>>>() {}.getReified();
+        ReifiedGeneric<?> optional = new Token<Optional<List<FootprintTest>>>() {}.getReified();
+        ParameterizedType jdk = declared("nested");
+        ParameterizedType nested = (ParameterizedType) ReifiedGeneric.of(jdk).getType();
+        Type inner = nested.getActualTypeArguments()[0];
+        Assertions.assertAll(
+                () -> Assertions.assertSame(list.getType(), ((ParameterizedType) map.getType()).getActualTypeArguments()[1]),
+                () -> Assertions.assertSame(list.getType(), ((ParameterizedType) set.getType()).getActualTypeArguments()[0]),
+                () -> Assertions.assertSame(list.getType(), ((ParameterizedType) optional.getType()).getActualTypeArguments()[0]),
+                () -> Assertions.assertSame(list, map.typeArgument(1)),
+                () -> Assertions.assertSame(map.getType(), ((ParameterizedType) inner).getActualTypeArguments()[0]),
+                () -> Assertions.assertEquals(jdk, nested),
+                () -> Assertions.assertEquals(Integer.valueOf(jdk.hashCode()), Integer.valueOf(nested.hashCode()))
+        );
+    }
+}
@@ -0,0 +1,190 @@
+package ninja.javahacker.test.reifiedgeneric;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import ninja.javahacker.reifiedgeneric.InstanceCheck;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import ninja.javahacker.reifiedgeneric.Wrappers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+public class InstanceCheckTest {
+
+    private static final ReifiedGeneric<Map<String, List<Integer>>> MAP = new Token<Map<String, List<Integer>>>() {}.getReified();
+    private static final ReifiedGeneric<List<? extends Number>> NUMBERS = new Token<List<? extends Number>>() {}.getReified();
+    private static final ReifiedGeneric<Optional<List<Set<String>>[]>> ARRAY =
+            new Token<Optional<List<Set<String>>[]>>() {}.getReified();
+
+    public static class Names extends ArrayList<String> {
+        private static final long serialVersionUID = 1L;
+    }
+
+    public static class Payload {
+    }
+
+    private static List<Object> tainted(int size, int badIndex) {
+        List<Object> list = new ArrayList<>(Collections.nCopies(size, (Object) 1));
+        list.set(badIndex, "bad");
+        return list;
+    }
+
+    @Test
+    public void testFull() {
+        Map<String, Object> good = new HashMap<>();
+        good.put("a", List.of(1, 2, 3));
+        good.put("b", new LinkedList<>(Arrays.asList(4, null)));
+        good.put("c", null);
+        Map<String, Object> badValue = new TreeMap<>(good);
+        badValue.put("d", List.of(1, "x"));
+        Map<Object, Object> badKey = new HashMap<>(good);
+        badKey.put(5, List.of());
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(MAP.isInstance(good)),
+                () -> Assertions.assertTrue(MAP.isInstance(Map.of())),
+                () -> Assertions.assertFalse(MAP.isInstance(badValue)),
+                () -> Assertions.assertFalse(MAP.isInstance(badKey)),
+                () -> Assertions.assertFalse(MAP.isInstance(List.of())),
+                () -> Assertions.assertFalse(MAP.isInstance(null)),
+                () -> Assertions.assertTrue(NUMBERS.isInstance(List.of(1, 2.0, 3L))),
+                () -> Assertions.assertFalse(NUMBERS.isInstance(List.of(1, "2"))),
+                () -> Assertions.assertTrue(ReifiedGeneric.of(String.class).isInstance("x")),
+                () -> Assertions.assertFalse(ReifiedGeneric.of(String.class).isInstance(1))
+        );
+    }
+
+    @Test
+    public void testOtherContainers() {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<Set<String>>[] good = new List[] {List.of(Set.of("a")), null, List.of()};
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<Object>[] bad = new List[] {List.of(Set.of("a")), List.of(Set.of(1))};
+        ReifiedGeneric<?> optional = new Token<Optional<List<String>>>() {}.getReified();
+        ReifiedGeneric<?> entry = new Token<Map.Entry<String, Integer>>() {}.getReified();
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(ARRAY.isInstance(Optional.of(good))),
+                () -> Assertions.assertFalse(ARRAY.isInstance(Optional.of(bad))),
+                () -> Assertions.assertFalse(ARRAY.isInstance(Optional.of(new Set<?>[0]))),
+                () -> Assertions.assertTrue(optional.isInstance(Optional.of(List.of("a")))),
+                () -> Assertions.assertTrue(optional.isInstance(Optional.empty())),
+                () -> Assertions.assertFalse(optional.isInstance(Optional.of(List.of(1)))),
+                () -> Assertions.assertTrue(entry.isInstance(Map.entry("a", 1))),
+                () -> Assertions.assertFalse(entry.isInstance(Map.entry(1, "a"))),
+                () -> Assertions.assertTrue(ReifiedGeneric.of(Names.class).isInstance(new Names()))
+        );
+    }
+
+    @Test
+    public void testPolicies() {
+        ReifiedGeneric<List<Integer>> ints = new Token<List<Integer>>() {}.getReified();
+        List<Object> late = tainted(100, 99);
+        List<Object> early = tainted(100, 0);
+        List<Object> linked = new LinkedList<>(late);
+        List<Object> allBad = new ArrayList<>(Collections.nCopies(100, (Object) "bad"));
+        Assertions.assertAll(
+                () -> Assertions.assertFalse(ints.isInstance(late)),
+                () -> Assertions.assertTrue(ints.isInstance(late, InstanceCheck.firstN(10))),
+                () -> Assertions.assertFalse(ints.isInstance(early, InstanceCheck.firstN(10))),
+                () -> Assertions.assertTrue(ints.isInstance(linked, InstanceCheck.firstN(99))),
+                () -> Assertions.assertFalse(ints.isInstance(linked, InstanceCheck.firstN(100))),
+                () -> Assertions.assertFalse(ints.isInstance(allBad, InstanceCheck.sample(1))),
+                () -> Assertions.assertFalse(ints.isInstance(early, InstanceCheck.sample(100))),
+                () -> Assertions.assertTrue(ints.isInstance(tainted(100, 0), InstanceCheck.sample(0))),
+                () -> Assertions.assertThrows(IllegalArgumentException.class, () -> InstanceCheck.firstN(-1)),
+                () -> Assertions.assertThrows(IllegalArgumentException.class, () -> InstanceCheck.sample(-1)),
+                () -> Assertions.assertThrows(IllegalArgumentException.class, () -> InstanceCheck.parallel(0)),
+                () -> Assertions.assertEquals("InstanceCheck.sample(3)", InstanceCheck.sample(3).toString())
+        );
+    }
+
+    @Test
+    public void testSampleWithoutRandomAccess() {
+        ReifiedGeneric<List<Integer>> ints = new Token<List<Integer>>() {}.getReified();
+        List<Object> mostlyBad = new LinkedList<>(Collections.nCopies(10, (Object) 1));
+        mostlyBad.addAll(Collections.nCopies(990, "bad"));
+        Map<Integer, Object> map = new TreeMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i < 10 ? List.of(i) : List.of("bad"));
+        }
+        ReifiedGeneric<Map<Integer, List<Integer>>> mapType = new Token<Map<Integer, List<Integer>>>() {}.getReified();
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(ints.isInstance(mostlyBad, InstanceCheck.firstN(10))),
+                () -> Assertions.assertFalse(ints.isInstance(mostlyBad, InstanceCheck.sample(10))),
+                () -> Assertions.assertTrue(ints.isInstance(mostlyBad, InstanceCheck.sample(0))),
+                () -> Assertions.assertTrue(mapType.isInstance(map, InstanceCheck.firstN(10))),
+                () -> Assertions.assertFalse(mapType.isInstance(map, InstanceCheck.sample(10)))
+        );
+    }
+
+    @Test
+    public void testParallel() {
+        ReifiedGeneric<List<Integer>> ints = new Token<List<Integer>>() {}.getReified();
+        ReifiedGeneric<Set<List<Integer>>> nested = new Token<Set<List<Integer>>>() {}.getReified();
+        InstanceCheck parallel = InstanceCheck.parallel(1000);
+        List<Object> big = tainted(100_000, 77_777);
+        List<Object> fine = new ArrayList<>(Collections.nCopies(100_000, (Object) 1));
+        Assertions.assertAll(
+                () -> Assertions.assertFalse(ints.isInstance(big, parallel)),
+                () -> Assertions.assertTrue(ints.isInstance(fine, parallel)),
+                () -> Assertions.assertFalse(ints.isInstance(new LinkedList<>(big), parallel)),
+                () -> Assertions.assertTrue(nested.isInstance(Set.of(fine, List.of(1)), parallel)),
+                () -> Assertions.assertFalse(nested.isInstance(Set.of(fine, big), parallel))
+        );
+    }
+
+    @Test
+    public void testCheckedCast() {
+        Map<String, List<Integer>> good = Map.of("a", List.of(1));
+        Object bad = Map.of("a", List.of("b"));
+        Assertions.assertAll(
+                () -> Assertions.assertSame(good, MAP.checkedCast(good)),
+                () -> Assertions.assertNull(MAP.checkedCast(null)),
+                () -> Assertions.assertSame(bad, MAP.checkedCast(bad, InstanceCheck.firstN(0))),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> MAP.checkedCast(bad)),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> MAP.checkedCast("x"))
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<WeakReference<?>> useMixedType() throws ReflectiveOperationException {
+        Class<?> a = IsolatedLoader.copyOf(Payload.class);
+        Class<?> b = IsolatedLoader.copyOf(Payload.class);
+        ReifiedGeneric<?> type = Wrappers.map(ReifiedGeneric.of(a), ReifiedGeneric.of(b));
+        ReifiedGeneric<Object> mixed = (ReifiedGeneric<Object>) type;
+        Object good = Map.of(a.getConstructor().newInstance(), b.getConstructor().newInstance());
+        Object bad = Map.of(b.getConstructor().newInstance(), a.getConstructor().newInstance());
+        List<Object> checked = Wrappers.checkedList(new ArrayList<>(), mixed);
+        checked.add(good);
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(mixed.isInstance(good)),
+                () -> Assertions.assertFalse(mixed.isInstance(bad)),
+                () -> Assertions.assertSame(good, mixed.checkedCast(good)),
+                () -> Assertions.assertThrows(ClassCastException.class, () -> checked.add(bad))
+        );
+        return List.of(new WeakReference<>(mixed), new WeakReference<>(a.getClassLoader()), new WeakReference<>(b.getClassLoader()));
+    }
+
+    @Test
+    public void testMixedTypesUnload() throws Exception {
+        List<WeakReference<?>> refs = useMixedType();
+        IsolatedLoader.assertCollected(refs.get(0));
+
+        // Interning some other type purges the key of the collected one.
+        Runnable purge = () -> ReifiedGeneric.of(Wrappers.make(List.class, new Type[] {Payload.class}, null));
+        IsolatedLoader.assertCollected(refs.get(1), purge);
+        IsolatedLoader.assertCollected(refs.get(2), purge);
+    }
+}
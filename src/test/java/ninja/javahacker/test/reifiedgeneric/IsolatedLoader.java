@@ -0,0 +1,97 @@
+package ninja.javahacker.test.reifiedgeneric;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+
+/**
+ * Defines a fresh copy of a class in a class loader of its own, so tests can check that something doesn't prevent
+ * that class loader from being unloaded.
+ * @author Victor Williams Stafusa da Silva
+ */
+final class IsolatedLoader extends ClassLoader {
+
+    private final Set<String> hidden;
+
+    private IsolatedLoader(Set<String> hidden) {
+        super(IsolatedLoader.class.getClassLoader());
+        this.hidden = hidden;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (hidden.contains(name)) throw new ClassNotFoundException(name);
+        return super.loadClass(name, resolve);
+    }
+
+    /**
+     * Defines a copy of the given class in a new class loader. Every other class is still loaded by the class loader of
+     * the tests.
+     * @param type The class to be copied. It shouldn't need to reach its enclosing class, if any.
+     * @return The copy.
+     */
+    static Class<?> copyOf(Class<?> type) {
+        return copyOf(type, Set.of());
+    }
+
+    /**
+     * Defines a copy of the given class in a new class loader which behaves as if some classes were missing.
+     * @param type The class to be copied. It shouldn't need to reach its enclosing class, if any.
+     * @param hidden The classes that the copy can't load.
+     * @return The copy.
+     */
+    static Class<?> copyOf(Class<?> type, Class<?>... hidden) {
+        Set<String> names = new HashSet<>();
+        for (Class<?> h : hidden) {
+            names.add(h.getName());
+        }
+        return copyOf(type, names);
+    }
+
+    private static Class<?> copyOf(Class<?> type, Set<String> hidden) {
+        String resource = type.getName().replace('.', '/') + ".class";
+        try (InputStream in = type.getClassLoader().getResourceAsStream(resource)) {
+            Assertions.assertNotNull(in, resource);
+            byte[] bytes = in.readAllBytes();
+            return new IsolatedLoader(hidden).defineClass(type.getName(), bytes, 0, bytes.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Asserts that the referent of the given reference is garbage collected, pressing the garbage collector for that.
+     * @param ref The reference.
+     */
+    static void assertCollected(WeakReference<?> ref) {
+        assertCollected(ref, () -> { });
+    }
+
+    /**
+     * Asserts that the referent of the given reference is garbage collected, pressing the garbage collector for that and
+     * running something between each attempt, e.g. to let caches purge their stale entries.
+     * @param ref The reference.
+     * @param between What to run between each attempt.
+     */
+    static void assertCollected(WeakReference<?> ref, Runnable between) {
+        List<long[]> garbage = new ArrayList<>();
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            garbage.add(new long[1 << 16]);
+            System.gc();
+            between.run();
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        Assertions.assertNull(ref.get());
+    }
+}
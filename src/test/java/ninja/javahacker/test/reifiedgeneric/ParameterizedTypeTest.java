@@ -4,6 +4,7 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import ninja.javahacker.reifiedgeneric.Wrappers;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -52,6 +53,14 @@ public class ParameterizedTypeTest {
         throw new UnsupportedOperationException();
     }
 
+    private static Map<String, Map<String, List<Long>>> foo7() {
+        throw new UnsupportedOperationException();
+    }
+
+    private static Map.Entry<String, Long> foo8() {
+        throw new UnsupportedOperationException();
+    }
+
     private static int unhash(ParameterizedType x) {
         Type owner = x.getOwnerType();
         return x.getRawType().hashCode()
@@ -115,4 +124,21 @@ public class ParameterizedTypeTest {
         ParameterizedType t = Wrappers.make(List.class, p.getActualTypeArguments(), null);
         verify(p, t, "java.util.List<T>");
     }
+
+    @Test
+    public void deepParameterizedTest() throws Exception {
+        ParameterizedType p = reflect("foo7");
+        ParameterizedType list = Wrappers.make(List.class, new Type[] {Long.class}, null);
+        ParameterizedType inner = Wrappers.make(Map.class, new Type[] {String.class, list}, null);
+        ParameterizedType t = Wrappers.make(Map.class, new Type[] {String.class, inner}, null);
+        verify(p, t, "java.util.Map<java.lang.String, java.util.Map<java.lang.String, java.util.List<java.lang.Long>>>");
+        Assertions.assertSame(t.toString(), t.toString());
+        Assertions.assertSame(t.getTypeName(), t.toString());
+    }
+
+    @Test
+    public void staticNestedParameterizedTest() throws Exception {
+        ParameterizedType t = Wrappers.make(Map.Entry.class, new Type[] {String.class, Long.class}, Map.class);
+        verify(reflect("foo8"), t, "java.util.Map$Entry<java.lang.String, java.lang.Long>");
+    }
 }
@@ -0,0 +1,118 @@
+package ninja.javahacker.test.reifiedgeneric;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import ninja.javahacker.reifiedgeneric.MalformedReifiedGenericException;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+public class ParseTest {
+
+    private static final ClassLoader LOADER = ParseTest.class.getClassLoader();
+
+    @SuppressWarnings("unused")
+    private static class Outer<A> {
+        private class Inner {
+        }
+
+        private class Inner2<B> {
+        }
+
+        private class Mid {
+            private class Inner3<C> {
+            }
+        }
+    }
+
+    private static void roundTrip(ReifiedGeneric<?> expected) {
+        String name = expected.getType().getTypeName();
+        Assertions.assertAll(
+                () -> Assertions.assertSame(expected, ReifiedGeneric.parse(name, LOADER), name),
+                () -> Assertions.assertSame(expected, ReifiedGeneric.parse(name, LOADER), name + " (cached)"),
+                () -> Assertions.assertSame(expected, ReifiedGeneric.parse(new StringBuilder(name), LOADER), name + " (builder)"),
+                () -> Assertions.assertSame(expected, ReifiedGeneric.parse(expected.toString(), LOADER), expected.toString())
+        );
+    }
+
+    @Test
+    public void testParseClasses() {
+        roundTrip(ReifiedGeneric.of(String.class));
+        roundTrip(ReifiedGeneric.of(int.class));
+        roundTrip(ReifiedGeneric.of(int[][].class));
+        roundTrip(ReifiedGeneric.of(String[].class));
+        roundTrip(ReifiedGeneric.of(Map.Entry.class));
+        roundTrip(ReifiedGeneric.of(Outer.Inner.class));
+    }
+
+    @Test
+    public void testParseParameterized() {
+        roundTrip(new Token<List<String>>() {}.getReified());
+        roundTrip(new Token<Map<String, List<int[]>>>() {}.getReified());
+        roundTrip(new Token<Map.Entry<String, Integer>>() {}.getReified());
+        roundTrip(new Token<List<? extends Number>>() {}.getReified());
+        roundTrip(new Token<List<? super Integer>>() {}.getReified());
+        roundTrip(new Token<List<?>>() {}.getReified());
+        roundTrip(new Token<List<List<String>[]>>() {}.getReified());
+        roundTrip(new Token<Function<? super String[], ? extends List<?>>>() {}.getReified());
+    }
+
+    @Test
+    public void testParseNestedOwners() {
+        roundTrip(new Token<Outer<String>.Inner>() {}.getReified());
+        roundTrip(new Token<Outer<String>.Inner2<Integer>>() {}.getReified());
+        roundTrip(new Token<List<Outer<List<String>>.Inner2<Outer<Integer>.Inner>>>() {}.getReified());
+        roundTrip(new Token<Outer<String>.Mid>() {}.getReified());
+        roundTrip(new Token<Outer<String>.Mid.Inner3<Integer>>() {}.getReified());
+        roundTrip(new Token<Map<Outer<String>.Mid.Inner3<Integer>, Outer<Long>.Mid.Inner3<int[]>>>() {}.getReified());
+    }
+
+    @Test
+    public void testParseSpacing() {
+        ReifiedGeneric<?> expected = new Token<Map<String, List<? extends Number>>>() {}.getReified();
+        String name = " java.util.Map <java.lang.String,java.util.List< ? extends java.lang.Number > > ";
+        Assertions.assertSame(expected, ReifiedGeneric.parse(name, LOADER));
+    }
+
+    @Test
+    public void testParseUnrealizable() {
+        Assertions.assertAll(
+                () -> Assertions.assertThrows(MalformedReifiedGenericException.class, () -> ReifiedGeneric.parse("?", LOADER)),
+                () -> Assertions.assertThrows(
+                        MalformedReifiedGenericException.class,
+                        () -> ReifiedGeneric.parse("? extends java.lang.String", LOADER)),
+                () -> Assertions.assertThrows(
+                        MalformedReifiedGenericException.class,
+                        () -> ReifiedGeneric.parse("java.util.List<java.lang.String>[]", LOADER)),
+                () -> Assertions.assertThrows(
+                        MalformedReifiedGenericException.class,
+                        () -> ReifiedGeneric.parse("java.util.List<java.lang.String, java.lang.String>", LOADER))
+        );
+    }
+
+    @Test
+    public void testParseMalformed() {
+        String[] bad = {
+            "", "T", "java.util.List<T>", "java.util.List<", "java.util.List<java.lang.String", "java.util.List<>",
+            "java.lang.String>", "java.lang.String[", "java.util.List<java.lang.String>$", "123", "java.util.List<?extends>"
+        };
+        for (String b : bad) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ReifiedGeneric.parse(b, LOADER), b);
+        }
+    }
+
+    @Test
+    public void testParseTooDeep() {
+        String deep = "java.util.List<".repeat(20_000) + "java.lang.String" + ">".repeat(20_000);
+        var ex = Assertions.assertThrows(IllegalArgumentException.class, () -> ReifiedGeneric.parse(deep, LOADER));
+        Assertions.assertTrue(ex.getMessage().startsWith("Type nested too deeply"), ex.getMessage());
+
+        String fine = "java.util.List<".repeat(255) + "java.lang.String" + ">".repeat(255);
+        Assertions.assertEquals(fine, ReifiedGeneric.parse(fine, LOADER).getType().getTypeName());
+    }
+}
@@ -1,11 +1,18 @@
 package ninja.javahacker.test.reifiedgeneric;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import ninja.javahacker.reifiedgeneric.MalformedReifiedGenericException;
 import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
 import ninja.javahacker.reifiedgeneric.Token;
+import ninja.javahacker.reifiedgeneric.Wrappers;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
@@ -247,4 +254,192 @@ public class ReifiedGenericTest {
                 () -> Assertions.assertFalse(s3.equals("foo"))
         );
     }
+
+    @Test
+    public void testCanonicalInstances() throws Exception {
+        ReifiedGeneric<String> s = ReifiedGeneric.of(String.class);
+        ReifiedGeneric<List<String>> s1 = new Token<List<String>>() {}.getReified();
+        ReifiedGeneric<List<String>> s2 = new Token<List<String>>() {}.getReified();
+        ReifiedGeneric<?> s3 = ReifiedGeneric.of(ReifiedGenericTest.class.getDeclaredMethod("foo5").getGenericReturnType());
+        ReifiedGeneric<?> s4 = ReifiedGeneric.of(Wrappers.make(List.class, new Type[] {String.class}, null));
+        ReifiedGeneric<Map<String, List<String>>> m1 = new Token<Map<String, List<String>>>() {}.getReified();
+        ReifiedGeneric<Map<String, List<String>>> m2 = Wrappers.map(s, s1);
+        Assertions.assertAll("same",
+                () -> Assertions.assertSame(s, ReifiedGeneric.of(String.class)),
+                () -> Assertions.assertSame(s, new Token<String>() {}.getReified()),
+                () -> Assertions.assertSame(s1, s2),
+                () -> Assertions.assertSame(s1, s3),
+                () -> Assertions.assertSame(s1, s4),
+                () -> Assertions.assertSame(s1, Wrappers.list(s)),
+                () -> Assertions.assertSame(m1, m2)
+        );
+    }
+
+    private List<String> foo5() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Test
+    public void testTypeArguments() {
+        ReifiedGeneric<Map<String, List<Integer>>> m = new Token<Map<String, List<Integer>>>() {}.getReified();
+        ReifiedGeneric<List<? extends String>> w = new Token<List<? extends String>>() {}.getReified();
+        ReifiedGeneric<String> s = ReifiedGeneric.of(String.class);
+        Assertions.assertAll("tests",
+                () -> Assertions.assertEquals(2, m.typeArgumentCount()),
+                () -> Assertions.assertSame(s, m.typeArgument(0)),
+                () -> Assertions.assertSame(new Token<List<Integer>>() {}.getReified(), m.typeArgument(1)),
+                () -> Assertions.assertSame(m.typeArgument(1), m.typeArgument(1)),
+                () -> Assertions.assertSame(ReifiedGeneric.of(Integer.class), m.typeArgument(1).typeArgument(0)),
+                () -> Assertions.assertEquals(0, s.typeArgumentCount()),
+                () -> Assertions.assertEquals(1, w.typeArgumentCount()),
+                () -> Assertions.assertThrows(IndexOutOfBoundsException.class, () -> m.typeArgument(2)),
+                () -> Assertions.assertThrows(IndexOutOfBoundsException.class, () -> m.typeArgument(-1)),
+                () -> Assertions.assertThrows(IndexOutOfBoundsException.class, () -> s.typeArgument(0)),
+                () -> shouldThrow(MalformedReifiedGenericException.WILDCARD_ERROR_MESSAGE, () -> w.typeArgument(0))
+        );
+    }
+
+    private static class Foo implements Iterable<String> {
+        @Override
+        public Iterator<String> iterator() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class Outer<T> {
+        private class Inner extends ArrayList<T> {
+            private static final long serialVersionUID = 1L;
+        }
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void testAsSupertype() {
+        ReifiedGeneric<HashMap<String, Integer>> h = new Token<HashMap<String, Integer>>() {}.getReified();
+        ReifiedGeneric<Map<String, Integer>> m = new Token<Map<String, Integer>>() {}.getReified();
+        ReifiedGeneric<ArrayList<List<String>>> a = new Token<ArrayList<List<String>>>() {}.getReified();
+        ReifiedGeneric<Collection<List<String>>> c = new Token<Collection<List<String>>>() {}.getReified();
+        ReifiedGeneric<Iterable<String>> i = new Token<Iterable<String>>() {}.getReified();
+        ReifiedGeneric<ArrayList> r = ReifiedGeneric.of(ArrayList.class);
+        ReifiedGeneric<String> s = ReifiedGeneric.of(String.class);
+        Assertions.assertAll("tests",
+                () -> Assertions.assertSame(m, h.asSupertype(Map.class)),
+                () -> Assertions.assertSame(h.asSupertype(Map.class), h.asSupertype(Map.class)),
+                () -> Assertions.assertSame(h, h.asSupertype(HashMap.class)),
+                () -> Assertions.assertSame(c, a.asSupertype(Collection.class)),
+                () -> Assertions.assertSame(i, ReifiedGeneric.of(Foo.class).asSupertype(Iterable.class)),
+                () -> Assertions.assertSame(ReifiedGeneric.of(Iterable.class), r.asSupertype(Iterable.class)),
+                () -> Assertions.assertSame(ReifiedGeneric.of(Object.class), i.asSupertype(Object.class)),
+                () -> Assertions.assertSame(ReifiedGeneric.of(CharSequence.class), s.asSupertype(CharSequence.class)),
+                () -> Assertions.assertSame(ReifiedGeneric.of(List.class), ReifiedGeneric.of(Outer.Inner.class).asSupertype(List.class))
+        );
+        var ex = Assertions.assertThrows(IllegalArgumentException.class, () -> h.asSupertype(List.class));
+        Assertions.assertEquals("java.util.HashMap is not a subtype of java.util.List.", ex.getMessage());
+    }
+
+    @Test
+    public void testTryOf() throws NoSuchMethodException {
+        var typeVariable = ReifiedGenericTest.class.getDeclaredMethod("foo1").getGenericReturnType();
+        var genericArray = ReifiedGenericTest.class.getDeclaredMethod("foo2").getGenericReturnType();
+        var parameterized = ReifiedGenericTest.class.getDeclaredMethod("foo3").getGenericReturnType();
+        var wildcard = ((ParameterizedType) parameterized).getActualTypeArguments()[0];
+        var list = new Token<List<String>>() {}.getReified();
+        Assertions.assertAll(
+                () -> Assertions.assertSame(ReifiedGeneric.of(String.class), ReifiedGeneric.tryOf(String.class).get()),
+                () -> Assertions.assertSame(list, ReifiedGeneric.tryOf(list.getType()).toOptional().orElseThrow()),
+                () -> Assertions.assertTrue(ReifiedGeneric.tryOf(parameterized).isSuccess()),
+                () -> Assertions.assertNull(ReifiedGeneric.tryOf(parameterized).getReason()),
+                () -> Assertions.assertEquals(
+                        MalformedReifiedGenericException.Reason.TYPE_VARIABLE,
+                        ReifiedGeneric.tryOf(typeVariable).getReason()),
+                () -> Assertions.assertEquals(
+                        MalformedReifiedGenericException.Reason.GENERIC_ARRAY,
+                        ReifiedGeneric.tryOf(genericArray).getReason()),
+                () -> Assertions.assertEquals(
+                        MalformedReifiedGenericException.Reason.WILDCARD,
+                        ReifiedGeneric.tryOf(wildcard).getReason()),
+                () -> Assertions.assertSame(ReifiedGeneric.tryOf(wildcard), ReifiedGeneric.tryOf(wildcard)),
+                () -> Assertions.assertFalse(ReifiedGeneric.tryOf(wildcard).isSuccess()),
+                () -> Assertions.assertTrue(ReifiedGeneric.tryOf(wildcard).toOptional().isEmpty()),
+                () -> shouldThrow(MalformedReifiedGenericException.WILDCARD_ERROR_MESSAGE, () -> ReifiedGeneric.tryOf(wildcard).get())
+        );
+    }
+
+    private static ParameterizedType foreign(Class<?> raw, Type... args) {
+        return new ParameterizedType() {
+            @Override
+            public Type[] getActualTypeArguments() {
+                return args.clone();
+            }
+
+            @Override
+            public Type getRawType() {
+                return raw;
+            }
+
+            @Override
+            public Type getOwnerType() {
+                return null;
+            }
+        };
+    }
+
+    @Test
+    public void testTryOfWrongArity() {
+        var tooMany = foreign(List.class, String.class, String.class);
+        var nested = foreign(Map.class, String.class, tooMany);
+        var illDefined = MalformedReifiedGenericException.Reason.ILL_DEFINED;
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(illDefined, ReifiedGeneric.tryOf(tooMany).getReason()),
+                () -> Assertions.assertEquals(illDefined, ReifiedGeneric.tryOf(nested).getReason()),
+                () -> Assertions.assertTrue(ReifiedGeneric.tryOf(foreign(Map.class, String.class, Integer.class)).isSuccess())
+        );
+    }
+
+    @Test
+    public void testExceptionReasons() {
+        for (var reason : MalformedReifiedGenericException.Reason.values()) {
+            var full = MalformedReifiedGenericException.of(reason);
+            var stackless = MalformedReifiedGenericException.stackless(reason);
+            Assertions.assertAll(
+                    () -> Assertions.assertSame(reason, full.getReason()),
+                    () -> Assertions.assertSame(reason, stackless.getReason()),
+                    () -> Assertions.assertEquals(reason.getMessage(), full.getMessage()),
+                    () -> Assertions.assertEquals(reason.getMessage(), stackless.getMessage()),
+                    () -> Assertions.assertNotEquals(0, full.getStackTrace().length),
+                    () -> Assertions.assertEquals(0, stackless.getStackTrace().length)
+            );
+        }
+        Assertions.assertSame(MalformedReifiedGenericException.Reason.RAW, MalformedReifiedGenericException.raw().getReason());
+        Assertions.assertSame(
+                MalformedReifiedGenericException.Reason.ILL_DEFINED,
+                MalformedReifiedGenericException.illDefined(new RuntimeException()).getReason());
+    }
+
+    @Test
+    public void testThrownExceptionsHaveStackTraces() {
+        Type wildcard = Wrappers.makeWildcard(new Type[] {Object.class}, new Type[0]);
+        var thrown = Assertions.assertThrows(MalformedReifiedGenericException.class, () -> ReifiedGeneric.of(wildcard));
+        var result = ReifiedGeneric.tryOf(wildcard);
+        var fromResult = Assertions.assertThrows(MalformedReifiedGenericException.class, result::get);
+        var illDefined = MalformedReifiedGenericException.illDefined(new RuntimeException());
+        Assertions.assertAll(
+                () -> Assertions.assertNotEquals(0, thrown.getStackTrace().length),
+                () -> Assertions.assertNotEquals(0, illDefined.getStackTrace().length),
+                () -> Assertions.assertEquals(0, fromResult.getStackTrace().length)
+        );
+    }
+
+    private static WeakReference<ReifiedGeneric<?>> useJdkOnlyType() {
+        Type type = Wrappers.make(Map.class, new Type[] {Thread.State.class, Character.UnicodeScript.class}, null);
+        ReifiedGeneric<?> reified = ReifiedGeneric.of(type);
+        Assertions.assertSame(reified, ReifiedGeneric.of(type));
+        return new WeakReference<>(reified);
+    }
+
+    @Test
+    public void testUnusedJdkOnlyTypesAreCollected() {
+        IsolatedLoader.assertCollected(useJdkOnlyType());
+    }
 }
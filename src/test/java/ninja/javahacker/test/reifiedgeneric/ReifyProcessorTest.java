@@ -0,0 +1,151 @@
+package ninja.javahacker.test.reifiedgeneric;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import ninja.javahacker.reifiedgeneric.processor.ReifyProcessor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+public class ReifyProcessorTest {
+
+    private static final String SAMPLE = String.join("\n",
+            "package sample;",
+            "",
+            "import java.util.*;",
+            "import ninja.javahacker.reifiedgeneric.*;",
+            "",
+            "public class Sample {",
+            "    public static class Outer<A> {",
+            "        public class Inner<B> {",
+            "        }",
+            "    }",
+            "",
+            "    @Reify public static final ReifiedGeneric<Map<String, List<Integer>>> MAP = Sample_Reified.MAP;",
+            "    @Reify public static final ReifiedGeneric<String> PLAIN = Sample_Reified.PLAIN;",
+            "    @Reify public static final ReifiedGeneric<List> RAW = Sample_Reified.RAW;",
+            "    @Reify public static final ReifiedGeneric<int[][]> INTS = Sample_Reified.INTS;",
+            "    @Reify public static final ReifiedGeneric<List<? extends Number>> EXTENDS = Sample_Reified.EXTENDS;",
+            "    @Reify public static final ReifiedGeneric<Comparator<? super Integer>> SUPER = Sample_Reified.SUPER;",
+            "    @Reify public static final ReifiedGeneric<Map<?, List<String>[]>> ARRAY = Sample_Reified.ARRAY;",
+            "    @Reify public static final ReifiedGeneric<Outer<String>.Inner<Long>> INNER = Sample_Reified.INNER;",
+            "",
+            "    public static class Nested {",
+            "        @Reify public static final ReifiedGeneric<Set<Outer<Double>>> SET = Sample_Nested_Reified.SET;",
+            "    }",
+            "}",
+            "");
+
+    private static final String BROKEN = String.join("\n",
+            "package sample;",
+            "",
+            "import java.util.*;",
+            "import ninja.javahacker.reifiedgeneric.*;",
+            "",
+            "public class Broken<T> {",
+            "    private static class Hidden {",
+            "    }",
+            "",
+            "    @Reify ReifiedGeneric<List<T>> variable;",
+            "    @Reify ReifiedGeneric<List<Hidden>> hidden;",
+            "    @Reify ReifiedGeneric<List<String>[]> array;",
+            "    @Reify String notReified;",
+            "}",
+            "");
+
+    private static List<Diagnostic<? extends JavaFileObject>> compile(Path dir, String name, String source) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Assertions.assertNotNull(compiler, "A JDK is needed to run this test.");
+        Path src = dir.resolve("src/sample/" + name + ".java");
+        Files.createDirectories(src.getParent());
+        Files.writeString(src, source, StandardCharsets.UTF_8);
+        Path out = Files.createDirectories(dir.resolve("out"));
+        Path generated = Files.createDirectories(dir.resolve("generated"));
+        String classpath = Stream.of(System.getProperty("java.class.path"), System.getProperty("jdk.module.path"))
+                .filter(s -> s != null && !s.isEmpty())
+                .collect(Collectors.joining(File.pathSeparator));
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            List<String> options = List.of("-classpath", classpath, "-d", out.toString(), "-s", generated.toString());
+            JavaCompiler.CompilationTask task =
+                    compiler.getTask(null, files, diagnostics, options, null, files.getJavaFileObjects(src.toFile()));
+            task.setProcessors(List.of(new ReifyProcessor()));
+            task.call();
+        }
+        return diagnostics.getDiagnostics();
+    }
+
+    private static String errors(List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+        return diagnostics.stream()
+                .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                .map(d -> d.getMessage(null))
+                .collect(Collectors.joining("\n"));
+    }
+
+    @Test
+    public void testGeneratedConstants() throws Exception {
+        Path dir = Files.createTempDirectory("reify");
+        String errors = errors(compile(dir, "Sample", SAMPLE));
+        Assertions.assertEquals("", errors);
+
+        Path out = dir.resolve("out");
+        try (Stream<Path> s = Files.walk(out)) {
+            List<String> anonymous = s.map(p -> p.getFileName().toString())
+                    .filter(n -> n.matches(".*\\$\\d+\\.class"))
+                    .collect(Collectors.toList());
+            Assertions.assertEquals(List.of(), anonymous);
+        }
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {out.toUri().toURL()}, ReifyProcessorTest.class.getClassLoader())) {
+            int count = 0;
+            for (String name : List.of("sample.Sample", "sample.Sample$Nested")) {
+                for (Field f : Class.forName(name, true, loader).getDeclaredFields()) {
+                    if (!Modifier.isStatic(f.getModifiers())) continue;
+                    ParameterizedType declared = (ParameterizedType) f.getGenericType();
+                    ReifiedGeneric<?> expected = ReifiedGeneric.of(declared.getActualTypeArguments()[0]);
+                    Assertions.assertSame(expected, f.get(null), f.getName());
+                    count++;
+                }
+            }
+            Assertions.assertEquals(9, count);
+            Assertions.assertSame(
+                    new Token<Map<String, List<Integer>>>() {}.getReified(),
+                    Class.forName("sample.Sample", true, loader).getField("MAP").get(null));
+        }
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        Path dir = Files.createTempDirectory("reify");
+        String errors = errors(compile(dir, "Broken", BROKEN));
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(errors.contains("Type variables can't be reified: T."), errors),
+                () -> Assertions.assertTrue(errors.contains("is not accessible from the generated holder."), errors),
+                () -> Assertions.assertTrue(errors.contains("Generic arrays can't be reified"), errors),
+                () -> Assertions.assertTrue(errors.contains("@Reify fields must be of a parameterized ReifiedGeneric type."), errors),
+                () -> Assertions.assertFalse(Files.exists(dir.resolve("generated/sample/Broken_Reified.java")))
+        );
+    }
+}
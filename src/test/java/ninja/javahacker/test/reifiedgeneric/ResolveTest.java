@@ -0,0 +1,147 @@
+package ninja.javahacker.test.reifiedgeneric;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.List;
+import java.util.Map;
+import ninja.javahacker.reifiedgeneric.MalformedReifiedGenericException;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+@SuppressWarnings("unused")
+public class ResolveTest {
+
+    private static class Box<T> {
+        private T value;
+        private List<T> values;
+        private T[] array;
+        private Map<String, ? extends T> map;
+        private int count;
+
+        public T get() {
+            throw new UnsupportedOperationException();
+        }
+
+        public <U> Map<T, U> pair(U other) {
+            throw new UnsupportedOperationException();
+        }
+
+        public <U> U bare() {
+            throw new UnsupportedOperationException();
+        }
+
+        public void set(T value, List<? super T> sink) {
+            throw new UnsupportedOperationException();
+        }
+
+        private class Inner {
+            private T outerValue;
+            private List<T> outerValues;
+            private List<String> names;
+        }
+    }
+
+    private interface Repository<E> {
+        public List<E> findAll();
+    }
+
+    private static class StringBox extends Box<String> {
+    }
+
+    private abstract static class UserRepository implements Repository<Integer> {
+    }
+
+    private static Field field(String name) throws NoSuchFieldException {
+        return Box.class.getDeclaredField(name);
+    }
+
+    private static Method method(String name) {
+        for (Method m : Box.class.getDeclaredMethods()) {
+            if (m.getName().equals(name)) return m;
+        }
+        throw new AssertionError(name);
+    }
+
+    @Test
+    public void testResolveField() throws Exception {
+        ReifiedGeneric<?> box = new Token<Box<String>>() {}.getReified();
+        Assertions.assertAll(
+                () -> Assertions.assertSame(ReifiedGeneric.of(String.class), box.resolve(field("value"))),
+                () -> Assertions.assertSame(new Token<List<String>>() {}.getReified(), box.resolve(field("values"))),
+                () -> Assertions.assertSame(ReifiedGeneric.of(String[].class), box.resolve(field("array"))),
+                () -> Assertions.assertSame(
+                        new Token<Map<String, ? extends String>>() {}.getReified(),
+                        box.resolve(field("map"))),
+                () -> Assertions.assertSame(ReifiedGeneric.of(int.class), box.resolve(field("count")))
+        );
+    }
+
+    @Test
+    public void testResolveThroughSubclass() throws Exception {
+        ReifiedGeneric<?> sub = ReifiedGeneric.of(StringBox.class);
+        ReifiedGeneric<?> repo = ReifiedGeneric.of(UserRepository.class);
+        Method findAll = Repository.class.getMethod("findAll");
+        Assertions.assertAll(
+                () -> Assertions.assertSame(ReifiedGeneric.of(String.class), sub.resolve(field("value"))),
+                () -> Assertions.assertSame(ReifiedGeneric.of(String.class), sub.resolveReturnType(method("get"))),
+                () -> Assertions.assertSame(new Token<List<Integer>>() {}.getReified(), repo.resolveReturnType(findAll)),
+                () -> Assertions.assertSame(
+                        new Token<List<Long>>() {}.getReified(),
+                        new Token<Repository<Long>>() {}.getReified().resolveReturnType(findAll))
+        );
+    }
+
+    @Test
+    public void testResolveMethods() {
+        ReifiedGeneric<?> box = new Token<Box<Long>>() {}.getReified();
+        Parameter[] params = method("set").getParameters();
+        ReifiedGeneric<?> pair = box.resolveReturnType(method("pair"));
+        Assertions.assertAll(
+                () -> Assertions.assertSame(ReifiedGeneric.of(Long.class), box.resolveReturnType(method("get"))),
+                () -> Assertions.assertSame(ReifiedGeneric.of(Long.class), box.resolveParameter(params[0])),
+                () -> Assertions.assertSame(new Token<List<? super Long>>() {}.getReified(), box.resolveParameter(params[1])),
+                () -> Assertions.assertSame(Map.class, pair.asClass()),
+                () -> Assertions.assertSame(ReifiedGeneric.of(Long.class), pair.typeArgument(0)),
+                () -> Assertions.assertThrows(MalformedReifiedGenericException.class, () -> box.resolveReturnType(method("bare")))
+        );
+    }
+
+    @Test
+    public void testResolveInner() throws Exception {
+        ReifiedGeneric<?> inner = new Token<Box<Integer>.Inner>() {}.getReified();
+        Field f = Box.Inner.class.getDeclaredField("outerValue");
+        Assertions.assertSame(ReifiedGeneric.of(Integer.class), inner.resolve(f));
+    }
+
+    @Test
+    public void testResolveRaw() throws Exception {
+        ReifiedGeneric<?> raw = ReifiedGeneric.of(Box.class);
+        Assertions.assertAll(
+                () -> Assertions.assertSame(ReifiedGeneric.of(Object.class), raw.resolve(field("value"))),
+                () -> Assertions.assertSame(ReifiedGeneric.of(List.class), raw.resolve(field("values"))),
+                () -> Assertions.assertSame(ReifiedGeneric.of(Object[].class), raw.resolve(field("array")))
+        );
+    }
+
+    @Test
+    public void testResolveRawInner() throws Exception {
+        ReifiedGeneric<?> raw = ReifiedGeneric.of(Box.Inner.class);
+        Assertions.assertAll(
+                () -> Assertions.assertSame(ReifiedGeneric.of(Object.class), raw.resolve(Box.Inner.class.getDeclaredField("outerValue"))),
+                () -> Assertions.assertSame(ReifiedGeneric.of(List.class), raw.resolve(Box.Inner.class.getDeclaredField("outerValues"))),
+                () -> Assertions.assertSame(ReifiedGeneric.of(List.class), raw.resolve(Box.Inner.class.getDeclaredField("names")))
+        );
+    }
+
+    @Test
+    public void testResolveUnrelated() {
+        ReifiedGeneric<?> string = ReifiedGeneric.of(String.class);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> string.resolve(field("value")));
+    }
+}
@@ -68,4 +68,38 @@ public class TokenTest {
         var ex = Assertions.assertThrows(MalformedReifiedGenericException.class, () -> new Foo3<String>());
         Assertions.assertEquals(MalformedReifiedGenericException.GENERIC_ARRAY_ERROR_MESSAGE, ex.getMessage());
     }
+
+    private static class Foo4 extends Token<Map<String, List<Integer>>> {}
+
+    private static ReifiedGeneric<List<String>> listOfStrings() {
+        return new Token<List<String>>() {}.getReified();
+    }
+
+    @Test
+    public void testSameSubclassSameInstance() {
+        Assertions.assertSame(listOfStrings(), listOfStrings());
+    }
+
+    @Test
+    public void testReifiedOf() {
+        ReifiedGeneric<Map<String, List<Integer>>> r = Token.reifiedOf(Foo4.class);
+        Assertions.assertAll("tests",
+                () -> Assertions.assertSame(r, Token.reifiedOf(Foo4.class)),
+                () -> Assertions.assertSame(r, new Foo4().getReified()),
+                () -> Assertions.assertEquals(new Token<Map<String, List<Integer>>>() {}.getReified(), r)
+        );
+    }
+
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"}) // It's intended here.
+    public void testBadReifiedOf() throws Exception {
+        var ex1 = Assertions.assertThrows(MalformedReifiedGenericException.class, () -> Token.reifiedOf((Class) Foo1.class));
+        var ex2 = Assertions.assertThrows(IllegalArgumentException.class, () -> Token.reifiedOf((Class) String.class));
+        var ex3 = Assertions.assertThrows(IllegalArgumentException.class, () -> Token.reifiedOf((Class) Token.class));
+        Assertions.assertAll("tests",
+                () -> Assertions.assertEquals(MalformedReifiedGenericException.RAW_ERROR_MESSAGE, ex1.getMessage()),
+                () -> Assertions.assertEquals(String.class.getName() + " is not a Token subclass.", ex2.getMessage()),
+                () -> Assertions.assertEquals(Token.class.getName() + " is not a Token subclass.", ex3.getMessage())
+        );
+    }
 }
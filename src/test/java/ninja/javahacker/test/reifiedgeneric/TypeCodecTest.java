@@ -0,0 +1,179 @@
+package ninja.javahacker.test.reifiedgeneric;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import ninja.javahacker.reifiedgeneric.MalformedReifiedGenericException;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import ninja.javahacker.reifiedgeneric.TypeCodec;
+import ninja.javahacker.reifiedgeneric.Wrappers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+public class TypeCodecTest {
+
+    private static final ClassLoader LOADER = TypeCodecTest.class.getClassLoader();
+
+    @SuppressWarnings("unused")
+    private static class Outer<A> {
+        private class Inner<B> {
+        }
+    }
+
+    private static <T> List<T> foo() {
+        throw new UnsupportedOperationException();
+    }
+
+    private static List<ReifiedGeneric<?>> samples() {
+        return List.of(
+                ReifiedGeneric.of(String.class),
+                ReifiedGeneric.of(int.class),
+                ReifiedGeneric.of(long[][].class),
+                ReifiedGeneric.of(String[].class),
+                ReifiedGeneric.of(Map.Entry.class),
+                new Token<List<String>>() {}.getReified(),
+                new Token<Map<String, List<int[]>>>() {}.getReified(),
+                new Token<Map.Entry<String, Integer>>() {}.getReified(),
+                new Token<List<? extends Number>>() {}.getReified(),
+                new Token<List<? super Integer>>() {}.getReified(),
+                new Token<List<?>>() {}.getReified(),
+                new Token<List<List<String>[][]>>() {}.getReified(),
+                new Token<Function<? super String[], ? extends List<?>>>() {}.getReified(),
+                new Token<Outer<String>.Inner<Integer>>() {}.getReified(),
+                new Token<List<String>>() {}.getReified()
+        );
+    }
+
+    private static byte[] writeAll(TypeCodec codec, List<ReifiedGeneric<?>> types) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (ReifiedGeneric<?> t : types) {
+            codec.write(t, out);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testRoundTripDataStreams() throws Exception {
+        for (TypeCodec reader : List.of(TypeCodec.withDictionary(), TypeCodec.withoutDictionary())) {
+            TypeCodec writer = reader == TypeCodec.withoutDictionary() ? reader : TypeCodec.withDictionary();
+            List<ReifiedGeneric<?>> types = samples();
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(writeAll(writer, types)));
+            for (ReifiedGeneric<?> t : types) {
+                Assertions.assertSame(t, reader.read(in, LOADER), t.toString());
+            }
+            Assertions.assertThrows(EOFException.class, () -> reader.read(in, LOADER));
+        }
+    }
+
+    @Test
+    public void testRoundTripByteBuffers() {
+        for (TypeCodec reader : List.of(TypeCodec.withDictionary(), TypeCodec.withoutDictionary())) {
+            TypeCodec writer = reader == TypeCodec.withoutDictionary() ? reader : TypeCodec.withDictionary();
+            List<ReifiedGeneric<?>> types = samples();
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            for (ReifiedGeneric<?> t : types) {
+                writer.write(t, buffer);
+            }
+            buffer.flip();
+            for (ReifiedGeneric<?> t : types) {
+                Assertions.assertSame(t, reader.read(buffer, LOADER), t.toString());
+            }
+            Assertions.assertFalse(buffer.hasRemaining());
+            Assertions.assertThrows(BufferUnderflowException.class, () -> reader.read(buffer, LOADER));
+        }
+    }
+
+    @Test
+    public void testDictionaryIsCompact() throws Exception {
+        ReifiedGeneric<?> type = new Token<Map<String, List<Integer>>>() {}.getReified();
+        TypeCodec codec = TypeCodec.withDictionary();
+        int first = writeAll(codec, List.of(type)).length;
+        int second = writeAll(codec, List.of(type)).length;
+        int stateless = writeAll(TypeCodec.withoutDictionary(), List.of(type)).length;
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(first, stateless),
+                () -> Assertions.assertEquals(6, second),
+                () -> Assertions.assertTrue(first < type.getType().getTypeName().length() + 8, "first: " + first)
+        );
+        codec.reset();
+        Assertions.assertEquals(first, writeAll(codec, List.of(type)).length);
+    }
+
+    @Test
+    public void testTypeVariableNotEncodable() throws Exception {
+        ReifiedGeneric<?> bad = ReifiedGeneric.of(TypeCodecTest.class.getDeclaredMethod("foo").getGenericReturnType());
+        ReifiedGeneric<?> good = new Token<List<String>>() {}.getReified();
+        TypeCodec writer = TypeCodec.withDictionary();
+        TypeCodec reader = TypeCodec.withDictionary();
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> writer.write(bad, buffer));
+        buffer.clear();
+        writer.write(good, buffer);
+        buffer.flip();
+        Assertions.assertSame(good, reader.read(buffer, LOADER));
+    }
+
+    @Test
+    public void testFailedWriteLeavesNothing() throws Exception {
+        ReifiedGeneric<?> bad = Wrappers.map(
+                ReifiedGeneric.of(Long.class),
+                ReifiedGeneric.of(TypeCodecTest.class.getDeclaredMethod("foo").getGenericReturnType()));
+        ReifiedGeneric<?> good = new Token<Map<Long, List<String>>>() {}.getReified();
+        TypeCodec writer = TypeCodec.withDictionary();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> writer.write(bad, out));
+        Assertions.assertEquals(0, bytes.size());
+        writer.write(good, out);
+        out.flush();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        Assertions.assertSame(good, TypeCodec.withDictionary().read(in, LOADER));
+    }
+
+    @Test
+    public void testTooDeep() throws Exception {
+        ReifiedGeneric<?> type = ReifiedGeneric.of(String.class);
+        for (int i = 0; i < 255; i++) {
+            type = Wrappers.list(type);
+        }
+        ReifiedGeneric<?> deepest = type;
+        ReifiedGeneric<?> tooDeep = Wrappers.list(type);
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        TypeCodec.withoutDictionary().write(deepest, buffer);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TypeCodec.withoutDictionary().write(tooDeep, buffer));
+        buffer.flip();
+        Assertions.assertSame(deepest, TypeCodec.withoutDictionary().read(buffer, LOADER));
+        Assertions.assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testMalformed() {
+        byte[][] bad = {
+            {1}, // Unknown dictionary reference.
+            {(byte) 0x7A}, // Unknown primitive.
+            {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0}, // Overlong varint.
+            {0}, // Empty class name.
+            {3 | 1 << 3, 0 | 1 << 3, 'T'}, // Unknown class T[].
+            {4, 2 | 4 << 3}, // Parameterized int.
+        };
+        for (byte[] b : bad) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> TypeCodec.withoutDictionary().read(ByteBuffer.wrap(b), LOADER));
+        }
+        Assertions.assertThrows(
+                MalformedReifiedGenericException.class,
+                () -> TypeCodec.withoutDictionary().read(ByteBuffer.wrap(new byte[] {6}), LOADER));
+    }
+}
@@ -0,0 +1,153 @@
+package ninja.javahacker.test.reifiedgeneric;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import ninja.javahacker.reifiedgeneric.TypeDispatcher;
+import ninja.javahacker.reifiedgeneric.Wrappers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+public class TypeDispatcherTest {
+
+    private static final ReifiedGeneric<?> OBJECT = ReifiedGeneric.of(Object.class);
+    private static final ReifiedGeneric<?> COLLECTION = new Token<Collection<?>>() {}.getReified();
+    private static final ReifiedGeneric<?> NUMBERS = new Token<Collection<? extends Number>>() {}.getReified();
+    private static final ReifiedGeneric<?> LIST = new Token<List<?>>() {}.getReified();
+    private static final ReifiedGeneric<?> STRINGS = new Token<List<String>>() {}.getReified();
+    private static final ReifiedGeneric<?> ARRAY_LIST = new Token<ArrayList<String>>() {}.getReified();
+    private static final ReifiedGeneric<?> INTEGERS = new Token<HashSet<Integer>>() {}.getReified();
+    private static final ReifiedGeneric<?> RANDOM_ACCESS = ReifiedGeneric.of(RandomAccess.class);
+
+    @Test
+    public void testMostSpecific() {
+        TypeDispatcher<String> dispatcher = new TypeDispatcher<>();
+        dispatcher.register(STRINGS, "strings");
+        dispatcher.register(OBJECT, "object");
+        dispatcher.register(COLLECTION, "collection");
+        dispatcher.register(NUMBERS, "numbers");
+        dispatcher.register(LIST, "list");
+        Assertions.assertAll(
+                () -> Assertions.assertEquals("strings", dispatcher.dispatch(ARRAY_LIST)),
+                () -> Assertions.assertEquals("strings", dispatcher.dispatch(STRINGS)),
+                () -> Assertions.assertEquals("list", dispatcher.dispatch(new Token<List<Object>>() {}.getReified())),
+                () -> Assertions.assertEquals("numbers", dispatcher.dispatch(INTEGERS)),
+                () -> Assertions.assertEquals("collection", dispatcher.dispatch(new Token<Set<String>>() {}.getReified())),
+                () -> Assertions.assertEquals("object", dispatcher.dispatch(ReifiedGeneric.of(String.class))),
+                () -> Assertions.assertEquals("strings", dispatcher.dispatch(ARRAY_LIST)),
+                () -> Assertions.assertEquals(Integer.valueOf(5), Integer.valueOf(dispatcher.size()))
+        );
+    }
+
+    @Test
+    public void testRegistrationOrder() {
+        List<ReifiedGeneric<?>> types = List.of(STRINGS, OBJECT, COLLECTION, NUMBERS, LIST);
+        for (int rotation = 0; rotation < types.size() * 2; rotation++) {
+            List<ReifiedGeneric<?>> order = new ArrayList<>(types);
+            if (rotation >= types.size()) Collections.reverse(order);
+            Collections.rotate(order, rotation);
+            TypeDispatcher<ReifiedGeneric<?>> dispatcher = new TypeDispatcher<>();
+            for (ReifiedGeneric<?> t : order) {
+                dispatcher.register(t, t);
+            }
+            String name = order.toString();
+            Assertions.assertAll(name,
+                    () -> Assertions.assertSame(STRINGS, dispatcher.dispatch(ARRAY_LIST)),
+                    () -> Assertions.assertSame(NUMBERS, dispatcher.dispatch(INTEGERS)),
+                    () -> Assertions.assertSame(LIST, dispatcher.dispatch(new Token<List<Object>>() {}.getReified())),
+                    () -> Assertions.assertSame(OBJECT, dispatcher.dispatch(ReifiedGeneric.of(String.class)))
+            );
+            dispatcher.remove(order.get(2));
+            dispatcher.remove(STRINGS);
+            Assertions.assertAll(name,
+                    () -> Assertions.assertSame(dispatcher.dispatch(STRINGS), dispatcher.dispatch(ARRAY_LIST)),
+                    () -> Assertions.assertNotSame(STRINGS, dispatcher.dispatch(ARRAY_LIST)),
+                    () -> Assertions.assertEquals(Integer.valueOf(order.get(2) == STRINGS ? 4 : 3), Integer.valueOf(dispatcher.size()))
+            );
+        }
+    }
+
+    @Test
+    public void testNoMatch() {
+        TypeDispatcher<String> dispatcher = new TypeDispatcher<>();
+        Assertions.assertNull(dispatcher.dispatch(STRINGS));
+        dispatcher.register(NUMBERS, "numbers");
+        Assertions.assertAll(
+                () -> Assertions.assertNull(dispatcher.dispatch(STRINGS)),
+                () -> Assertions.assertNull(dispatcher.dispatch(OBJECT)),
+                () -> Assertions.assertEquals("numbers", dispatcher.dispatch(INTEGERS))
+        );
+    }
+
+    @Test
+    public void testRegistrationClearsCache() {
+        TypeDispatcher<String> dispatcher = new TypeDispatcher<>();
+        dispatcher.register(COLLECTION, "collection");
+        Assertions.assertEquals("collection", dispatcher.dispatch(ARRAY_LIST));
+        Assertions.assertNull(dispatcher.register(STRINGS, "strings"));
+        Assertions.assertEquals("strings", dispatcher.dispatch(ARRAY_LIST));
+        Assertions.assertEquals("strings", dispatcher.register(STRINGS, "strings 2"));
+        Assertions.assertEquals("strings 2", dispatcher.dispatch(ARRAY_LIST));
+        Assertions.assertEquals("strings 2", dispatcher.remove(STRINGS));
+        Assertions.assertNull(dispatcher.remove(STRINGS));
+        Assertions.assertEquals("collection", dispatcher.dispatch(ARRAY_LIST));
+    }
+
+    @Test
+    public void testAmbiguous() {
+        TypeDispatcher<String> dispatcher = new TypeDispatcher<>();
+        dispatcher.register(LIST, "list");
+        dispatcher.register(RANDOM_ACCESS, "random access");
+        Assertions.assertAll(
+                () -> Assertions.assertThrows(IllegalArgumentException.class, () -> dispatcher.dispatch(ARRAY_LIST)),
+                () -> Assertions.assertThrows(IllegalArgumentException.class, () -> dispatcher.dispatch(ARRAY_LIST)),
+                () -> Assertions.assertEquals("list", dispatcher.dispatch(new Token<LinkedList<String>>() {}.getReified()))
+        );
+        dispatcher.register(ARRAY_LIST, "array list");
+        Assertions.assertEquals("array list", dispatcher.dispatch(ARRAY_LIST));
+    }
+
+    public static class Payload {
+    }
+
+    private static WeakReference<ClassLoader> dispatchIsolated(TypeDispatcher<String> dispatcher) {
+        Class<?> payload = IsolatedLoader.copyOf(Payload.class);
+        Assertions.assertNotSame(Payload.class, payload);
+        Assertions.assertEquals("object", dispatcher.dispatch(Wrappers.list(ReifiedGeneric.of(payload))));
+        return new WeakReference<>(payload.getClassLoader());
+    }
+
+    @Test
+    public void testCacheDoesNotPinTypes() {
+        TypeDispatcher<String> dispatcher = new TypeDispatcher<>();
+        dispatcher.register(OBJECT, "object");
+        IsolatedLoader.assertCollected(dispatchIsolated(dispatcher));
+        Assertions.assertEquals("object", dispatcher.dispatch(STRINGS));
+    }
+
+    @Test
+    public void testManyHandlers() {
+        TypeDispatcher<Integer> dispatcher = new TypeDispatcher<>();
+        List<ReifiedGeneric<?>> types = new ArrayList<>();
+        ReifiedGeneric<?> type = ReifiedGeneric.of(String.class);
+        for (int i = 0; i < 300; i++) {
+            type = Wrappers.list(type);
+            types.add(type);
+            dispatcher.register(type, i);
+        }
+        for (int i = 0; i < types.size(); i++) {
+            Assertions.assertEquals(Integer.valueOf(i), dispatcher.dispatch(types.get(i)));
+        }
+    }
+}
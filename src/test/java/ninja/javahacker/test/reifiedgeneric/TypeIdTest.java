@@ -0,0 +1,81 @@
+package ninja.javahacker.test.reifiedgeneric;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import ninja.javahacker.reifiedgeneric.Wrappers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+public class TypeIdTest {
+
+    @Test
+    public void testStableIds() {
+        ReifiedGeneric<?> a = new Token<Map<String, List<Short>>>() {}.getReified();
+        ReifiedGeneric<?> b = new Token<Map<String, List<Short>>>() {}.getReified();
+        ReifiedGeneric<?> c = new Token<Map<String, List<Byte>>>() {}.getReified();
+        int id = a.id();
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(id >= 0),
+                () -> Assertions.assertEquals(id, a.id()),
+                () -> Assertions.assertEquals(id, b.id()),
+                () -> Assertions.assertNotEquals(id, c.id()),
+                () -> Assertions.assertSame(a, ReifiedGeneric.byId(id)),
+                () -> Assertions.assertSame(c, ReifiedGeneric.byId(c.id())),
+                () -> Assertions.assertTrue(id < ReifiedGeneric.idBound()),
+                () -> Assertions.assertTrue(c.id() < ReifiedGeneric.idBound()),
+                () -> Assertions.assertNull(ReifiedGeneric.byId(-1))
+        );
+    }
+
+    @Test
+    public void testDenseIds() {
+        int before = ReifiedGeneric.idBound();
+        Set<Integer> ids = new HashSet<>();
+        List<ReifiedGeneric<?>> alive = new ArrayList<>();
+        Type t = Character.class;
+        for (int i = 0; i < 100; i++) {
+            t = Wrappers.make(List.class, new Type[] {t}, null);
+            alive.add(ReifiedGeneric.of(t));
+            ids.add(alive.get(i).id());
+        }
+        Assertions.assertEquals(100, ids.size());
+        Assertions.assertTrue(ReifiedGeneric.idBound() - before <= 100, "Ids should be dense.");
+    }
+
+    @Test
+    public void testConcurrentAssignment() throws Exception {
+        List<ReifiedGeneric<?>> types = new ArrayList<>();
+        Type t = Boolean.class;
+        for (int i = 0; i < 50; i++) {
+            t = Wrappers.make(Map.class, new Type[] {String.class, t}, null);
+            types.add(ReifiedGeneric.of(t));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<int[]>> tasks = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                tasks.add(() -> types.stream().mapToInt(ReifiedGeneric::id).toArray());
+            }
+            List<Future<int[]>> results = pool.invokeAll(tasks);
+            int[] expected = types.stream().mapToInt(ReifiedGeneric::id).toArray();
+            for (Future<int[]> f : results) {
+                Assertions.assertArrayEquals(expected, f.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package ninja.javahacker.test.reifiedgeneric;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import ninja.javahacker.reifiedgeneric.TypeIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+@SuppressWarnings("unused")
+public class TypeIndexTest {
+
+    private static class Foo {
+    }
+
+    private static class FooSupplier implements Supplier<Foo> {
+        @Override
+        public Foo get() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class Holder<T> {
+        private Supplier<Foo> plain;
+        private FooSupplier sub;
+        private Supplier<String> other;
+        private Supplier<? extends Foo> wild;
+        private T bare;
+        private List<T> list;
+
+        private Holder(Supplier<Foo> first, Map<String, Foo> second) {
+        }
+
+        private FooSupplier make(Supplier<Foo> param) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class Missing {
+    }
+
+    private static class HalfBroken {
+        private Supplier<Foo> fine;
+
+        private Missing broken() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static List<Class<?>> manyClasses() {
+        List<Class<?>> classes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            classes.add(Holder.class);
+            classes.add(FooSupplier.class);
+            classes.add(String.class);
+        }
+        return classes;
+    }
+
+    @Test
+    public void testAssignableTo() throws Exception {
+        TypeIndex index = TypeIndex.of(List.of(Holder.class, FooSupplier.class));
+        ReifiedGeneric<?> target = new Token<Supplier<Foo>>() {}.getReified();
+        List<AnnotatedElement> found = index.assignableTo(target);
+        Field plain = Holder.class.getDeclaredField("plain");
+        Field sub = Holder.class.getDeclaredField("sub");
+        Parameter first = Holder.class.getDeclaredConstructors()[0].getParameters()[0];
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(found.contains(plain)),
+                () -> Assertions.assertTrue(found.contains(sub)),
+                () -> Assertions.assertTrue(found.contains(first)),
+                () -> Assertions.assertTrue(found.contains(Holder.class.getDeclaredMethod("make", Supplier.class))),
+                () -> Assertions.assertFalse(found.contains(Holder.class.getDeclaredField("other"))),
+                () -> Assertions.assertFalse(found.contains(Holder.class.getDeclaredField("wild"))),
+                () -> Assertions.assertEquals(5, found.size()),
+                () -> Assertions.assertSame(found, index.assignableTo(target))
+        );
+    }
+
+    @Test
+    public void testExactAndSkipped() throws Exception {
+        TypeIndex index = TypeIndex.of(List.of(Holder.class));
+        ReifiedGeneric<?> supplier = new Token<Supplier<Foo>>() {}.getReified();
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(3, index.ofType(supplier).size()),
+                () -> Assertions.assertTrue(index.types().contains(ReifiedGeneric.of(FooSupplier.class))),
+                () -> Assertions.assertTrue(index.ofType(ReifiedGeneric.of(Integer.class)).isEmpty()),
+                () -> Assertions.assertTrue(index.types().stream().noneMatch(t -> t.asClass() == Object.class))
+        );
+    }
+
+    @Test
+    public void testSkipsWholeBrokenClass() {
+        Class<?> broken = IsolatedLoader.copyOf(HalfBroken.class, Missing.class);
+        Assertions.assertThrows(NoClassDefFoundError.class, broken::getDeclaredMethods);
+        TypeIndex index = TypeIndex.of(List.of(broken, FooSupplier.class));
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(index.ofType(new Token<Supplier<Foo>>() {}.getReified()).isEmpty()),
+                () -> Assertions.assertFalse(index.ofType(ReifiedGeneric.of(Foo.class)).isEmpty())
+        );
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        List<Class<?>> classes = manyClasses();
+        TypeIndex big = TypeIndex.of(classes);
+        TypeIndex small = TypeIndex.of(List.of(Holder.class, FooSupplier.class, String.class));
+        Assertions.assertEquals(small.types(), big.types());
+        for (ReifiedGeneric<?> t : small.types()) {
+            Assertions.assertEquals(small.ofType(t).size(), big.ofType(t).size(), t.toString());
+        }
+    }
+
+    @Test
+    public void testModule() {
+        TypeIndex index = TypeIndex.of(Logger.class.getModule());
+        Assertions.assertTrue(index.size() > 10);
+        Assertions.assertFalse(index.ofType(ReifiedGeneric.of(Logger.class)).isEmpty());
+        Module unnamed = TypeIndexTest.class.getClassLoader().getUnnamedModule();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TypeIndex.of(unnamed));
+    }
+}
@@ -0,0 +1,116 @@
+package ninja.javahacker.test.reifiedgeneric;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import ninja.javahacker.reifiedgeneric.TypeMap;
+import ninja.javahacker.reifiedgeneric.Wrappers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+public class TypeMapTest {
+
+    private static List<ReifiedGeneric<?>> keys(int count) {
+        List<ReifiedGeneric<?>> keys = new ArrayList<>(count);
+        Type list = String.class;
+        Type map = Integer.class;
+        while (keys.size() < count) {
+            list = Wrappers.make(List.class, new Type[] {list}, null);
+            map = Wrappers.make(Map.class, new Type[] {map, list}, null);
+            keys.add(ReifiedGeneric.of(list));
+            keys.add(ReifiedGeneric.of(map));
+        }
+        return keys;
+    }
+
+    @Test
+    public void testTypeSafety() {
+        ReifiedGeneric<List<String>> names = new Token<List<String>>() {}.getReified();
+        ReifiedGeneric<Integer> number = ReifiedGeneric.of(Integer.class);
+        ReifiedGeneric<Integer> primitive = ReifiedGeneric.of(int.class);
+        List<String> x = List.of("a", "b");
+        TypeMap map = TypeMap.empty().with(names, x).with(number, 42).with(primitive, 7);
+        List<String> y = map.get(names);
+        Assertions.assertAll(
+                () -> Assertions.assertSame(x, y),
+                () -> Assertions.assertEquals(Integer.valueOf(42), map.get(number)),
+                () -> Assertions.assertEquals(Integer.valueOf(7), map.get(primitive)),
+                () -> Assertions.assertNull(map.get(ReifiedGeneric.of(String.class))),
+                () -> Assertions.assertEquals(3, map.size())
+        );
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ReifiedGeneric<Object> lie = (ReifiedGeneric) number;
+        Assertions.assertThrows(ClassCastException.class, () -> map.with(lie, "not a number"));
+    }
+
+    @Test
+    public void testPersistence() {
+        ReifiedGeneric<String> s = ReifiedGeneric.of(String.class);
+        ReifiedGeneric<Long> l = ReifiedGeneric.of(Long.class);
+        TypeMap empty = TypeMap.empty();
+        TypeMap one = empty.with(s, "x");
+        TypeMap two = one.with(l, 5L);
+        TypeMap changed = two.with(s, "y");
+        TypeMap removed = changed.without(s);
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(empty.isEmpty()),
+                () -> Assertions.assertEquals("x", one.get(s)),
+                () -> Assertions.assertNull(one.get(l)),
+                () -> Assertions.assertEquals("x", two.get(s)),
+                () -> Assertions.assertEquals("y", changed.get(s)),
+                () -> Assertions.assertEquals(2, changed.size()),
+                () -> Assertions.assertFalse(removed.containsKey(s)),
+                () -> Assertions.assertEquals(Long.valueOf(5L), removed.get(l)),
+                () -> Assertions.assertSame(removed, removed.without(s)),
+                () -> Assertions.assertSame(empty, one.without(s)),
+                () -> Assertions.assertEquals(one, empty.with(s, "x")),
+                () -> Assertions.assertEquals(one.hashCode(), empty.with(s, "x").hashCode()),
+                () -> Assertions.assertNotEquals(one, changed.without(l)),
+                () -> Assertions.assertEquals("TypeMap{java.lang.String=x}", one.toString())
+        );
+        String same = "x";
+        Assertions.assertSame(one, one.with(s, same));
+    }
+
+    @Test
+    public void testAgainstModel() {
+        List<ReifiedGeneric<?>> keys = keys(400);
+        Random random = new Random(42);
+        Map<ReifiedGeneric<?>, Object> model = new HashMap<>();
+        TypeMap map = TypeMap.empty();
+        for (int step = 0; step < 5000; step++) {
+            @SuppressWarnings("unchecked")
+            ReifiedGeneric<Object> key = (ReifiedGeneric<Object>) keys.get(random.nextInt(keys.size()));
+            if (random.nextInt(3) == 0) {
+                model.remove(key);
+                map = map.without(key);
+            } else {
+                Object value = List.class.equals(key.asClass()) ? List.of(step) : Map.of(step, step);
+                model.put(key, value);
+                map = map.with(key, value);
+            }
+            Assertions.assertEquals(model.size(), map.size());
+        }
+        for (ReifiedGeneric<?> key : keys) {
+            Assertions.assertEquals(model.get(key), map.get(key), key.toString());
+        }
+        Map<ReifiedGeneric<?>, Object> seen = new HashMap<>();
+        map.forEach(seen::put);
+        Assertions.assertEquals(model, seen);
+        Assertions.assertEquals(model.hashCode(), map.hashCode());
+
+        for (ReifiedGeneric<?> key : keys) {
+            map = map.without(key);
+        }
+        Assertions.assertSame(TypeMap.empty(), map);
+    }
+}
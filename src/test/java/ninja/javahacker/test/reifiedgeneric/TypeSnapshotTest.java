@@ -0,0 +1,120 @@
+package ninja.javahacker.test.reifiedgeneric;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import ninja.javahacker.reifiedgeneric.TypeSnapshot;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+public class TypeSnapshotTest {
+
+    private static final ClassLoader LOADER = TypeSnapshotTest.class.getClassLoader();
+
+    private static class Foo {
+    }
+
+    private static List<ReifiedGeneric<?>> types() {
+        return List.of(
+                ReifiedGeneric.of(String.class),
+                ReifiedGeneric.of(int[][].class),
+                new Token<Map<String, List<Integer>>>() {}.getReified(),
+                new Token<List<? extends Number>>() {}.getReified(),
+                new Token<Map<List<String>, List<String>>>() {}.getReified(),
+                new Token<Supplier<Foo>>() {}.getReified(),
+                ReifiedGeneric.of(String.class)
+        );
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path file = Files.createTempFile("types", ".bin");
+        List<ReifiedGeneric<?>> types = types();
+        TypeSnapshot.write(types, file);
+        TypeSnapshot snapshot = TypeSnapshot.open(file, LOADER);
+        Assertions.assertEquals(6, snapshot.size());
+        for (ReifiedGeneric<?> t : types) {
+            Assertions.assertSame(t, snapshot.find(t.fingerprint()), t.toString());
+        }
+        List<ReifiedGeneric<?>> all = new ArrayList<>();
+        for (int i = 0; i < snapshot.size(); i++) {
+            all.add(snapshot.get(i));
+            Assertions.assertEquals(snapshot.get(i).fingerprint(), snapshot.fingerprint(i));
+            if (i > 0) Assertions.assertTrue(snapshot.fingerprint(i - 1) < snapshot.fingerprint(i));
+        }
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(all.containsAll(types)),
+                () -> Assertions.assertEquals(0, snapshot.validate()),
+                () -> Assertions.assertNull(snapshot.find(ReifiedGeneric.of(Long.class).fingerprint())),
+                () -> Assertions.assertThrows(IndexOutOfBoundsException.class, () -> snapshot.get(6)),
+                () -> Assertions.assertThrows(IndexOutOfBoundsException.class, () -> snapshot.fingerprint(-1))
+        );
+    }
+
+    @Test
+    public void testStale() throws IOException {
+        Path file = Files.createTempFile("types", ".bin");
+        TypeSnapshot.write(types(), file);
+        TypeSnapshot snapshot = TypeSnapshot.open(file, null);
+        ReifiedGeneric<?> foo = new Token<Supplier<Foo>>() {}.getReified();
+        Assertions.assertAll(
+                () -> Assertions.assertNull(snapshot.find(foo.fingerprint())),
+                () -> Assertions.assertSame(ReifiedGeneric.of(String.class), snapshot.find(ReifiedGeneric.of(String.class).fingerprint())),
+                () -> Assertions.assertEquals(1, snapshot.validate())
+        );
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        Path file = Files.createTempFile("types", ".bin");
+        TypeSnapshot.write(List.of(), file);
+        TypeSnapshot snapshot = TypeSnapshot.open(file, LOADER);
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(0, snapshot.size()),
+                () -> Assertions.assertNull(snapshot.find(0L)),
+                () -> Assertions.assertEquals(0, snapshot.validate())
+        );
+    }
+
+    @Test
+    public void testCorrupted() throws IOException {
+        Path file = Files.createTempFile("types", ".bin");
+        TypeSnapshot.write(types(), file);
+        byte[] good = Files.readAllBytes(file);
+
+        Files.write(file, new byte[] {1, 2, 3});
+        Assertions.assertThrows(IOException.class, () -> TypeSnapshot.open(file, LOADER));
+
+        byte[] truncated = Arrays.copyOf(good, good.length - 1);
+        Files.write(file, truncated);
+        Assertions.assertThrows(IOException.class, () -> TypeSnapshot.open(file, LOADER));
+
+        byte[] badMagic = good.clone();
+        badMagic[0] ^= 1;
+        Files.write(file, badMagic);
+        Assertions.assertThrows(IOException.class, () -> TypeSnapshot.open(file, LOADER));
+
+        byte[] hugeCount = good.clone();
+        hugeCount[8] = 0x7F;
+        Files.write(file, hugeCount);
+        Assertions.assertThrows(IOException.class, () -> TypeSnapshot.open(file, LOADER));
+    }
+
+    @Test
+    public void testNulls() {
+        Path file = Path.of("unused");
+        List<ReifiedGeneric<?>> withNull = new ArrayList<>();
+        withNull.add(null);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TypeSnapshot.write(withNull, file));
+    }
+}
@@ -0,0 +1,191 @@
+package ninja.javahacker.test.reifiedgeneric;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import ninja.javahacker.reifiedgeneric.ReifiedGeneric;
+import ninja.javahacker.reifiedgeneric.Token;
+import ninja.javahacker.reifiedgeneric.TypeValue;
+import ninja.javahacker.reifiedgeneric.Wrappers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Victor Williams Stafusa da Silva
+ */
+public class TypeValueTest {
+
+    private static class Counting extends TypeValue<String> {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        protected String computeValue(ReifiedGeneric<?> type) {
+            return type + "#" + calls.incrementAndGet();
+        }
+    }
+
+    public static class Payload {
+    }
+
+    /**
+     * Computes values that refer back to this {@code TypeValue} and so to its class loader.
+     */
+    public static class SelfReferencing extends TypeValue<Object> {
+        @Override
+        protected Object computeValue(ReifiedGeneric<?> type) {
+            return List.of(this, type);
+        }
+    }
+
+    private static final TypeValue<Class<?>> CLASSES = new TypeValue<>() {
+        @Override
+        protected Class<?> computeValue(ReifiedGeneric<?> type) {
+            return type.asClass();
+        }
+    };
+
+    /**
+     * Computes values that refer back to their own types.
+     */
+    private static final TypeValue<Object> WRAPPED = new TypeValue<>() {
+        @Override
+        protected Object computeValue(ReifiedGeneric<?> type) {
+            return List.of(type);
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    private static WeakReference<ClassLoader> useIsolatedTypeValue() throws ReflectiveOperationException {
+        Class<?> isolated = IsolatedLoader.copyOf(SelfReferencing.class);
+        TypeValue<Object> values = (TypeValue<Object>) isolated.getConstructor().newInstance();
+        ReifiedGeneric<?> type = new Token<List<String>>() {}.getReified();
+        Assertions.assertSame(values.get(type), values.get(type));
+        return new WeakReference<>(isolated.getClassLoader());
+    }
+
+    private static WeakReference<ClassLoader> useIsolatedType() {
+        Class<?> payload = IsolatedLoader.copyOf(Payload.class);
+        ReifiedGeneric<?> type = ReifiedGeneric.of(payload);
+        Assertions.assertSame(payload, CLASSES.get(type));
+        Assertions.assertSame(payload, CLASSES.get(type));
+        return new WeakReference<>(payload.getClassLoader());
+    }
+
+    private static List<WeakReference<?>> useMixedType() {
+        Class<?> a = IsolatedLoader.copyOf(Payload.class);
+        Class<?> b = IsolatedLoader.copyOf(Payload.class);
+        ReifiedGeneric<?> type = Wrappers.map(ReifiedGeneric.of(a), ReifiedGeneric.of(b));
+        Assertions.assertSame(WRAPPED.get(type), WRAPPED.get(type));
+        return List.of(new WeakReference<>(type), new WeakReference<>(a.getClassLoader()), new WeakReference<>(b.getClassLoader()));
+    }
+
+    @Test
+    public void testMixedTypeUnloadsDespiteItsValue() {
+        List<WeakReference<?>> refs = useMixedType();
+        IsolatedLoader.assertCollected(refs.get(0));
+
+        // Interning some other type purges the key of the collected one.
+        Runnable purge = () -> ReifiedGeneric.of(Wrappers.make(List.class, new Type[] {Payload.class}, null));
+        IsolatedLoader.assertCollected(refs.get(1), purge);
+        IsolatedLoader.assertCollected(refs.get(2), purge);
+    }
+
+    @Test
+    public void testTypeValueUnloads() throws Exception {
+        IsolatedLoader.assertCollected(useIsolatedTypeValue());
+    }
+
+    @Test
+    public void testTypeUnloads() {
+        IsolatedLoader.assertCollected(useIsolatedType());
+        Assertions.assertSame(String.class, CLASSES.get(ReifiedGeneric.of(String.class)));
+    }
+
+    @Test
+    public void testComputeOnce() {
+        Counting names = new Counting();
+        ReifiedGeneric<?> a = new Token<Map<String, List<Integer>>>() {}.getReified();
+        ReifiedGeneric<?> b = new Token<Map<String, List<Integer>>>() {}.getReified();
+        ReifiedGeneric<?> c = new Token<Map<String, List<Long>>>() {}.getReified();
+        String first = names.get(a);
+        Assertions.assertAll(
+                () -> Assertions.assertSame(first, names.get(a)),
+                () -> Assertions.assertSame(first, names.get(b)),
+                () -> Assertions.assertNotEquals(first, names.get(c)),
+                () -> Assertions.assertEquals(2, names.calls.get())
+        );
+    }
+
+    @Test
+    public void testIndependentValues() {
+        Counting one = new Counting();
+        Counting two = new Counting();
+        ReifiedGeneric<?> type = ReifiedGeneric.of(String.class);
+        String x = one.get(type);
+        String y = two.get(type);
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(x, y),
+                () -> Assertions.assertNotSame(x, y),
+                () -> Assertions.assertSame(x, one.get(type)),
+                () -> Assertions.assertSame(y, two.get(type))
+        );
+    }
+
+    @Test
+    public void testRemove() {
+        Counting names = new Counting();
+        ReifiedGeneric<?> type = new Token<List<String>>() {}.getReified();
+        String first = names.get(type);
+        names.remove(type);
+        names.remove(type);
+        String second = names.get(type);
+        Assertions.assertAll(
+                () -> Assertions.assertNotEquals(first, second),
+                () -> Assertions.assertSame(second, names.get(type)),
+                () -> Assertions.assertEquals(2, names.calls.get())
+        );
+    }
+
+    @Test
+    public void testNullValue() {
+        AtomicInteger calls = new AtomicInteger();
+        TypeValue<Object> nulls = new TypeValue<>() {
+            @Override
+            protected Object computeValue(ReifiedGeneric<?> type) {
+                calls.incrementAndGet();
+                return null;
+            }
+        };
+        ReifiedGeneric<?> type = ReifiedGeneric.of(Integer.class);
+        Assertions.assertNull(nulls.get(type));
+        Assertions.assertNull(nulls.get(type));
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testConcurrentGet() throws Exception {
+        Counting names = new Counting();
+        ReifiedGeneric<?> type = new Token<Map<Long, List<String>>>() {}.getReified();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<String>> tasks = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                tasks.add(() -> names.get(type));
+            }
+            List<Future<String>> results = pool.invokeAll(tasks);
+            String expected = names.get(type);
+            for (Future<String> f : results) {
+                Assertions.assertSame(expected, f.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package ninja.javahacker.test.reifiedgeneric;
 
+import com.sun.management.ThreadMXBean;
+import java.lang.ref.WeakReference;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +36,9 @@ public class WrappersTest {
     private static final ReifiedGeneric<String> THING = new Token<String>() {}.getReified();
     private static final ReifiedGeneric<Integer> OTHER = new Token<Integer>() {}.getReified();
 
+    public static class Payload {
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testWrappersUninstantiable() throws Exception {
@@ -59,6 +69,44 @@ public class WrappersTest {
         Assertions.assertAll(Stream.of(a, b, c, d).map(x -> () -> Assertions.assertEquals(THING, x)));
     }
 
+    private static class Foo implements Iterable<String> {
+        @Override
+        public Iterator<String> iterator() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class Bar<A> extends HashMap<Integer, A> {
+        private static final long serialVersionUID = 1L;
+    }
+
+    @Test
+    public void testWrapSubtypes() {
+        var a = Wrappers.unwrapIterable(new Token<ArrayList<String>>() {}.getReified());
+        var b = Wrappers.unwrapIterable(ReifiedGeneric.of(Foo.class));
+        var c = Wrappers.unwrapMapValue(new Token<Bar<String>>() {}.getReified());
+        var d = Wrappers.unwrapMapKey(new Token<Bar<String>>() {}.getReified());
+        Assertions.assertAll(
+                () -> Assertions.assertSame(THING, a),
+                () -> Assertions.assertSame(THING, b),
+                () -> Assertions.assertSame(THING, c),
+                () -> Assertions.assertSame(OTHER, d)
+        );
+    }
+
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"}) // It's intended here.
+    public void testWrapRawTypes() {
+        ReifiedGeneric rawList = ReifiedGeneric.of(List.class);
+        ReifiedGeneric string = ReifiedGeneric.of(String.class);
+        var a = Assertions.assertThrows(IllegalArgumentException.class, () -> Wrappers.unwrapIterable(rawList));
+        var b = Assertions.assertThrows(IllegalArgumentException.class, () -> Wrappers.unwrapMapKey(string));
+        Assertions.assertAll(
+                () -> Assertions.assertEquals("java.util.List doesn't specify the type arguments of java.lang.Iterable.", a.getMessage()),
+                () -> Assertions.assertEquals("java.lang.String is not a Map.", b.getMessage())
+        );
+    }
+
     @Test
     public void testUnwrapIterable() {
         Assertions.assertEquals(new Token<Iterable<String>>() {}.getReified(), Wrappers.iterable(THING));
@@ -141,4 +189,74 @@ public class WrappersTest {
                 () -> nonNullWasNull("base2", () -> Wrappers.navigableMap(THING, NIL))
         );
     }
+
+    @Test
+    public void testMemoizedWithoutAllocation() {
+        ReifiedGeneric<List<String>> list = Wrappers.list(THING);
+        ReifiedGeneric<Map<String, Integer>> map = Wrappers.map(THING, OTHER);
+        ReifiedGeneric<Map<Integer, String>> reversed = Wrappers.map(OTHER, THING);
+        Assertions.assertAll(
+                () -> Assertions.assertSame(list, Wrappers.list(THING)),
+                () -> Assertions.assertSame(map, Wrappers.map(THING, OTHER)),
+                () -> Assertions.assertSame(reversed, Wrappers.map(OTHER, THING)),
+                () -> Assertions.assertSame(new Token<List<String>>() {}.getReified(), list),
+                () -> Assertions.assertSame(new Token<Map<String, Integer>>() {}.getReified(), map),
+                () -> Assertions.assertSame(new Token<Map<Integer, String>>() {}.getReified(), reversed),
+                () -> Assertions.assertNotSame(map, reversed),
+                () -> Assertions.assertSame(Wrappers.entry(THING, THING), Wrappers.entry(THING, THING))
+        );
+
+        ThreadMXBean bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < 1000; i++) {
+            Wrappers.list(THING);
+            Wrappers.map(THING, OTHER);
+        }
+        long before = bean.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 10_000; i++) {
+            Wrappers.list(THING);
+            Wrappers.map(THING, OTHER);
+        }
+        long allocated = bean.getThreadAllocatedBytes(thread) - before;
+        Assertions.assertTrue(allocated < 10_000, "Allocated " + allocated + " bytes.");
+    }
+
+    @Test
+    public void testComposedSameAsValidated() {
+        ReifiedGeneric<WrappersTest> mine = ReifiedGeneric.of(WrappersTest.class);
+        Token<Map.Entry<List<WrappersTest>, Map<String, Set<Integer>>>> token =
+                new Token<Map.Entry<List<WrappersTest>, Map<String, Set<Integer>>>>() {};
+        Type jdk = ((ParameterizedType) token.getClass().getGenericSuperclass()).getActualTypeArguments()[0];
+        ReifiedGeneric<?> composed = Wrappers.entry(Wrappers.list(mine), Wrappers.map(THING, Wrappers.set(OTHER)));
+        Assertions.assertAll(
+                () -> Assertions.assertSame(token.getReified(), composed),
+                () -> Assertions.assertSame(ReifiedGeneric.of(jdk), composed),
+                () -> Assertions.assertEquals(jdk, composed.getType()),
+                () -> Assertions.assertEquals(composed.getType(), jdk),
+                () -> Assertions.assertEquals(Integer.valueOf(jdk.hashCode()), Integer.valueOf(composed.getType().hashCode())),
+                () -> Assertions.assertEquals(jdk.getTypeName(), composed.getType().getTypeName()),
+                () -> Assertions.assertSame(Map.class, ((ParameterizedType) composed.getType()).getOwnerType()),
+                () -> Assertions.assertSame(Wrappers.list(mine), composed.typeArgument(0))
+        );
+    }
+
+    private static List<WeakReference<?>> useMixedType() {
+        Class<?> a = IsolatedLoader.copyOf(Payload.class);
+        Class<?> b = IsolatedLoader.copyOf(Payload.class);
+        ReifiedGeneric<?> mixed = Wrappers.map(ReifiedGeneric.of(a), ReifiedGeneric.of(b));
+        ReifiedGeneric<?> list = Wrappers.list(mixed);
+        Assertions.assertSame(list, Wrappers.list(mixed));
+        return List.of(new WeakReference<>(list), new WeakReference<>(a.getClassLoader()), new WeakReference<>(b.getClassLoader()));
+    }
+
+    @Test
+    public void testMixedTypesUnload() {
+        List<WeakReference<?>> refs = useMixedType();
+        IsolatedLoader.assertCollected(refs.get(0));
+
+        // Interning some other type purges the keys of the collected ones.
+        Runnable purge = () -> ReifiedGeneric.of(Wrappers.make(List.class, new Type[] {Payload.class}, null));
+        IsolatedLoader.assertCollected(refs.get(1), purge);
+        IsolatedLoader.assertCollected(refs.get(2), purge);
+    }
 }